@@ -48,6 +48,9 @@ public class SecurityConfig {
                 .requestMatchers(HttpMethod.PUT, "/api/products/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.POST, "/api/products/*/images").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/products/*/images/batch").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/products/*/images/upload-signature").hasRole("ADMIN")
+                .requestMatchers(HttpMethod.POST, "/api/products/*/images/confirm").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.PUT, "/api/products/images/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/images/*").hasRole("ADMIN")
                 .requestMatchers(HttpMethod.DELETE, "/api/products/*/images").hasRole("ADMIN")
@@ -78,7 +81,8 @@ public class SecurityConfig {
             "https://laptoplace.vercel.app"
         ));
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-        config.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+        config.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-None-Match", "Idempotency-Key", "X-Last-Write-At"));
+        config.setExposedHeaders(List.of("ETag", "Retry-After", "X-Last-Write-At"));
         config.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -0,0 +1,69 @@
+package com.laptophub.backend.config;
+
+import com.laptophub.backend.service.CatalogVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * GET condicional para el catálogo: el ETag se deriva de la versión del catálogo,
+ * así que un If-None-Match vigente responde 304 sin consultar ni serializar productos.
+ * Los administradores ven productos inactivos y sin stock, por eso su ETag es distinto.
+ * Con réplica de lectura, si la réplica podría no tener aún la versión del ETag, la petición lee del primario.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEtagInterceptor implements HandlerInterceptor {
+
+    private final CatalogVersionService catalogVersionService;
+    private final ObjectProvider<ReplicaConsistencyTracker> replicaConsistencyTracker;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+
+        boolean isAdmin = isUserAdmin();
+        String etag = etag(catalogVersionService.currentVersion(), isAdmin);
+        replicaConsistencyTracker.ifAvailable(tracker -> {
+            if (tracker.catalogReadNeedsPrimary(catalogVersionService.lastChangeMillis())) {
+                tracker.pinToPrimary();
+            }
+        });
+
+        return !checkNotModified(request, response, etag, isAdmin);
+    }
+
+    /**
+     * Escribe las cabeceras de caché y el ETag; si coincide con If-None-Match deja la respuesta en 304 y devuelve true.
+     * La portada lo usa directamente con la versión de su instantánea (ver WebConfig).
+     */
+    public static boolean checkNotModified(HttpServletRequest request, HttpServletResponse response,
+                                           String etag, boolean isAdmin) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, isAdmin ? "private, no-cache" : "no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.AUTHORIZATION);
+        return new ServletWebRequest(request, response).checkNotModified(etag);
+    }
+
+    /**
+     * ETag de una respuesta del catálogo calculada con la versión indicada
+     */
+    public static String etag(String catalogVersion, boolean isAdmin) {
+        return "W/\"" + catalogVersion + (isAdmin ? "-admin" : "") + "\"";
+    }
+
+    private boolean isUserAdmin() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+    }
+}
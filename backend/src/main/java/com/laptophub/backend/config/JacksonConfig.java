@@ -0,0 +1,20 @@
+package com.laptophub.backend.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JacksonConfig {
+
+    /**
+     * Blackbird reemplaza el acceso por reflexión a getters/setters de los DTO por
+     * lambdas generadas con LambdaMetafactory. Spring Boot registra cualquier bean Module
+     * en el ObjectMapper que usa MappingJackson2HttpMessageConverter.
+     */
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,30 @@
+package com.laptophub.backend.config;
+
+import org.hibernate.HibernateException;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.LoadEvent;
+import org.hibernate.event.spi.LoadEventListener;
+
+/**
+ * Avisa a QueryPatternDetector de cada inicialización diferida: proxies de entidades (IMMEDIATE_LOAD)
+ * y colecciones LAZY. Las cargas con fetch join o EntityGraph no pasan por aquí.
+ * Se agrega después de los listeners por defecto de Hibernate, así que solo observa.
+ */
+public class LazyLoadListener implements LoadEventListener, InitializeCollectionEventListener {
+
+    @Override
+    public void onLoad(LoadEvent event, LoadType loadType) throws HibernateException {
+        if (loadType == LoadEventListener.IMMEDIATE_LOAD) {
+            QueryPatternDetector.recordLazyLoad("proxy " + QueryPatternDetector.simpleName(event.getEntityClassName()));
+        }
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) throws HibernateException {
+        String role = event.getCollection().getRole();
+        String entity = role.substring(0, role.lastIndexOf('.'));
+        QueryPatternDetector.recordLazyLoad("colección "
+                + QueryPatternDetector.simpleName(entity) + role.substring(role.lastIndexOf('.')));
+    }
+}
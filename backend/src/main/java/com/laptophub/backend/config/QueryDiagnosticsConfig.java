@@ -0,0 +1,61 @@
+package com.laptophub.backend.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Diagnóstico de N+1 y cargas diferidas (app.diagnostics.queries.mode):
+ * - off (por defecto): no se registra nada, ni inspector ni listeners ni filtro.
+ * - log: cada petición con hallazgos se reporta con WARN al terminar.
+ * - fail: la sentencia o carga que llega al umbral lanza QueryPatternViolation (la petición falla).
+ *
+ * Si ya hay un statement_inspector configurado (SqlStatementCounter en tests) se respeta;
+ * debe extender QueryPatternDetector para que la detección siga activa.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.diagnostics.queries.mode:off}'.equalsIgnoreCase('off')")
+public class QueryDiagnosticsConfig {
+
+    @Value("${app.diagnostics.queries.mode}")
+    private String mode;
+
+    @Value("${app.diagnostics.queries.threshold:5}")
+    private int threshold;
+
+    @Bean
+    public HibernatePropertiesCustomizer queryPatternInspectorCustomizer() {
+        return properties -> properties.putIfAbsent(
+                AvailableSettings.STATEMENT_INSPECTOR, QueryPatternDetector.class.getName());
+    }
+
+    @Bean
+    public LazyLoadListener lazyLoadListener(EntityManagerFactory entityManagerFactory) {
+        LazyLoadListener listener = new LazyLoadListener();
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.LOAD, listener);
+        registry.appendListeners(EventType.INIT_COLLECTION, listener);
+        return listener;
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryDiagnosticsFilter> queryDiagnosticsFilter() {
+        FilterRegistrationBean<QueryDiagnosticsFilter> registration = new FilterRegistrationBean<>(
+                new QueryDiagnosticsFilter(threshold, "fail".equalsIgnoreCase(mode)));
+        registration.addUrlPatterns("/api/*");
+        // Antes de Spring Security para incluir también las consultas de autenticación
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,48 @@
+package com.laptophub.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Abre un Scope de QueryPatternDetector por petición y, al terminar, registra con WARN
+ * las sentencias repetidas y las cargas diferidas que encontró.
+ */
+public class QueryDiagnosticsFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryDiagnosticsFilter.class);
+
+    private final int threshold;
+    private final boolean failOnDetection;
+
+    public QueryDiagnosticsFilter(int threshold, boolean failOnDetection) {
+        this.threshold = threshold;
+        this.failOnDetection = failOnDetection;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        QueryPatternDetector.Scope scope = QueryPatternDetector.begin(
+                request.getMethod() + " " + request.getRequestURI(), threshold, failOnDetection);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            scope.close();
+            if (scope.hasFindings()) {
+                logger.warn("[QueryDiagnostics] {} ({} sentencias SQL):\n  {}",
+                        scope.getLabel(), scope.getStatements(), String.join("\n  ", scope.findings()));
+            }
+        }
+    }
+}
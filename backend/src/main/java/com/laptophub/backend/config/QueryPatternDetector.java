@@ -0,0 +1,183 @@
+package com.laptophub.backend.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Detector de N+1 y cargas diferidas ocultas.
+ *
+ * Hibernate crea la instancia (hibernate.session_factory.statement_inspector) y le pasa cada sentencia;
+ * solo se registra algo mientras el hilo tiene un Scope abierto (QueryDiagnosticsFilter abre uno por
+ * petición). Las sentencias se agrupan por forma, sin literales ni tamaño de listas IN: al llegar al
+ * umbral de repeticiones se anota el punto del código de la aplicación que las disparó.
+ * LazyLoadListener reporta aquí cada proxy o colección inicializada de forma diferida.
+ *
+ * Sin Scope abierto el costo es una lectura de ThreadLocal por sentencia.
+ */
+public class QueryPatternDetector implements StatementInspector {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int MAX_SHAPE_LENGTH = 240;
+
+    /**
+     * Clases de la propia instrumentación: nunca son el punto de llamada a reportar
+     */
+    private static final Set<String> INSTRUMENTATION_CLASSES = Set.of(
+            QueryPatternDetector.class.getName(),
+            QueryPatternDetector.Scope.class.getName(),
+            LazyLoadListener.class.getName(),
+            QueryDiagnosticsFilter.class.getName(),
+            "com.laptophub.backend.support.SqlStatementCounter"
+    );
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.recordStatement(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Abre un Scope en el hilo actual; el anterior (si lo hay) se restaura al cerrarlo.
+     * @param threshold repeticiones de la misma forma (o de la misma carga diferida) que se reportan
+     * @param failOnDetection true para lanzar QueryPatternViolation al llegar al umbral
+     */
+    public static Scope begin(String label, int threshold, boolean failOnDetection) {
+        Scope scope = new Scope(label, threshold, failOnDetection, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void recordLazyLoad(String what) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.recordLazyLoad(what);
+        }
+    }
+
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "…" : shape;
+    }
+
+    /**
+     * Primer marco de la pila que pertenece a la aplicación (servicio, mapper, controlador...)
+     */
+    static String callSite() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(frame -> frame.getClassName().startsWith("com.laptophub.backend.")
+                        && !frame.getClassName().contains("$$")
+                        && !INSTRUMENTATION_CLASSES.contains(frame.getClassName()))
+                .findFirst()
+                .map(frame -> simpleName(frame.getClassName()) + "." + frame.getMethodName()
+                        + "(" + frame.getFileName() + ":" + frame.getLineNumber() + ")")
+                .orElse("fuera del código de la aplicación"));
+    }
+
+    static String simpleName(String className) {
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+
+    /**
+     * Se lanza en modo fail cuando una forma de sentencia o una carga diferida llega al umbral
+     */
+    public static class QueryPatternViolation extends IllegalStateException {
+        public QueryPatternViolation(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Registro de un tramo de ejecución (normalmente una petición HTTP) en un único hilo
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String label;
+        private final int threshold;
+        private final boolean failOnDetection;
+        private final Scope previous;
+
+        private int statements;
+        private final Map<String, Integer> countByShape = new LinkedHashMap<>();
+        private final Map<String, String> callSiteByRepeatedShape = new LinkedHashMap<>();
+        private final Map<String, Integer> lazyLoads = new LinkedHashMap<>();
+
+        private Scope(String label, int threshold, boolean failOnDetection, Scope previous) {
+            this.label = label;
+            this.threshold = Math.max(2, threshold);
+            this.failOnDetection = failOnDetection;
+            this.previous = previous;
+        }
+
+        private void recordStatement(String sql) {
+            statements++;
+            String shape = shapeOf(sql);
+            int count = countByShape.merge(shape, 1, Integer::sum);
+            if (count == threshold) {
+                String site = callSite();
+                callSiteByRepeatedShape.put(shape, site);
+                if (failOnDetection) {
+                    throw new QueryPatternViolation(label + ": " + count + " sentencias con la misma forma desde "
+                            + site + ": " + shape);
+                }
+            }
+        }
+
+        private void recordLazyLoad(String what) {
+            String key = what + " desde " + callSite();
+            int count = lazyLoads.merge(key, 1, Integer::sum);
+            if (failOnDetection && count == threshold) {
+                throw new QueryPatternViolation(label + ": " + count + " cargas diferidas de " + key);
+            }
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public int getStatements() {
+            return statements;
+        }
+
+        public boolean hasFindings() {
+            return !callSiteByRepeatedShape.isEmpty() || !lazyLoads.isEmpty();
+        }
+
+        /**
+         * Hallazgos en texto, uno por línea: sentencias repetidas y cargas diferidas con su punto de llamada
+         */
+        public List<String> findings() {
+            List<String> findings = new ArrayList<>();
+            callSiteByRepeatedShape.forEach((shape, site) -> findings.add(
+                    "N+1: " + countByShape.get(shape) + "x desde " + site + ": " + shape));
+            lazyLoads.forEach((key, count) -> findings.add(
+                    "Carga diferida: " + count + "x " + key));
+            return findings;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
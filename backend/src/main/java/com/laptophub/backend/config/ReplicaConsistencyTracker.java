@@ -0,0 +1,128 @@
+package com.laptophub.backend.config;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Decide si una transacción de solo lectura puede ir a la réplica.
+ *
+ * Va al primario cuando:
+ * - la réplica no responde o su retraso supera el máximo permitido (lo mide ReplicaLagMonitor), o
+ * - la petición actual escribe, o el cliente escribió hace menos de la ventana de consistencia,
+ *   para que vea sus propios cambios aunque la réplica aún no los haya aplicado, o
+ * - es una lectura del catálogo que se guarda bajo la versión actual (ETag, portada, consultas agrupadas)
+ *   y la réplica podría no tener todavía el último cambio del catálogo (ver catalogReadNeedsPrimary).
+ *
+ * El momento de la última escritura lo trae el propio cliente (ver ReplicaStickinessFilter), no un mapa
+ * en memoria: con varias instancias, la siguiente lectura puede llegar a una que no vio la escritura.
+ */
+public class ReplicaConsistencyTracker {
+
+    private final long stickyWindowMs;
+    private final long maxLagMs;
+
+    private final ThreadLocal<Boolean> forcePrimary = new ThreadLocal<>();
+
+    private volatile boolean replicaAvailable = true;
+    private volatile long replicaLagMs = 0;
+
+    public ReplicaConsistencyTracker(Duration stickyWindow, Duration maxLag) {
+        this.maxLagMs = maxLag.toMillis();
+        // La ventana nunca es menor que el retraso tolerado: si no, una lectura dentro del retraso aceptado
+        // podría no ver la escritura del propio usuario
+        this.stickyWindowMs = Math.max(stickyWindow.toMillis(), this.maxLagMs);
+    }
+
+    /**
+     * Marca el inicio de una petición en el hilo actual.
+     * @param lastWriteAtMillis momento (epoch ms) de la última escritura del cliente, o null si no informa ninguna
+     * @param writeRequest true si la petición modifica datos (POST, PUT, PATCH, DELETE)
+     */
+    public void beginRequest(Long lastWriteAtMillis, boolean writeRequest) {
+        if (writeRequest || wroteRecently(lastWriteAtMillis)) {
+            forcePrimary.set(Boolean.TRUE);
+        }
+    }
+
+    public void endRequest() {
+        forcePrimary.remove();
+    }
+
+    /**
+     * Una lectura del catálogo se sirve bajo la versión vigente: si la réplica no tiene aún la escritura que
+     * creó esa versión, los datos viejos quedarían guardados con el ETag nuevo hasta el próximo cambio.
+     * Por eso va al primario mientras la réplica informa retraso o si el catálogo cambió hace menos
+     * de la ventana de consistencia (que nunca es menor que el retraso tolerado).
+     * @param catalogChangedAtMillis cuándo esta instancia vio por primera vez la versión actual del catálogo
+     */
+    public boolean catalogReadNeedsPrimary(long catalogChangedAtMillis) {
+        return replicaLagMs > 0 || System.currentTimeMillis() - catalogChangedAtMillis < stickyWindowMs;
+    }
+
+    /**
+     * Fija al primario el resto de la petición actual (hasta endRequest)
+     */
+    public void pinToPrimary() {
+        forcePrimary.set(Boolean.TRUE);
+    }
+
+    /**
+     * Ejecuta una lectura en el primario fuera de una petición (tareas programadas)
+     */
+    public <T> T onPrimary(Supplier<T> read) {
+        Boolean previous = forcePrimary.get();
+        forcePrimary.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            if (previous == null) {
+                forcePrimary.remove();
+            }
+        }
+    }
+
+    public boolean useReplica() {
+        return replicaAvailable && replicaLagMs <= maxLagMs && forcePrimary.get() == null;
+    }
+
+    /**
+     * Actualiza el estado de la réplica con el último retraso medido.
+     * @return true si el estado (utilizable o no) cambió
+     */
+    public boolean updateReplicaLag(long lagMs) {
+        boolean wasUsable = isReplicaUsable();
+        this.replicaLagMs = lagMs;
+        this.replicaAvailable = true;
+        return wasUsable != isReplicaUsable();
+    }
+
+    /**
+     * La réplica no respondió: todas las lecturas van al primario hasta la próxima medición correcta.
+     * @return true si el estado cambió
+     */
+    public boolean markReplicaUnavailable() {
+        boolean wasUsable = isReplicaUsable();
+        this.replicaAvailable = false;
+        return wasUsable;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaAvailable && replicaLagMs <= maxLagMs;
+    }
+
+    public long getReplicaLagMs() {
+        return replicaLagMs;
+    }
+
+    /**
+     * La marca la fija otra instancia con su propio reloj: se tolera la misma desviación hacia el futuro
+     * que la ventana. Un cliente que la falsifique solo consigue leer del primario, igual que con una escritura.
+     */
+    private boolean wroteRecently(Long lastWriteAtMillis) {
+        if (lastWriteAtMillis == null) {
+            return false;
+        }
+        long age = System.currentTimeMillis() - lastWriteAtMillis;
+        return age < stickyWindowMs && age > -stickyWindowMs;
+    }
+}
@@ -0,0 +1,56 @@
+package com.laptophub.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mide periódicamente el retraso de replicación y lo publica en ReplicaConsistencyTracker.
+ * Si la réplica no responde, las lecturas vuelven al primario hasta la siguiente medición correcta.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /**
+     * Sin WAL pendiente de aplicar el retraso es 0 aunque el último commit replicado sea antiguo
+     * (primario sin escrituras recientes)
+     */
+    private static final String LAG_SQL =
+            "SELECT CASE " +
+            "WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (clock_timestamp() - pg_last_xact_replay_timestamp())) * 1000, 0) " +
+            "END";
+
+    private final JdbcTemplate replicaJdbcTemplate;
+    private final ReplicaConsistencyTracker tracker;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaConsistencyTracker tracker) {
+        this.replicaJdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.replicaJdbcTemplate.setQueryTimeout(2);
+        this.tracker = tracker;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:5000}",
+            initialDelayString = "${app.datasource.replica.lag-check-ms:5000}")
+    public void checkLag() {
+        try {
+            Double lag = replicaJdbcTemplate.queryForObject(LAG_SQL, Double.class);
+            long lagMs = lag != null ? lag.longValue() : 0;
+            if (tracker.updateReplicaLag(lagMs)) {
+                if (tracker.isReplicaUsable()) {
+                    logger.info("[ReplicaLagMonitor] Réplica disponible de nuevo (retraso {} ms)", lagMs);
+                } else {
+                    logger.warn("[ReplicaLagMonitor] Retraso de réplica {} ms sobre el máximo: lecturas al primario", lagMs);
+                }
+            }
+        } catch (Exception e) {
+            if (tracker.markReplicaUnavailable()) {
+                logger.warn("[ReplicaLagMonitor] Réplica no disponible, lecturas al primario: {}", e.getMessage());
+            }
+        }
+    }
+}
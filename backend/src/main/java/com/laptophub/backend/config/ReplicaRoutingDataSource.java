@@ -0,0 +1,31 @@
+package com.laptophub.backend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Origen de las conexiones de solo lectura: la réplica cuando es consistente para la petición
+ * actual (ver ReplicaConsistencyTracker) y el primario en caso contrario.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final ReplicaConsistencyTracker tracker;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaConsistencyTracker tracker) {
+        this.tracker = tracker;
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return tracker.useReplica() ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,63 @@
+package com.laptophub.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Fija al primario las peticiones que escriben y las lecturas de un cliente que escribió hace poco.
+ *
+ * Cada escritura responde con X-Last-Write-At (epoch ms) y el cliente lo reenvía en las peticiones siguientes.
+ * La marca viaja con el cliente, así que vale aunque el balanceador envíe la lectura a otra instancia.
+ * El valor se toma al empezar la escritura, así que la ventana se cuenta desde ese momento.
+ */
+public class ReplicaStickinessFilter extends OncePerRequestFilter {
+
+    public static final String LAST_WRITE_HEADER = "X-Last-Write-At";
+
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final ReplicaConsistencyTracker tracker;
+
+    public ReplicaStickinessFilter(ReplicaConsistencyTracker tracker) {
+        this.tracker = tracker;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        boolean writeRequest = WRITE_METHODS.contains(request.getMethod());
+        if (writeRequest) {
+            // Antes de la cadena: después el cuerpo ya puede estar enviado y la cabecera se perdería
+            response.setHeader(LAST_WRITE_HEADER, Long.toString(System.currentTimeMillis()));
+        }
+
+        tracker.beginRequest(lastWriteAt(request), writeRequest);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            tracker.endRequest();
+        }
+    }
+
+    private static Long lastWriteAt(HttpServletRequest request) {
+        String value = request.getHeader(LAST_WRITE_HEADER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
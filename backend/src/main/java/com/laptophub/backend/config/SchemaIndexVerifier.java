@@ -0,0 +1,97 @@
+package com.laptophub.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Al arrancar, verifica que existan (y sean válidos) los índices que esperan las consultas.
+ * No detiene la aplicación: reporta con WARN cada índice faltante o inválido, por ejemplo
+ * un CREATE INDEX CONCURRENTLY que falló a mitad y quedó marcado como inválido.
+ *
+ * La lista debe coincidir con las migraciones de db/migration.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.schema.verify-indexes", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(SchemaIndexVerifier.class);
+
+    /**
+     * índice → tabla
+     */
+    static final Map<String, String> EXPECTED_INDEXES = Map.ofEntries(
+            Map.entry("idx_orders_estado_expires_at", "orders"),
+            Map.entry("idx_orders_user_id_created_at", "orders"),
+            Map.entry("idx_order_items_order_id", "order_items"),
+            Map.entry("idx_reviews_product_id", "reviews"),
+            Map.entry("idx_product_images_product_id_orden", "product_images"),
+            Map.entry("idx_cart_user_id", "cart"),
+            Map.entry("uk_cart_items_cart_product", "cart_items"),
+            Map.entry("idx_payments_stripe_payment_id", "payments"),
+            Map.entry("idx_products_active_precio", "products"),
+            Map.entry("idx_products_active_created_at", "products"),
+            Map.entry("idx_products_active_brand_id", "products"),
+            Map.entry("idx_brands_active_nombre", "brands"),
+            Map.entry("uk_sales_rollups_dia_product", "sales_daily_rollups"),
+            Map.entry("pk_purchase_ledger", "purchase_ledger"),
+            Map.entry("idx_inventory_movements_product_id", "inventory_movements"),
+            Map.entry("pk_idempotency_keys", "idempotency_keys"),
+            Map.entry("idx_idempotency_keys_created_at", "idempotency_keys"),
+            Map.entry("pk_catalog_version", "catalog_version")
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        List<String> missing = verifyIndexes();
+        if (missing.isEmpty()) {
+            logger.info("[SchemaIndexVerifier] Los {} índices esperados existen y son válidos", EXPECTED_INDEXES.size());
+        }
+    }
+
+    /**
+     * Devuelve la descripción de cada índice faltante o inválido (vacía si todo está bien)
+     */
+    public List<String> verifyIndexes() {
+        Map<String, Boolean> found = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT c.relname, i.indisvalid " +
+                "FROM pg_index i " +
+                "JOIN pg_class c ON c.oid = i.indexrelid " +
+                "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+                "WHERE n.nspname = current_schema()",
+                rs -> {
+                    found.put(rs.getString("relname"), rs.getBoolean("indisvalid"));
+                });
+
+        List<String> problems = new ArrayList<>();
+        EXPECTED_INDEXES.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Boolean valid = found.get(entry.getKey());
+                    if (valid == null) {
+                        problems.add(entry.getKey() + " (" + entry.getValue() + "): no existe");
+                    } else if (!valid) {
+                        problems.add(entry.getKey() + " (" + entry.getValue() + "): inválido, recrearlo");
+                    }
+                });
+
+        for (String problem : problems) {
+            logger.warn("[SchemaIndexVerifier] Índice esperado con problemas: {}", problem);
+        }
+        return problems;
+    }
+}
@@ -0,0 +1,22 @@
+package com.laptophub.backend.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CatalogEtagInterceptor catalogEtagInterceptor;
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        registry.addInterceptor(catalogEtagInterceptor)
+                .addPathPatterns("/api/products/**", "/api/brands", "/api/brands/**")
+                // La portada puede servir una instantánea anterior: su 304 se evalúa con la versión de esa instantánea
+                .excludePathPatterns("/api/products/home");
+    }
+}
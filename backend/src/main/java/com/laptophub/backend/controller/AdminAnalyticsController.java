@@ -0,0 +1,53 @@
+package com.laptophub.backend.controller;
+
+import com.laptophub.backend.dto.SalesReportDTO;
+import com.laptophub.backend.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminAnalyticsController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminAnalyticsController.class);
+    private final SalesRollupService salesRollupService;
+
+    /**
+     * Ventas (unidades e ingresos) en un rango de días, agrupadas por dia, producto o marca.
+     * Por defecto devuelve los últimos 30 días agrupados por día.
+     */
+    @GetMapping("/sales")
+    public SalesReportDTO getSales(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "dia") String agrupar
+    ) {
+        LocalDate end = hasta != null ? hasta : LocalDate.now();
+        LocalDate start = desde != null ? desde : end.minusDays(29);
+        return salesRollupService.getReport(start, end, agrupar);
+    }
+
+    /**
+     * Recalcula la tabla de ventas desde las órdenes existentes
+     */
+    @PostMapping("/sales/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildSales() {
+        logger.info("[AdminAnalyticsController] Admin solicitó recalcular las ventas acumuladas");
+        long start = System.currentTimeMillis();
+        int filas = salesRollupService.rebuild();
+        return ResponseEntity.ok(Map.of(
+                "filas", filas,
+                "duracionMs", System.currentTimeMillis() - start
+        ));
+    }
+}
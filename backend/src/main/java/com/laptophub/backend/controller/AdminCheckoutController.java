@@ -0,0 +1,28 @@
+package com.laptophub.backend.controller;
+
+import com.laptophub.backend.dto.CheckoutQueueDTO;
+import com.laptophub.backend.service.CheckoutAdmissionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/checkout")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminCheckoutController {
+
+    private final CheckoutAdmissionService checkoutAdmissionService;
+
+    /**
+     * Profundidad de cola, checkouts en curso y rechazos por producto (de mayor a menor cola)
+     */
+    @GetMapping("/queues")
+    public List<CheckoutQueueDTO> getQueues(@RequestParam(defaultValue = "50") int limit) {
+        return checkoutAdmissionService.snapshot().stream()
+                .limit(Math.max(1, limit))
+                .toList();
+    }
+}
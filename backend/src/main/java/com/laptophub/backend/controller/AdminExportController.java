@@ -0,0 +1,68 @@
+package com.laptophub.backend.controller;
+
+import com.laptophub.backend.service.DataExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/export")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminExportController.class);
+    private final DataExportService dataExportService;
+
+    /**
+     * Exporta todas las órdenes (una fila por item) como CSV o JSONL (?format=csv|jsonl, por defecto csv).
+     * La respuesta se escribe en streaming a medida que se leen las filas.
+     */
+    @GetMapping("/orders")
+    public void exportOrders(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        logger.info("[AdminExportController] Admin inició exportación de órdenes en formato {}", format);
+        try (Writer writer = openAttachment(response, "orders", format)) {
+            dataExportService.exportOrders(writer, format);
+        }
+    }
+
+    /**
+     * Exporta el catálogo de productos como CSV o JSONL (?format=csv|jsonl, por defecto csv).
+     * Las columnas coinciden con las de POST /api/admin/import/products.
+     */
+    @GetMapping("/products")
+    public void exportProducts(
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletResponse response
+    ) throws IOException {
+        logger.info("[AdminExportController] Admin inició exportación de productos en formato {}", format);
+        try (Writer writer = openAttachment(response, "products", format)) {
+            dataExportService.exportProducts(writer, format);
+        }
+    }
+
+    private Writer openAttachment(HttpServletResponse response, String name, String format) throws IOException {
+        String contentType = dataExportService.contentType(format);
+        String extension = contentType.startsWith("text/csv") ? "csv" : "jsonl";
+
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"" + name + "-" + LocalDate.now() + "." + extension + "\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        return new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), 64 * 1024);
+    }
+}
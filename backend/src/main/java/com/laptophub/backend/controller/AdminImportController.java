@@ -0,0 +1,47 @@
+package com.laptophub.backend.controller;
+
+import com.laptophub.backend.dto.ProductImportResultDTO;
+import com.laptophub.backend.service.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/api/admin/import")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminImportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdminImportController.class);
+    private final ProductImportService productImportService;
+
+    /**
+     * Importa productos leyendo el cuerpo como stream (CSV con encabezados o JSONL).
+     * Si no se envía ?format=, se deduce del Content-Type (text/csv → csv, cualquier otro → jsonl).
+     *
+     * Columnas: id (opcional, actualiza), nombre, descripcion, precio, stock, brandId o marca,
+     * procesador, ram, almacenamiento, pantalla, gpu, peso
+     */
+    @PostMapping("/products")
+    public ProductImportResultDTO importProducts(
+            @RequestParam(required = false) String format,
+            HttpServletRequest request
+    ) throws IOException {
+        String resolvedFormat = format != null ? format
+                : (request.getContentType() != null && request.getContentType().startsWith("text/csv") ? "csv" : "jsonl");
+        logger.info("[AdminImportController] Admin inició importación de productos en formato {}", resolvedFormat);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8))) {
+            return productImportService.importProducts(reader, resolvedFormat);
+        }
+    }
+}
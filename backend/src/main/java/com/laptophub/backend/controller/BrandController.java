@@ -2,6 +2,8 @@ package com.laptophub.backend.controller;
 
 import com.laptophub.backend.dto.BrandCreateDTO;
 import com.laptophub.backend.dto.BrandResponseDTO;
+import com.laptophub.backend.dto.DirectUploadConfirmDTO;
+import com.laptophub.backend.dto.SignedUploadDTO;
 import com.laptophub.backend.service.BrandService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -69,4 +71,18 @@ public class BrandController {
             @RequestParam MultipartFile file) throws IOException {
         return ResponseEntity.ok(brandService.uploadImage(id, file));
     }
+
+    @PostMapping("/{id}/image/upload-signature")
+    @PreAuthorize("hasRole('ADMIN')")
+    public SignedUploadDTO imageUploadSignature(@PathVariable Long id) {
+        return brandService.imageUploadSignature(id);
+    }
+
+    @PostMapping("/{id}/image/confirm")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<BrandResponseDTO> confirmImage(
+            @PathVariable Long id,
+            @Valid @RequestBody DirectUploadConfirmDTO dto) throws IOException {
+        return ResponseEntity.ok(brandService.confirmImage(id, dto));
+    }
 }
@@ -1,6 +1,7 @@
 package com.laptophub.backend.controller;
 
 import com.laptophub.backend.dto.AddToCartDTO;
+import com.laptophub.backend.dto.CartBatchDTO;
 import com.laptophub.backend.dto.CartResponseDTO;
 import com.laptophub.backend.dto.UpdateCartItemDTO;
 import com.laptophub.backend.service.CartService;
@@ -31,6 +32,14 @@ public class CartController {
         return cartService.addToCartDTO(userId, dto);
     }
 
+    @PostMapping("/user/{userId}/batch")
+    public CartResponseDTO applyBatch(
+            @PathVariable UUID userId,
+            @Valid @RequestBody CartBatchDTO dto
+    ) {
+        return cartService.applyBatch(userId, dto);
+    }
+
     @PutMapping("/items/{cartItemId}")
     public CartResponseDTO updateQuantity(
             @PathVariable Long cartItemId,
@@ -5,6 +5,8 @@ import com.laptophub.backend.dto.OrderResponseDTO;
 import com.laptophub.backend.dto.PurchasedResponseDTO;
 import com.laptophub.backend.dto.ReviewableProductDTO;
 import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.service.CheckoutAdmissionService;
+import com.laptophub.backend.service.IdempotencyService;
 import com.laptophub.backend.service.OrderService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -21,13 +23,19 @@ import java.util.UUID;
 public class OrderController {
 
     private final OrderService orderService;
+    private final CheckoutAdmissionService checkoutAdmissionService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/user/{userId}")
     public OrderResponseDTO createFromCart(
             @PathVariable UUID userId,
-            @Valid @RequestBody CreateOrderDTO dto
+            @Valid @RequestBody CreateOrderDTO dto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
     ) {
-        return orderService.createOrderFromCartDTO(userId, dto);
+        // Un reintento con la misma clave devuelve la orden ya creada sin pasar por la cola ni por el stock.
+        // El turno por producto se toma fuera de la transacción para no retener conexiones en la cola
+        return idempotencyService.execute("orders:" + userId, idempotencyKey, dto, OrderResponseDTO.class,
+                () -> checkoutAdmissionService.admit(userId, () -> orderService.createOrderFromCartDTO(userId, dto)));
     }
 
     @GetMapping
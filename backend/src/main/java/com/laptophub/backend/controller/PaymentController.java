@@ -3,6 +3,7 @@ package com.laptophub.backend.controller;
 import com.laptophub.backend.dto.CreatePaymentDTO;
 import com.laptophub.backend.dto.PaymentResponseDTO;
 import com.laptophub.backend.model.PaymentStatus;
+import com.laptophub.backend.service.IdempotencyService;
 import com.laptophub.backend.service.PaymentService;
 import com.stripe.exception.StripeException;
 import jakarta.validation.Valid;
@@ -15,10 +16,15 @@ import org.springframework.web.bind.annotation.*;
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
 
     @PostMapping("/create")
-    public PaymentResponseDTO createPayment(@Valid @RequestBody CreatePaymentDTO dto) throws StripeException {
-        return paymentService.createPaymentDTO(dto);
+    public PaymentResponseDTO createPayment(
+            @Valid @RequestBody CreatePaymentDTO dto,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey
+    ) throws StripeException {
+        return idempotencyService.execute("payments:create", idempotencyKey, dto, PaymentResponseDTO.class,
+                () -> paymentService.createPaymentDTO(dto));
     }
 
     @GetMapping("/{paymentId}")
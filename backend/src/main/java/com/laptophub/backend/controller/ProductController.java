@@ -1,25 +1,36 @@
 package com.laptophub.backend.controller;
 
+import com.laptophub.backend.config.CatalogEtagInterceptor;
 import com.laptophub.backend.dto.ProductCreateDTO;
 import com.laptophub.backend.dto.ProductListDTO;
 import com.laptophub.backend.dto.ProductResponseDTO;
+import com.laptophub.backend.service.HomeFeedService;
+import com.laptophub.backend.service.ProductQueryCoalescer;
 import com.laptophub.backend.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/api/products")
 @RequiredArgsConstructor
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductQueryCoalescer productQueryCoalescer;
+    private final HomeFeedService homeFeedService;
 
     /**
      * Búsqueda unificada con filtros y ordenamiento opcionales
@@ -39,7 +50,7 @@ public class ProductController {
      * GET /api/products?nombre=laptop&brandId=2&sortBy=name&sort=asc&page=1&size=10
      */
     @GetMapping
-    public Page<ProductListDTO> search(
+    public ResponseEntity<?> search(
             @RequestParam(required = false) String nombre,
             @RequestParam(required = false) Long brandId,
             @RequestParam(required = false, defaultValue = "createdAt") String sortBy,
@@ -48,8 +59,33 @@ public class ProductController {
             @RequestParam(required = false, defaultValue = "20") int size
     ) {
         boolean isAdmin = isUserAdmin();
+        // Listado por defecto para visitantes: se sirve desde la portada precalculada
+        boolean isDefaultListing = (nombre == null || nombre.isEmpty()) && brandId == null
+                && "createdAt".equalsIgnoreCase(sortBy) && "desc".equalsIgnoreCase(sort) && page == 0 && size == 20;
+        if (!isAdmin && isDefaultListing) {
+            Optional<byte[]> newest = homeFeedService.newest();
+            if (newest.isPresent()) {
+                return json(newest.get());
+            }
+        }
         Pageable pageable = PageRequest.of(page, size);
-        return productService.search(nombre, brandId, sortBy, sort, pageable, isAdmin, true);
+        return ResponseEntity.ok(productQueryCoalescer.search(nombre, brandId, sortBy, sort, pageable, isAdmin, true));
+    }
+
+    /**
+     * Portada: mejor valorados, novedades y destacados por marca, precalculados y ya serializados
+     * GET /api/products/home
+     */
+    @GetMapping("/home")
+    public ResponseEntity<byte[]> getHome(HttpServletRequest request, HttpServletResponse response) {
+        HomeFeedService.Home home = homeFeedService.home();
+        // La portada puede ser de una versión anterior mientras se recalcula: el ETag (y el 304) son los de esa versión
+        boolean isAdmin = isUserAdmin();
+        if (CatalogEtagInterceptor.checkNotModified(request, response,
+                CatalogEtagInterceptor.etag(home.catalogVersion(), isAdmin), isAdmin)) {
+            return null;
+        }
+        return json(home.json());
     }
 
     @GetMapping("/inactive")
@@ -71,15 +107,21 @@ public class ProductController {
      * GET /api/products/top-rated
      */
     @GetMapping("/top-rated")
-    public Page<ProductListDTO> getTopRated() {
+    public ResponseEntity<?> getTopRated() {
         boolean isAdmin = isUserAdmin();
+        if (!isAdmin) {
+            Optional<byte[]> topRated = homeFeedService.topRated();
+            if (topRated.isPresent()) {
+                return json(topRated.get());
+            }
+        }
         Pageable pageable = PageRequest.of(0, 10);
-        return productService.search(null, null, "rating", "desc", pageable, isAdmin, true);
+        return ResponseEntity.ok(productQueryCoalescer.search(null, null, "rating", "desc", pageable, isAdmin, true));
     }
 
     @GetMapping("/{id}")
     public ProductResponseDTO findById(@PathVariable Long id) {
-        return productService.findByIdDTO(id);
+        return productQueryCoalescer.findByIdDTO(id);
     }
 
     @PostMapping
@@ -104,6 +146,10 @@ public class ProductController {
         return productService.reactivateProduct(id);
     }
 
+    private static ResponseEntity<byte[]> json(byte[] body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     /**
      * Verifica si el usuario autenticado tiene rol ADMIN
      */
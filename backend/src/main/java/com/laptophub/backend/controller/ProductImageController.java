@@ -1,12 +1,21 @@
 package com.laptophub.backend.controller;
 
+import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.dto.DirectUploadConfirmDTO;
+import com.laptophub.backend.dto.ProductImageBatchResultDTO;
 import com.laptophub.backend.dto.ProductImageDTO;
+import com.laptophub.backend.dto.SignedUploadDTO;
 import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.model.ImageVariantSpec;
 import com.laptophub.backend.model.Product;
 import com.laptophub.backend.model.ProductImage;
 import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.service.CloudinaryService;
+import com.laptophub.backend.service.ImageUploadLimits;
+import com.laptophub.backend.service.ProductImageUploadService;
+import com.laptophub.backend.service.UploadedImage;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +40,12 @@ public class ProductImageController {
     @Autowired
     private CloudinaryService cloudinaryService;
 
+    @Autowired
+    private ProductImageUploadService productImageUploadService;
+
+    @Autowired
+    private ImageUploadLimits imageUploadLimits;
+
     /**
      * Agregar imagen a un producto
      * POST /api/products/{productId}/images
@@ -45,20 +60,56 @@ public class ProductImageController {
         
         Product product = productRepository.findById(productId)
             .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productId));
+        imageUploadLimits.checkImage(file);
         
-        String imageUrl = cloudinaryService.uploadImage(file, "laptophub/products");
+        UploadedImage uploaded = cloudinaryService.uploadProductImage(file, "laptophub/products");
         
         ProductImage image = ProductImage.builder()
-                .url(imageUrl)
+                .url(uploaded.url())
+                .ancho(uploaded.ancho())
+                .alto(uploaded.alto())
                 .orden(orden)
                 .descripcion(descripcion)
                 .product(product)
                 .build();
+        ImageVariantSpec.applyTo(image);
         
         ProductImage saved = productImageRepository.save(image);
         return ResponseEntity.ok(mapToDTO(saved));
     }
 
+    /**
+     * Agregar varias imágenes a un producto (subida en paralelo, se agregan tras las existentes)
+     * POST /api/products/{productId}/images/batch
+     */
+    @PostMapping("/{productId}/images/batch")
+    public ResponseEntity<ProductImageBatchResultDTO> addImages(
+            @PathVariable Long productId,
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(required = false) List<String> descripciones) {
+        return ResponseEntity.ok(productImageUploadService.uploadImages(productId, files, descripciones));
+    }
+
+    /**
+     * Parámetros firmados para subir una imagen directamente a Cloudinary desde el navegador
+     * POST /api/products/{productId}/images/upload-signature
+     */
+    @PostMapping("/{productId}/images/upload-signature")
+    public ResponseEntity<SignedUploadDTO> uploadSignature(@PathVariable Long productId) {
+        return ResponseEntity.ok(productImageUploadService.uploadSignature(productId));
+    }
+
+    /**
+     * Registrar una imagen subida directamente a Cloudinary (se agrega tras las existentes)
+     * POST /api/products/{productId}/images/confirm
+     */
+    @PostMapping("/{productId}/images/confirm")
+    public ResponseEntity<ProductImageDTO> confirmDirectUpload(
+            @PathVariable Long productId,
+            @Valid @RequestBody DirectUploadConfirmDTO dto) {
+        return ResponseEntity.ok(productImageUploadService.confirmDirectUpload(productId, dto));
+    }
+
     /**
      * Obtener todas las imágenes de un producto
      * GET /api/products/{productId}/images
@@ -97,7 +148,13 @@ public class ProductImageController {
         ProductImage image = productImageRepository.findById(imageId)
             .orElseThrow(() -> new ResourceNotFoundException("Imagen no encontrada con id: " + imageId));
         
-        if (url != null) image.setUrl(url);
+        if (url != null && !url.equals(image.getUrl())) {
+            // Otra imagen: las dimensiones del original anterior ya no valen
+            image.setUrl(url);
+            image.setAncho(null);
+            image.setAlto(null);
+            ImageVariantSpec.applyTo(image);
+        }
         if (orden != null) image.setOrden(orden);
         if (descripcion != null) image.setDescripcion(descripcion);
         
@@ -141,11 +198,6 @@ public class ProductImageController {
     }
     
     private ProductImageDTO mapToDTO(ProductImage image) {
-        return ProductImageDTO.builder()
-                .id(image.getId())
-                .url(image.getUrl())
-                .orden(image.getOrden())
-                .descripcion(image.getDescripcion())
-                .build();
+        return DTOMapper.toProductImageDTO(image);
     }
 }
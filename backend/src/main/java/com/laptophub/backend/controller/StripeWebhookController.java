@@ -8,6 +8,8 @@ import com.laptophub.backend.model.Order;
 import com.laptophub.backend.model.OrderStatus;
 import com.laptophub.backend.repository.PaymentRepository;
 import com.laptophub.backend.repository.OrderRepository;
+import com.laptophub.backend.service.PurchaseLedgerService;
+import com.laptophub.backend.service.SalesRollupService;
 import com.stripe.model.Event;
 import com.stripe.net.Webhook;
 import lombok.RequiredArgsConstructor;
@@ -26,6 +28,8 @@ public class StripeWebhookController {
     private final PaymentRepository paymentRepository;
     private final OrderRepository orderRepository;
     private final com.laptophub.backend.service.OrderService orderService;
+    private final SalesRollupService salesRollupService;
+    private final PurchaseLedgerService purchaseLedgerService;
 
     @Value("${stripe.webhook.secret}")
     private String stripeWebhookSecret;
@@ -59,13 +63,20 @@ public class StripeWebhookController {
                 Payment payment = paymentOpt.get();
                 Order order = payment.getOrder();
 
-                if ("payment_intent.succeeded".equals(eventType)) {
-                    payment.setEstado(PaymentStatus.COMPLETADO);
-                    order.setEstado(OrderStatus.PROCESANDO);
-                } else {
-                    payment.setEstado(PaymentStatus.FALLIDO);
-                    order.setEstado(OrderStatus.CANCELADO);
-                    orderService.restoreOrderStock(order);
+                boolean succeeded = "payment_intent.succeeded".equals(eventType);
+                OrderStatus anterior = order.getEstado();
+                OrderStatus nuevo = succeeded ? OrderStatus.PROCESANDO : OrderStatus.CANCELADO;
+                payment.setEstado(succeeded ? PaymentStatus.COMPLETADO : PaymentStatus.FALLIDO);
+
+                // Stripe puede entregar el mismo evento más de una vez, incluso en paralelo: la transición
+                // (ventas, historial de compras y stock) se aplica solo si esta entrega cambió el estado
+                if (anterior != nuevo && orderRepository.updateEstado(order.getId(), anterior, nuevo) == 1) {
+                    salesRollupService.recordTransition(order, anterior, nuevo);
+                    purchaseLedgerService.recordTransition(order, anterior, nuevo);
+                    order.setEstado(nuevo);
+                    if (!succeeded) {
+                        orderService.restoreOrderStock(order);
+                    }
                 }
 
                 paymentRepository.save(payment);
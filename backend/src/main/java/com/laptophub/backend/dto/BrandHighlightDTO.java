@@ -0,0 +1,19 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BrandHighlightDTO {
+    private Long brandId;
+    private String nombre;
+    private String imageUrl;
+    private List<ProductListDTO> productos;   // mejor valorados de la marca con stock
+}
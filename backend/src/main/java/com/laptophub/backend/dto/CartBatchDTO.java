@@ -0,0 +1,22 @@
+package com.laptophub.backend.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchDTO {
+
+    @NotEmpty(message = "Debe enviar al menos una operación")
+    @Size(max = 200, message = "Máximo 200 operaciones por lote")
+    private List<@Valid CartOperationDTO> operaciones;
+}
@@ -0,0 +1,36 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila plana de la vista del carrito: item, resumen del producto, id de marca, imagen principal
+ * (variante de tarjeta con sus dimensiones, como en los listados) y rating.
+ * La marca completa se toma de BrandRegistry.
+ * Se llena con un único constructor JPQL en CartItemRepository.findCartLines.
+ * El orden de los campos debe coincidir con el de la consulta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartLineDTO {
+    private Long cartItemId;
+    private Integer cantidad;
+    private Long productId;
+    private String productNombre;
+    private BigDecimal precio;
+    private Integer stock;
+    private LocalDateTime productDeletedAt;
+    private Long brandId;
+    private Long imageId;
+    private String imageUrl;
+    private Integer imageOrden;
+    private String imageDescripcion;
+    private Integer imageAncho;
+    private Integer imageAlto;
+    private Double promedioRating;
+}
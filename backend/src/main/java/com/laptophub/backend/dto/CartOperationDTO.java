@@ -0,0 +1,30 @@
+package com.laptophub.backend.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Operación individual dentro de un lote de carrito, identificada por producto.
+ * ADD suma cantidad, SET fija la cantidad y REMOVE elimina la línea (cantidad se ignora).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperationDTO {
+
+    public enum Tipo { ADD, SET, REMOVE }
+
+    @NotNull(message = "El tipo de operación es obligatorio")
+    private Tipo tipo;
+
+    @NotNull(message = "El ID del producto es obligatorio")
+    private Long productId;
+
+    @Min(value = 1, message = "cantidad debe ser mayor a 0")
+    private Integer cantidad;
+}
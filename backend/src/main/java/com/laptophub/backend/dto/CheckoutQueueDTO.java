@@ -0,0 +1,19 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutQueueDTO {
+    private Long productId;
+    private int enCola;               // checkouts esperando turno
+    private int enCurso;              // checkouts con turno (transacción abierta)
+    private long admitidos;
+    private long rechazados;          // respondidos con 429
+    private long duracionPromedioMs;  // media móvil de lo que dura un checkout con turno
+}
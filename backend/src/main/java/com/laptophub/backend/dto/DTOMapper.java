@@ -3,6 +3,8 @@ package com.laptophub.backend.dto;
 import com.laptophub.backend.model.*;
 
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 /**
@@ -37,15 +39,72 @@ public class DTOMapper {
     }
 
     // PRODUCT IMAGE
+    /**
+     * Imagen completa: original, variantes y srcset (detalle de producto y gestión de imágenes)
+     */
     public static ProductImageDTO toProductImageDTO(ProductImage image) {
         return ProductImageDTO.builder()
                 .id(image.getId())
                 .url(image.getUrl())
                 .orden(image.getOrden())
                 .descripcion(image.getDescripcion())
+                .ancho(image.getAncho())
+                .alto(image.getAlto())
+                .miniatura(toImageVariantDTO(image.getMiniatura()))
+                .tarjeta(toImageVariantDTO(image.getTarjeta()))
+                .detalle(toImageVariantDTO(image.getDetalle()))
+                .srcset(srcset(image))
                 .build();
     }
 
+    /**
+     * Imagen para listados: solo la variante de tarjeta (o el original si no tiene variantes)
+     */
+    public static ProductImageDTO toListImageDTO(ProductImage image) {
+        ImageVariant tarjeta = image.getTarjeta();
+        boolean hasVariant = tarjeta != null && tarjeta.getUrl() != null;
+        return ProductImageDTO.builder()
+                .id(image.getId())
+                .url(hasVariant ? tarjeta.getUrl() : image.getUrl())
+                .orden(image.getOrden())
+                .descripcion(image.getDescripcion())
+                .ancho(hasVariant ? tarjeta.getAncho() : image.getAncho())
+                .alto(hasVariant ? tarjeta.getAlto() : image.getAlto())
+                .build();
+    }
+
+    private static ImageVariantDTO toImageVariantDTO(ImageVariant variant) {
+        if (variant == null || variant.getUrl() == null) {
+            return null;
+        }
+        return ImageVariantDTO.builder()
+                .url(variant.getUrl())
+                .ancho(variant.getAncho())
+                .alto(variant.getAlto())
+                .build();
+    }
+
+    private static String srcset(ProductImage image) {
+        Map<Integer, String> byWidth = new TreeMap<>();
+        addCandidate(byWidth, image.getMiniatura(), ImageVariantSpec.MINIATURA);
+        addCandidate(byWidth, image.getTarjeta(), ImageVariantSpec.TARJETA);
+        addCandidate(byWidth, image.getDetalle(), ImageVariantSpec.DETALLE);
+        if (byWidth.isEmpty()) {
+            return null;
+        }
+        return byWidth.entrySet().stream()
+                .map(entry -> entry.getValue() + " " + entry.getKey() + "w")
+                .collect(Collectors.joining(", "));
+    }
+
+    private static void addCandidate(Map<Integer, String> byWidth, ImageVariant variant, ImageVariantSpec spec) {
+        if (variant == null || variant.getUrl() == null) {
+            return;
+        }
+        // Con un original más chico que la variante, varias coinciden en ancho: basta una
+        byWidth.putIfAbsent(variant.getAncho() != null ? variant.getAncho() : spec.getAncho(), variant.getUrl());
+    }
+
     // REVIEW
     public static ReviewResponseDTO toReviewResponse(Review review) {
         return ReviewResponseDTO.builder()
@@ -73,7 +132,7 @@ public class DTOMapper {
     }
 
     // PRODUCT
-    public static ProductResponseDTO toProductResponse(Product product, List<ProductImage> images, 
+    public static ProductResponseDTO toProductResponse(Product product, BrandResponseDTO brand, List<ProductImage> images,
                                                        List<Review> reviews, Double avgRating) {
         return ProductResponseDTO.builder()
                 .id(product.getId())
@@ -81,7 +140,7 @@ public class DTOMapper {
                 .descripcion(product.getDescripcion())
                 .precio(product.getPrecio())
                 .stock(product.getStock())
-                .brand(toBrandResponse(product.getBrand()))
+                .brand(brand)
                 .procesador(product.getProcesador())
                 .ram(product.getRam())
                 .almacenamiento(product.getAlmacenamiento())
@@ -96,14 +155,15 @@ public class DTOMapper {
                 .build();
     }
 
-    public static ProductListDTO toProductListDTO(Product product, ProductImage mainImage, Double avgRating) {
+    public static ProductListDTO toProductListDTO(Product product, BrandResponseDTO brand, ProductImage mainImage,
+                                                  Double avgRating) {
         return ProductListDTO.builder()
                 .id(product.getId())
                 .nombre(product.getNombre())
                 .precio(product.getPrecio())
                 .stock(product.getStock())
-                .brand(product.getBrand() != null ? toBrandResponse(product.getBrand()) : null)
-                .imagenPrincipal(mainImage != null ? toProductImageDTO(mainImage) : null)
+                .brand(brand)
+                .imagenPrincipal(mainImage != null ? toListImageDTO(mainImage) : null)
                 .promedioRating(avgRating)
                 .deletedAt(product.getDeletedAt())
                 .build();
@@ -126,14 +186,40 @@ public class DTOMapper {
     }
 
     // CART
-    public static CartItemResponseDTO toCartItemResponse(CartItem item, ProductImage mainImage, Double avgRating) {
+    public static CartItemResponseDTO toCartItemResponse(CartItem item, BrandResponseDTO brand, ProductImage mainImage,
+                                                         Double avgRating) {
         return CartItemResponseDTO.builder()
                 .id(item.getId())
-                .product(toProductListDTO(item.getProduct(), mainImage, avgRating))
+                .product(toProductListDTO(item.getProduct(), brand, mainImage, avgRating))
                 .cantidad(item.getCantidad())
                 .build();
     }
 
+    public static CartItemResponseDTO toCartItemResponse(CartLineDTO line, BrandResponseDTO brand) {
+        ProductImageDTO mainImage = line.getImageId() == null ? null : ProductImageDTO.builder()
+                .id(line.getImageId())
+                .url(line.getImageUrl())
+                .orden(line.getImageOrden())
+                .descripcion(line.getImageDescripcion())
+                .ancho(line.getImageAncho())
+                .alto(line.getImageAlto())
+                .build();
+        return CartItemResponseDTO.builder()
+                .id(line.getCartItemId())
+                .product(ProductListDTO.builder()
+                        .id(line.getProductId())
+                        .nombre(line.getProductNombre())
+                        .precio(line.getPrecio())
+                        .stock(line.getStock())
+                        .brand(brand)
+                        .imagenPrincipal(mainImage)
+                        .promedioRating(line.getPromedioRating() != null ? line.getPromedioRating() : 0.0)
+                        .deletedAt(line.getProductDeletedAt())
+                        .build())
+                .cantidad(line.getCantidad())
+                .build();
+    }
+
     public static CartResponseDTO toCartResponse(Cart cart, List<CartItemResponseDTO> items, 
                                                  java.math.BigDecimal total) {
         return CartResponseDTO.builder()
@@ -146,10 +232,11 @@ public class DTOMapper {
     }
 
     // ORDER
-    public static OrderItemResponseDTO toOrderItemResponse(OrderItem item, ProductImage mainImage, Double avgRating) {
+    public static OrderItemResponseDTO toOrderItemResponse(OrderItem item, BrandResponseDTO brand, ProductImage mainImage,
+                                                           Double avgRating) {
         return OrderItemResponseDTO.builder()
                 .id(item.getId())
-                .product(toProductListDTO(item.getProduct(), mainImage, avgRating))
+                .product(toProductListDTO(item.getProduct(), brand, mainImage, avgRating))
                 .cantidad(item.getCantidad())
                 .precioUnitario(item.getPrecioUnitario())
                 .build();
@@ -0,0 +1,34 @@
+package com.laptophub.backend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Datos de la respuesta de Cloudinary a una subida directa, reenviados por el navegador para registrar la imagen.
+ * Solo lo que cubre la firma (public_id y version) y lo necesario para armar la URL: el ancho y el alto de la
+ * respuesta no están firmados, así que no se aceptan del navegador.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectUploadConfirmDTO {
+
+    @NotBlank(message = "El public_id es obligatorio")
+    private String publicId;
+
+    @NotNull(message = "La versión es obligatoria")
+    private Long version;
+
+    @NotBlank(message = "El formato es obligatorio")
+    private String format;
+
+    @NotBlank(message = "La firma es obligatoria")
+    private String signature;      // firma de Cloudinary sobre public_id y version
+
+    private String descripcion;    // solo imágenes de producto
+}
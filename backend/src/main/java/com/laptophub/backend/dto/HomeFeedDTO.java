@@ -0,0 +1,20 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HomeFeedDTO {
+    private List<ProductListDTO> topRated;
+    private List<ProductListDTO> newest;
+    private List<BrandHighlightDTO> marcas;
+    private LocalDateTime generadoEn;
+}
@@ -0,0 +1,16 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadErrorDTO {
+    private int indice;        // posición del archivo en la petición (desde 0)
+    private String archivo;
+    private String mensaje;
+}
@@ -0,0 +1,33 @@
+package com.laptophub.backend.dto;
+
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.PaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Fila de exportación de órdenes: una por item de orden.
+ * Se llena con un constructor JPQL en OrderItemRepository.streamForExport (el orden de campos importa).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderExportRowDTO {
+    private Long orderId;
+    private LocalDateTime createdAt;
+    private OrderStatus estado;
+    private UUID userId;
+    private String email;
+    private BigDecimal total;
+    private PaymentStatus pagoEstado;
+    private Long orderItemId;
+    private Long productId;
+    private String productNombre;
+    private Integer cantidad;
+    private BigDecimal precioUnitario;
+}
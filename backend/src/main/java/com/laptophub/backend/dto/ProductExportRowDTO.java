@@ -0,0 +1,33 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Fila de exportación de productos. Las columnas coinciden con las de la importación masiva,
+ * así que un archivo exportado se puede volver a importar (las filas con id actualizan).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductExportRowDTO {
+    private Long id;
+    private String nombre;
+    private String descripcion;
+    private BigDecimal precio;
+    private Integer stock;
+    private Long brandId;
+    private String marca;
+    private String procesador;
+    private Integer ram;
+    private Integer almacenamiento;
+    private String pantalla;
+    private String gpu;
+    private BigDecimal peso;
+    private LocalDateTime createdAt;
+    private LocalDateTime deletedAt;
+}
@@ -0,0 +1,21 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImageBatchResultDTO {
+    private int recibidas;
+    private int subidas;
+    private int errores;
+    private List<ProductImageDTO> imagenes;           // en el orden de la petición
+    private List<ImageUploadErrorDTO> detalleErrores;
+    private long duracionMs;
+}
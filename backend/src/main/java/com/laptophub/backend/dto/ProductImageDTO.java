@@ -1,5 +1,6 @@
 package com.laptophub.backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -11,7 +12,26 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ProductImageDTO {
     private Long id;
-    private String url;
+    private String url;               // En listados, la variante de tarjeta; en el detalle, el original
     private Integer orden;
     private String descripcion;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer ancho;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer alto;
+
+    // Solo en el detalle del producto y en la gestión de imágenes
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ImageVariantDTO miniatura;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ImageVariantDTO tarjeta;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private ImageVariantDTO detalle;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String srcset;            // "url 160w, url 480w, url 1200w" para <img srcset>
 }
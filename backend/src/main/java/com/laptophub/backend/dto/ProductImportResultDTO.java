@@ -0,0 +1,21 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResultDTO {
+    private long filasLeidas;
+    private long insertados;
+    private long actualizados;
+    private long errores;
+    private List<ImportRowErrorDTO> detalleErrores;  // limitado a los primeros errores
+    private long duracionMs;
+}
@@ -0,0 +1,23 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesReportDTO {
+    private LocalDate desde;
+    private LocalDate hasta;
+    private String agrupar;           // dia, producto o marca
+    private long unidades;
+    private BigDecimal ingresos;
+    private List<SalesRollupRowDTO> filas;
+}
@@ -0,0 +1,27 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Una fila del reporte de ventas. Según la agrupación solo se llenan
+ * dia (agrupar=dia), productId/productNombre (agrupar=producto) o brandId/marca (agrupar=marca).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupRowDTO {
+    private LocalDate dia;
+    private Long productId;
+    private String productNombre;
+    private Long brandId;
+    private String marca;
+    private long unidades;
+    private BigDecimal ingresos;
+}
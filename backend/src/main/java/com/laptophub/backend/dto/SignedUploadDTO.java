@@ -0,0 +1,24 @@
+package com.laptophub.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parámetros firmados para que el navegador suba una imagen directamente a Cloudinary.
+ * Se envían tal cual como campos del formulario multipart junto con "file".
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SignedUploadDTO {
+    private String uploadUrl;      // https://api.cloudinary.com/v1_1/{cloud}/image/upload
+    private String apiKey;
+    private Long timestamp;        // segundos epoch, firmado
+    private String folder;         // firmado: la subida solo puede ir a esta carpeta
+    private String eager;          // variantes a generar al subir (productos), firmado
+    private String signature;
+    private Long expiraEn;         // segundos epoch; después el confirm se rechaza
+}
@@ -2,6 +2,7 @@ package com.laptophub.backend.exception;
 
 import com.stripe.exception.StripeException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -118,7 +119,11 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ApiResponse<?>> handleTooManyRequests(
             TooManyRequestsException e,
             HttpServletRequest request) {
-        return ResponseEntity.status(429)
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(429);
+        if (e.getRetryAfterSeconds() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        }
+        return response
             .body(ApiResponse.builder()
                 .success(false)
                 .message(e.getMessage())
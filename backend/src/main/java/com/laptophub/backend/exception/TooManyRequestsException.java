@@ -1,7 +1,21 @@
 package com.laptophub.backend.exception;
 
 public class TooManyRequestsException extends RuntimeException {
+    private final Long retryAfterSeconds;
+
     public TooManyRequestsException(String message) {
+        this(message, null);
+    }
+
+    public TooManyRequestsException(String message, Long retryAfterSeconds) {
         super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Segundos sugeridos antes de reintentar (cabecera Retry-After), o null si no aplica
+     */
+    public Long getRetryAfterSeconds() {
+        return retryAfterSeconds;
     }
 }
@@ -13,6 +13,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "brands")
+@EntityListeners(CatalogVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
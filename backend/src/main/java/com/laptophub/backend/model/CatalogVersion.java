@@ -0,0 +1,24 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila única con la versión del catálogo compartida por todas las instancias.
+ * Se mantiene desde CatalogVersionService (JDBC); JPA solo define la tabla.
+ */
+@Entity
+@Table(name = "catalog_version")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogVersion {
+
+    @Id
+    private Short id;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,30 @@
+package com.laptophub.backend.model;
+
+import com.laptophub.backend.service.CatalogVersionService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA de las entidades que forman el catálogo público.
+ * Hibernate lo obtiene del contexto de Spring (SpringBeanContainer), por eso es un @Component.
+ * Las escrituras por JPQL/JDBC masivo no pasan por aquí y deben llamar a CatalogVersionService directamente.
+ */
+@Component
+public class CatalogVersionListener {
+
+    private final ObjectProvider<CatalogVersionService> catalogVersionService;
+
+    public CatalogVersionListener(ObjectProvider<CatalogVersionService> catalogVersionService) {
+        this.catalogVersionService = catalogVersionService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onCatalogChange(Object entity) {
+        catalogVersionService.getObject().bumpAfterCommit();
+    }
+}
@@ -0,0 +1,62 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Respuesta guardada para una Idempotency-Key dentro de un ámbito (operación + usuario autenticado).
+ * Mientras la primera ejecución está en curso la fila no tiene completed_at ni respuesta.
+ * Se mantiene desde IdempotencyService (JDBC); JPA solo define la tabla.
+ */
+@Entity
+@Table(
+    name = "idempotency_keys",
+    indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+)
+@IdClass(IdempotencyRecord.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+
+    /**
+     * Operación + ":" + SHA-256 en hex del usuario autenticado: largo fijo sea cual sea el nombre
+     */
+    @Id
+    @Column(nullable = false, length = 150)
+    private String scope;
+
+    @Id
+    @Column(name = "idempotency_key", nullable = false, length = 100)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 del cuerpo de la petición original: la misma clave con otro cuerpo se rechaza
+     */
+    @Column(name = "request_hash", nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(name = "response_body", columnDefinition = "TEXT")
+    private String responseBody;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String scope;
+        private String idempotencyKey;
+    }
+}
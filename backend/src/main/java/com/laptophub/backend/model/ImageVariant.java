@@ -0,0 +1,27 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Versión redimensionada de una imagen (URL de la transformación y sus dimensiones en píxeles).
+ * Las dimensiones pueden faltar en imágenes anteriores a la generación de variantes.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImageVariant {
+
+    @Column(length = 600)
+    private String url;
+
+    private Integer ancho;
+
+    private Integer alto;
+}
@@ -0,0 +1,73 @@
+package com.laptophub.backend.model;
+
+/**
+ * Variantes que se generan al subir una imagen de producto.
+ * Cada una es una transformación de Cloudinary que limita el ancho sin recortar ni ampliar.
+ */
+public enum ImageVariantSpec {
+    MINIATURA(160),
+    TARJETA(480),
+    DETALLE(1200);
+
+    private static final String UPLOAD_SEGMENT = "/upload/";
+
+    private final int ancho;
+
+    ImageVariantSpec(int ancho) {
+        this.ancho = ancho;
+    }
+
+    public int getAncho() {
+        return ancho;
+    }
+
+    public String transformation() {
+        return "c_limit,w_" + ancho + ",q_auto";
+    }
+
+    /**
+     * URL de la variante para una URL de entrega de Cloudinary, o null si la URL no es de Cloudinary
+     */
+    public String urlFor(String secureUrl) {
+        if (secureUrl == null || !secureUrl.contains("res.cloudinary.com")) {
+            return null;
+        }
+        int uploadIndex = secureUrl.indexOf(UPLOAD_SEGMENT);
+        if (uploadIndex == -1) {
+            return null;
+        }
+        int insertAt = uploadIndex + UPLOAD_SEGMENT.length();
+        return secureUrl.substring(0, insertAt) + transformation() + "/" + secureUrl.substring(insertAt);
+    }
+
+    /**
+     * Variante de una imagen de Cloudinary; las dimensiones se calculan desde las del original
+     * (c_limit nunca amplía). Devuelve null si la URL no es de Cloudinary.
+     */
+    public ImageVariant variantOf(String secureUrl, Integer anchoOriginal, Integer altoOriginal) {
+        String url = urlFor(secureUrl);
+        if (url == null) {
+            return null;
+        }
+        if (anchoOriginal == null || altoOriginal == null || anchoOriginal <= 0) {
+            return ImageVariant.builder().url(url).build();
+        }
+        if (anchoOriginal <= ancho) {
+            return ImageVariant.builder().url(url).ancho(anchoOriginal).alto(altoOriginal).build();
+        }
+        return ImageVariant.builder()
+                .url(url)
+                .ancho(ancho)
+                .alto(Math.round((float) altoOriginal * ancho / anchoOriginal))
+                .build();
+    }
+
+    /**
+     * Calcula las tres variantes de la imagen a partir de su URL y dimensiones actuales
+     */
+    public static void applyTo(ProductImage image) {
+        image.setMiniatura(MINIATURA.variantOf(image.getUrl(), image.getAncho(), image.getAlto()));
+        image.setTarjeta(TARJETA.variantOf(image.getUrl(), image.getAncho(), image.getAlto()));
+        image.setDetalle(DETALLE.variantOf(image.getUrl(), image.getAncho(), image.getAlto()));
+    }
+}
@@ -0,0 +1,46 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Movimiento de stock pendiente de aplicar a products.stock (diario del motor de reservas).
+ * Se inserta en la misma transacción que la orden y se borra en la misma sentencia que lo suma al
+ * producto, así que la tabla solo contiene movimientos confirmados que aún no llegaron a products.
+ * Se mantiene desde InventoryReservationEngine (JDBC); JPA solo define la tabla.
+ */
+@Entity
+@Table(
+    name = "inventory_movements",
+    indexes = @Index(name = "idx_inventory_movements_product_id", columnList = "product_id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InventoryMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    /**
+     * Orden que originó el movimiento (reserva negativa, devolución positiva)
+     */
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(nullable = false)
+    private Integer delta;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
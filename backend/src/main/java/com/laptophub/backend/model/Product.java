@@ -5,7 +5,9 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -13,6 +15,7 @@ import java.util.List;
 
 @Entity
 @Table(name = "products")
+@EntityListeners(CatalogVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -35,8 +38,14 @@ public class Product {
     @Column(nullable = false)
     private Integer stock;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    /**
+     * LAZY: las respuestas toman la marca de BrandRegistry a partir del id, sin cargarla.
+     * Excluida de equals/hashCode/toString para no inicializar el proxy.
+     */
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "brand_id")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Brand brand;
     
     private String procesador;
@@ -10,6 +10,7 @@ import lombok.*;
  */
 @Entity
 @Table(name = "product_images")
+@EntityListeners(CatalogVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -29,6 +30,37 @@ public class ProductImage {
     @Column(length = 200)
     private String descripcion; // Opcional: "Vista frontal", "Puertos laterales", etc.
 
+    private Integer ancho; // Dimensiones del original en píxeles (si se conocen)
+
+    private Integer alto;
+
+    /**
+     * Variantes generadas al subir la imagen (ver ImageVariantSpec); null si la URL no es de Cloudinary
+     */
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "url", column = @Column(name = "miniatura_url", length = 600)),
+            @AttributeOverride(name = "ancho", column = @Column(name = "miniatura_ancho")),
+            @AttributeOverride(name = "alto", column = @Column(name = "miniatura_alto"))
+    })
+    private ImageVariant miniatura;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "url", column = @Column(name = "tarjeta_url", length = 600)),
+            @AttributeOverride(name = "ancho", column = @Column(name = "tarjeta_ancho")),
+            @AttributeOverride(name = "alto", column = @Column(name = "tarjeta_alto"))
+    })
+    private ImageVariant tarjeta;
+
+    @Embedded
+    @AttributeOverrides({
+            @AttributeOverride(name = "url", column = @Column(name = "detalle_url", length = 600)),
+            @AttributeOverride(name = "ancho", column = @Column(name = "detalle_ancho")),
+            @AttributeOverride(name = "alto", column = @Column(name = "detalle_alto"))
+    })
+    private ImageVariant detalle;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "product_id", nullable = false)
     @JsonIgnore
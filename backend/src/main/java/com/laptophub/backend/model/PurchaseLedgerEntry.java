@@ -0,0 +1,45 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Registro compacto de "el usuario recibió este producto": una fila por (user_id, product_id)
+ * con al menos una orden ENTREGADO. La clave primaria es el propio par, así que la verificación
+ * de compra es una búsqueda por índice. Se mantiene desde PurchaseLedgerService (JDBC); JPA solo define la tabla.
+ */
+@Entity
+@Table(name = "purchase_ledger")
+@IdClass(PurchaseLedgerEntry.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PurchaseLedgerEntry {
+
+    @Id
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Id
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID userId;
+        private Long productId;
+    }
+}
@@ -10,6 +10,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "reviews")
+@EntityListeners(CatalogVersionListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,48 @@
+package com.laptophub.backend.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Ventas acumuladas por día × producto.
+ * Se mantiene de forma incremental desde SalesRollupService (JDBC upsert); JPA solo define la tabla.
+ * La marca no forma parte de la clave: se toma de products al leer, así que un cambio de marca
+ * no deja la venta y su reversión en filas distintas.
+ */
+@Entity
+@Table(
+    name = "sales_daily_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_sales_rollups_dia_product", columnNames = {"dia", "product_id"})
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate dia;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Long unidades;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal ingresos;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,75 @@
+package com.laptophub.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Escrituras masivas sobre cart_items con JDBC batch.
+ * Participa en la transacción JPA activa, así que todo el lote confirma o revierte junto.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CartItemBatchRepository {
+
+    private static final String UPSERT_ADD =
+            "INSERT INTO cart_items (cart_id, product_id, cantidad) " +
+            "SELECT ?, p.id, ? FROM products p WHERE p.id = ? AND p.deleted_at IS NULL " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET cantidad = cart_items.cantidad + EXCLUDED.cantidad";
+
+    private static final String UPSERT_SET =
+            "INSERT INTO cart_items (cart_id, product_id, cantidad) " +
+            "SELECT ?, p.id, ? FROM products p WHERE p.id = ? AND p.deleted_at IS NULL " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET cantidad = EXCLUDED.cantidad";
+
+    private static final String DELETE_LINE =
+            "DELETE FROM cart_items WHERE cart_id = ? AND product_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * IDs de productos activos dentro del conjunto recibido (una consulta)
+     */
+    public List<Long> findActiveProductIds(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE deleted_at IS NULL AND id = ANY (?)",
+                Long.class,
+                (Object) productIds.toArray(new Long[0]));
+    }
+
+    public void addQuantities(Long cartId, Map<Long, Integer> deltasByProduct) {
+        upsert(UPSERT_ADD, cartId, deltasByProduct);
+    }
+
+    public void setQuantities(Long cartId, Map<Long, Integer> quantitiesByProduct) {
+        upsert(UPSERT_SET, cartId, quantitiesByProduct);
+    }
+
+    public void deleteLines(Long cartId, Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>();
+        for (Long productId : productIds) {
+            args.add(new Object[]{cartId, productId});
+        }
+        jdbcTemplate.batchUpdate(DELETE_LINE, args);
+    }
+
+    private void upsert(String sql, Long cartId, Map<Long, Integer> quantitiesByProduct) {
+        if (quantitiesByProduct.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>();
+        quantitiesByProduct.forEach((productId, cantidad) -> args.add(new Object[]{cartId, cantidad, productId}));
+        jdbcTemplate.batchUpdate(sql, args);
+    }
+}
@@ -1,5 +1,6 @@
 package com.laptophub.backend.repository;
 
+import com.laptophub.backend.dto.CartLineDTO;
 import com.laptophub.backend.model.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -7,9 +8,70 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Modifying
     @Query("DELETE FROM CartItem ci WHERE ci.product.id = :productId")
     void deleteByProductId(@Param("productId") Long productId);
+
+    /**
+     * Agrega un producto activo al carrito o suma la cantidad si ya existe la línea, en una sola sentencia.
+     * Se apoya en la restricción única (cart_id, product_id), así que dos clics simultáneos no duplican líneas.
+     * @return 0 si el producto no existe o está desactivado
+     */
+    @Modifying
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, cantidad) " +
+                   "SELECT :cartId, p.id, :cantidad FROM products p WHERE p.id = :productId AND p.deleted_at IS NULL " +
+                   "ON CONFLICT (cart_id, product_id) DO UPDATE SET cantidad = cart_items.cantidad + EXCLUDED.cantidad",
+           nativeQuery = true)
+    int upsertCantidad(@Param("cartId") Long cartId, @Param("productId") Long productId, @Param("cantidad") Integer cantidad);
+
+    @Modifying
+    @Query("UPDATE CartItem ci SET ci.cantidad = :cantidad WHERE ci.id = :cartItemId")
+    int updateCantidad(@Param("cartItemId") Long cartItemId, @Param("cantidad") Integer cantidad);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.id = :cartItemId")
+    int deleteByIdReturningCount(@Param("cartItemId") Long cartItemId);
+
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.id = :cartId")
+    int deleteByCartId(@Param("cartId") Long cartId);
+
+    /**
+     * Vista completa del carrito en una sola consulta: items, producto, id de marca,
+     * imagen principal (menor orden, desempate por id; variante de tarjeta si existe) y rating promedio.
+     * @param cartId ID del carrito
+     * @return Filas del carrito ordenadas por id de item
+     */
+    @Query("SELECT new com.laptophub.backend.dto.CartLineDTO(" +
+           "ci.id, ci.cantidad, p.id, p.nombre, p.precio, p.stock, p.deletedAt, " +
+           "p.brand.id, " +
+           "img.id, COALESCE(img.tarjeta.url, img.url), img.orden, img.descripcion, " +
+           "CASE WHEN img.tarjeta.url IS NOT NULL THEN img.tarjeta.ancho ELSE img.ancho END, " +
+           "CASE WHEN img.tarjeta.url IS NOT NULL THEN img.tarjeta.alto ELSE img.alto END, " +
+           "(SELECT AVG(r.rating) FROM Review r WHERE r.product = p)) " +
+           "FROM CartItem ci " +
+           "JOIN ci.product p " +
+           "LEFT JOIN ProductImage img ON img.product = p AND img.id = (" +
+           "SELECT MIN(i2.id) FROM ProductImage i2 WHERE i2.product = p AND i2.orden = (" +
+           "SELECT MIN(i3.orden) FROM ProductImage i3 WHERE i3.product = p)) " +
+           "WHERE ci.cart.id = :cartId " +
+           "ORDER BY ci.id")
+    List<CartLineDTO> findCartLines(@Param("cartId") Long cartId);
+
+    /**
+     * Productos del carrito del usuario, para pedir turno de checkout antes de abrir la transacción.
+     * @param userId ID del usuario
+     * @return IDs de producto (vacío si no tiene carrito)
+     */
+    @Query("SELECT ci.product.id FROM CartItem ci WHERE ci.cart.user.id = :userId")
+    List<Long> findProductIdsByUserId(@Param("userId") UUID userId);
+
+    @Query("SELECT COALESCE(SUM(p.precio * ci.cantidad), 0) FROM CartItem ci JOIN ci.product p WHERE ci.cart.id = :cartId")
+    BigDecimal sumTotalByCartId(@Param("cartId") Long cartId);
 }
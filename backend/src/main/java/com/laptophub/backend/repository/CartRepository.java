@@ -4,12 +4,27 @@ import com.laptophub.backend.model.Cart;
 import com.laptophub.backend.model.User;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     @EntityGraph(attributePaths = {"items", "items.product"})
     Optional<Cart> findByUser(User user);
+
+    /**
+     * Carrito de un usuario activo sin cargar sus items (la vista se arma con CartItemRepository.findCartLines)
+     */
+    @Query("SELECT c FROM Cart c JOIN FETCH c.user u WHERE u.id = :userId AND u.deletedAt IS NULL")
+    Optional<Cart> findByActiveUserId(@Param("userId") UUID userId);
+
+    /**
+     * Carrito (con su usuario) al que pertenece un item, sin cargar los demás items
+     */
+    @Query("SELECT c FROM CartItem ci JOIN ci.cart c JOIN FETCH c.user WHERE ci.id = :cartItemId")
+    Optional<Cart> findByCartItemId(@Param("cartItemId") Long cartItemId);
 }
@@ -0,0 +1,68 @@
+package com.laptophub.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Tabla idempotency_keys con JDBC. Cada sentencia es atómica por sí sola (sin transacción JPA):
+ * la reserva de la clave tiene que ser visible para otras instancias antes de ejecutar la operación.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyKeyRepository {
+
+    public record StoredKey(String requestHash, String responseBody, LocalDateTime createdAt) {
+        public boolean isCompleted() {
+            return responseBody != null;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reserva la clave para una ejecución nueva.
+     * @return true si la clave no existía; false si otra petición ya la reservó o completó
+     */
+    public boolean claim(String scope, String key, String requestHash) {
+        return jdbcTemplate.update(
+                "INSERT INTO idempotency_keys (scope, idempotency_key, request_hash, created_at) VALUES (?, ?, ?, now()) " +
+                "ON CONFLICT (scope, idempotency_key) DO NOTHING",
+                scope, key, requestHash) == 1;
+    }
+
+    public Optional<StoredKey> find(String scope, String key) {
+        List<StoredKey> rows = jdbcTemplate.query(
+                "SELECT request_hash, response_body, created_at FROM idempotency_keys WHERE scope = ? AND idempotency_key = ?",
+                (rs, rowNum) -> new StoredKey(
+                        rs.getString("request_hash"),
+                        rs.getString("response_body"),
+                        rs.getTimestamp("created_at").toLocalDateTime()),
+                scope, key);
+        return rows.stream().findFirst();
+    }
+
+    public void complete(String scope, String key, String responseBody) {
+        jdbcTemplate.update(
+                "UPDATE idempotency_keys SET response_body = ?, completed_at = now() WHERE scope = ? AND idempotency_key = ?",
+                responseBody, scope, key);
+    }
+
+    /**
+     * Libera una reserva cuya ejecución falló, para que el reintento del cliente vuelva a ejecutarla
+     */
+    public void release(String scope, String key) {
+        jdbcTemplate.update(
+                "DELETE FROM idempotency_keys WHERE scope = ? AND idempotency_key = ? AND completed_at IS NULL",
+                scope, key);
+    }
+
+    public int deleteCreatedBefore(LocalDateTime before) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE created_at < ?", Timestamp.valueOf(before));
+    }
+}
@@ -0,0 +1,86 @@
+package com.laptophub.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diario de movimientos de stock (inventory_movements) con JDBC.
+ * Los inserts participan en la transacción JPA activa, junto con la orden que los origina.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryMovementRepository {
+
+    private static final String INSERT =
+            "INSERT INTO inventory_movements (product_id, order_id, delta, created_at) VALUES (?, ?, ?, now())";
+
+    /**
+     * Stock disponible = stock persistido + movimientos aún no aplicados.
+     * Es una sola sentencia, así que ve una única foto aunque un flush corra en paralelo.
+     */
+    private static final String AVAILABLE =
+            "SELECT p.stock + COALESCE((SELECT SUM(m.delta) FROM inventory_movements m WHERE m.product_id = p.id), 0) " +
+            "FROM products p WHERE p.id = ?";
+
+    /**
+     * Borra los movimientos pendientes y los suma a products.stock en la misma sentencia:
+     * o se aplican y desaparecen juntos, o no pasa ninguna de las dos cosas.
+     */
+    private static final String APPLY_PENDING =
+            "WITH applied AS (DELETE FROM inventory_movements RETURNING product_id, delta), " +
+            "totals AS (SELECT product_id, SUM(delta) AS delta FROM applied GROUP BY product_id) " +
+            "UPDATE products p SET stock = p.stock + t.delta FROM totals t WHERE p.id = t.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(Long orderId, Map<Long, Integer> deltasByProduct) {
+        if (deltasByProduct.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>();
+        deltasByProduct.forEach((productId, delta) -> args.add(new Object[]{productId, orderId, delta}));
+        jdbcTemplate.batchUpdate(INSERT, args);
+    }
+
+    /**
+     * @return stock disponible del producto, o null si no existe
+     */
+    public Integer available(Long productId) {
+        List<Integer> rows = jdbcTemplate.queryForList(AVAILABLE, Integer.class, productId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Stock persistido de los productos, bloqueando sus filas hasta el fin de la transacción
+     * @return productId → stock (los inexistentes o eliminados no aparecen)
+     */
+    public Map<Long, Integer> lockStock(Collection<Long> productIds) {
+        Map<Long, Integer> stock = new HashMap<>();
+        jdbcTemplate.query("SELECT id, stock FROM products WHERE id = ANY (?) AND deleted_at IS NULL ORDER BY id FOR NO KEY UPDATE",
+                rs -> {
+                    stock.put(rs.getLong("id"), rs.getInt("stock"));
+                },
+                (Object) productIds.toArray(new Long[0]));
+        return stock;
+    }
+
+    /**
+     * Aplica todos los movimientos pendientes a products.stock.
+     * @return productos actualizados
+     */
+    public int applyPending() {
+        return jdbcTemplate.update(APPLY_PENDING);
+    }
+
+    public long countPending() {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM inventory_movements", Long.class);
+        return count != null ? count : 0;
+    }
+}
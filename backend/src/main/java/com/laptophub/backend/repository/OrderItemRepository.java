@@ -1,9 +1,37 @@
 package com.laptophub.backend.repository;
 
+import com.laptophub.backend.dto.OrderExportRowDTO;
 import com.laptophub.backend.model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Cursor de solo lectura para exportar órdenes (una fila por item).
+     * Debe consumirse dentro de una transacción y cerrarse (try-with-resources);
+     * con fetch size el driver de PostgreSQL trae filas por bloques en lugar de todo el resultado.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.laptophub.backend.dto.OrderExportRowDTO(" +
+           "o.id, o.createdAt, o.estado, u.id, u.email, o.total, pay.estado, " +
+           "oi.id, p.id, p.nombre, oi.cantidad, oi.precioUnitario) " +
+           "FROM OrderItem oi " +
+           "JOIN oi.order o " +
+           "JOIN o.user u " +
+           "JOIN oi.product p " +
+           "LEFT JOIN o.payment pay " +
+           "ORDER BY o.id, oi.id")
+    Stream<OrderExportRowDTO> streamForExport();
 }
@@ -2,11 +2,11 @@ package com.laptophub.backend.repository;
 
 import com.laptophub.backend.model.Order;
 import com.laptophub.backend.model.OrderStatus;
-import com.laptophub.backend.model.User;
 import com.laptophub.backend.dto.ReviewableProductDTO;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.jpa.repository.EntityGraph;
@@ -15,6 +15,7 @@ import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,19 +27,65 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Override
     @NonNull Optional<Order> findById(@NonNull Long id);
     
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    Page<Order> findByUser(User user, Pageable pageable);
-    
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    List<Order> findByUser(User user);
-    
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    Page<Order> findByEstado(OrderStatus estado, Pageable pageable);
-    
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    List<Order> findByEstado(OrderStatus estado);
-    
-    List<Order> findByEstadoAndExpiresAtBefore(OrderStatus estado, LocalDateTime expiresAt);
+    /**
+     * Carga el grafo completo (usuario, items, producto, pago) de un conjunto acotado de órdenes.
+     * La marca no se carga: se resuelve con BrandRegistry.
+     * Es la segunda fase de los listados paginados: primero se pagina por id y luego se trae el grafo,
+     * así el LIMIT/OFFSET lo aplica la base de datos y Hibernate nunca pagina en memoria.
+     * El orden del resultado no está garantizado; el llamador lo reordena según los ids.
+     */
+    @EntityGraph(attributePaths = {"user", "orderItems", "orderItems.product", "payment"})
+    @Query("SELECT DISTINCT o FROM Order o WHERE o.id IN :ids")
+    List<Order> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(value = "SELECT o.id FROM Order o",
+           countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findIdPage(Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.user.id = :userId",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId")
+    Page<Long> findIdPageByUserId(@Param("userId") UUID userId, Pageable pageable);
+
+    @Query(value = "SELECT o.id FROM Order o WHERE o.estado = :estado",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.estado = :estado")
+    Page<Long> findIdPageByEstado(@Param("estado") OrderStatus estado, Pageable pageable);
+
+    /**
+     * Lote de ids en un estado, para procesos masivos (sin count).
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.estado = :estado ORDER BY o.id")
+    List<Long> findIdsByEstado(@Param("estado") OrderStatus estado, Pageable pageable);
+
+    /**
+     * Cambia el estado de un lote de órdenes en una sola sentencia.
+     * Solo afecta a las que siguen en el estado esperado, por si otra transacción las movió antes.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.estado = :nuevo WHERE o.id IN :ids AND o.estado = :actual")
+    int updateEstadoByIdIn(@Param("ids") Collection<Long> ids,
+                           @Param("actual") OrderStatus actual,
+                           @Param("nuevo") OrderStatus nuevo);
+
+    /**
+     * Siguiente lote de órdenes vencidas por keyset (id mayor que afterId), para expirarlas por bloques.
+     */
+    @Query("SELECT o.id FROM Order o WHERE o.estado = :estado AND o.expiresAt < :now AND o.id > :afterId ORDER BY o.id")
+    List<Long> findExpiredIdsAfter(@Param("estado") OrderStatus estado,
+                                   @Param("now") LocalDateTime now,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
+
+    /**
+     * Cambia el estado de una orden solo si sigue en el estado esperado.
+     * Dos transacciones concurrentes no pueden aplicar la misma transición: la segunda espera el bloqueo
+     * de la fila y, tras el commit de la primera, no actualiza nada.
+     * @return 1 si la orden cambió de estado, 0 si ya no estaba en "actual"
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Order o SET o.estado = :nuevo WHERE o.id = :id AND o.estado = :actual")
+    int updateEstado(@Param("id") Long id,
+                     @Param("actual") OrderStatus actual,
+                     @Param("nuevo") OrderStatus nuevo);
 
     /**
      * Bloquea la orden para evitar race conditions al expirar y restaurar stock.
@@ -48,41 +95,37 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Optional<Order> findByIdWithLock(@Param("id") Long id);
 
     /**
-     * Verifica si un usuario ha comprado un producto específico (orden ENTREGADA).
+     * Obtiene los productos que un usuario puede reseñar (asociados a órdenes ENTREGADAS), paginados en BD.
+     * La reseña del usuario se resuelve con un LEFT JOIN agrupado por producto en lugar de subconsultas por fila.
+     * Orden: productos entregados más recientemente primero.
      * @param userId ID del usuario
-     * @param productId ID del producto
-     * @return true si el usuario ha comprado el producto, false en caso contrario
-     */
-    @Query("SELECT COUNT(oi) > 0 FROM Order o " +
-           "JOIN o.orderItems oi " +
-           "WHERE o.user.id = :userId AND oi.product.id = :productId AND o.estado = 'ENTREGADO'")
-    boolean hasUserPurchasedProduct(@Param("userId") UUID userId, @Param("productId") Long productId);
-
-    /**
-     * Obtiene los productos que un usuario puede reseñar (asociados a órdenes ENTREGADAS).
-     * Incluye información sobre si el producto ya ha sido reseñado.
-     * @param userId ID del usuario
-     * @return Lista de productos reseñables con estado de reseña
+     * @param pageable Información de paginación
+     * @return Página de productos reseñables con estado de reseña
      */
-    @Query("SELECT new com.laptophub.backend.dto.ReviewableProductDTO(" +
-           "p.id, p.nombre, p.precio, " +
-           "CASE WHEN (SELECT COUNT(r) FROM Review r WHERE r.product.id = p.id AND r.user.id = :userId) > 0 THEN true ELSE false END, " +
-           "(SELECT r.id FROM Review r WHERE r.product.id = p.id AND r.user.id = :userId)) " +
-           "FROM Order o " +
-           "JOIN o.orderItems oi " +
-           "JOIN oi.product p " +
-           "WHERE o.user.id = :userId AND o.estado = 'ENTREGADO' " +
-           "GROUP BY p.id, p.nombre, p.precio")
-    List<ReviewableProductDTO> getReviewableProducts(@Param("userId") UUID userId);
+    @Query(value = "SELECT new com.laptophub.backend.dto.ReviewableProductDTO(" +
+                   "p.id, p.nombre, p.precio, " +
+                   "CASE WHEN MAX(r.id) IS NOT NULL THEN true ELSE false END, " +
+                   "MAX(r.id)) " +
+                   "FROM Order o " +
+                   "JOIN o.orderItems oi " +
+                   "JOIN oi.product p " +
+                   "LEFT JOIN Review r ON r.product = p AND r.user.id = :userId " +
+                   "WHERE o.user.id = :userId AND o.estado = 'ENTREGADO' " +
+                   "GROUP BY p.id, p.nombre, p.precio " +
+                   "ORDER BY MAX(o.createdAt) DESC, p.id DESC",
+           countQuery = "SELECT COUNT(DISTINCT oi.product.id) FROM Order o " +
+                        "JOIN o.orderItems oi " +
+                        "WHERE o.user.id = :userId AND o.estado = 'ENTREGADO'")
+    Page<ReviewableProductDTO> getReviewableProducts(@Param("userId") UUID userId, Pageable pageable);
 
     /**
      * Obtiene todas las órdenes de un usuario que estén en estados de procesamiento.
      * Retorna órdenes en estado PROCESANDO, ENVIADO o ENTREGADO.
      * @param userId ID del usuario
      * @param pageable Información de paginación
-     * @return Página de órdenes en los estados especificados
+     * @return Página de ids de órdenes en los estados especificados (el grafo se carga con findWithItemsByIdIn)
      */
-    @EntityGraph(attributePaths = {"orderItems", "orderItems.product", "payment"})
-    @Query("SELECT o FROM Order o WHERE o.user.id = :userId AND o.estado IN ('PROCESANDO', 'ENVIADO', 'ENTREGADO') ORDER BY o.createdAt DESC")
-    Page<Order> findUserOrdersByActiveStatuses(@Param("userId") UUID userId, Pageable pageable);
+    @Query(value = "SELECT o.id FROM Order o WHERE o.user.id = :userId AND o.estado IN ('PROCESANDO', 'ENVIADO', 'ENTREGADO') ORDER BY o.createdAt DESC, o.id DESC",
+           countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId AND o.estado IN ('PROCESANDO', 'ENVIADO', 'ENTREGADO')")
+    Page<Long> findActiveIdPageByUserId(@Param("userId") UUID userId, Pageable pageable);
 }
@@ -0,0 +1,92 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.model.ImageVariant;
+import com.laptophub.backend.model.ProductImage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alta de varias imágenes de un producto en una sola sentencia (INSERT multi-fila con RETURNING).
+ * Participa en la transacción activa: el bloqueo de la fila del producto dura hasta el commit,
+ * así que dos lotes simultáneos no reciben el mismo orden.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductImageBatchRepository {
+
+    private static final String COLUMNS =
+            "product_id, url, orden, descripcion, ancho, alto, " +
+            "miniatura_url, miniatura_ancho, miniatura_alto, " +
+            "tarjeta_url, tarjeta_ancho, tarjeta_alto, " +
+            "detalle_url, detalle_ancho, detalle_alto";
+
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserta las imágenes a continuación de las existentes del producto (orden = máximo actual + 1, + 2, ...),
+     * en el orden de la lista. Asigna id y orden a cada imagen.
+     * @throws ResourceNotFoundException si el producto no existe o está desactivado
+     */
+    public List<ProductImage> insertAppending(Long productId, List<ProductImage> images) {
+        lockProduct(productId);
+        if (images.isEmpty()) {
+            return images;
+        }
+        Integer maxOrden = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(orden), 0) FROM product_images WHERE product_id = ?", Integer.class, productId);
+
+        List<Object> args = new ArrayList<>(images.size() * 15);
+        List<String> rows = new ArrayList<>(images.size());
+        int orden = maxOrden == null ? 0 : maxOrden;
+        for (ProductImage image : images) {
+            image.setOrden(++orden);
+            rows.add(ROW);
+            args.add(productId);
+            args.add(image.getUrl());
+            args.add(image.getOrden());
+            args.add(image.getDescripcion());
+            args.add(image.getAncho());
+            args.add(image.getAlto());
+            addVariant(args, image.getMiniatura());
+            addVariant(args, image.getTarjeta());
+            addVariant(args, image.getDetalle());
+        }
+
+        Map<Integer, Long> idsByOrden = new HashMap<>();
+        jdbcTemplate.query(
+                "INSERT INTO product_images (" + COLUMNS + ") VALUES " + String.join(", ", rows) + " RETURNING id, orden",
+                rs -> {
+                    idsByOrden.put(rs.getInt("orden"), rs.getLong("id"));
+                },
+                args.toArray());
+        images.forEach(image -> image.setId(idsByOrden.get(image.getOrden())));
+        return images;
+    }
+
+    /**
+     * Bloquea la fila del producto hasta el fin de la transacción activa
+     * @throws ResourceNotFoundException si el producto no existe o está desactivado
+     */
+    public void lockProduct(Long productId) {
+        List<Long> locked = jdbcTemplate.queryForList(
+                "SELECT id FROM products WHERE id = ? AND deleted_at IS NULL FOR UPDATE", Long.class, productId);
+        if (locked.isEmpty()) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+        }
+    }
+
+    private static void addVariant(List<Object> args, ImageVariant variant) {
+        args.add(variant != null ? variant.getUrl() : null);
+        args.add(variant != null ? variant.getAncho() : null);
+        args.add(variant != null ? variant.getAlto() : null);
+    }
+}
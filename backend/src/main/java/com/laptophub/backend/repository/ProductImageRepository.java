@@ -2,8 +2,11 @@ package com.laptophub.backend.repository;
 
 import com.laptophub.backend.model.ProductImage;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,6 +17,19 @@ public interface ProductImageRepository extends JpaRepository<ProductImage, Long
      */
     List<ProductImage> findByProductIdOrderByOrdenAsc(Long productId);
     
+    /**
+     * Si la URL ya está registrada en algún producto (confirmación repetida de una subida directa)
+     */
+    boolean existsByUrl(String url);
+    
+    /**
+     * Imagen principal (menor orden, desempate por id) de cada producto del conjunto, en una consulta
+     */
+    @Query("SELECT img FROM ProductImage img WHERE img.product.id IN :productIds AND img.id = (" +
+           "SELECT MIN(i2.id) FROM ProductImage i2 WHERE i2.product = img.product AND i2.orden = (" +
+           "SELECT MIN(i3.orden) FROM ProductImage i3 WHERE i3.product = img.product))")
+    List<ProductImage> findMainImagesByProductIds(@Param("productIds") Collection<Long> productIds);
+    
     /**
      * Elimina todas las imágenes de un producto
      */
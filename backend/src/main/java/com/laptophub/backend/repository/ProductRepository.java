@@ -1,21 +1,42 @@
 package com.laptophub.backend.repository;
 
+import com.laptophub.backend.dto.ProductExportRowDTO;
 import com.laptophub.backend.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Page<Product> findByBrand_Nombre(String brandNombre, Pageable pageable);
     
+    /**
+     * Cursor de solo lectura para exportar el catálogo completo (activos e inactivos).
+     * Debe consumirse dentro de una transacción y cerrarse (try-with-resources).
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.laptophub.backend.dto.ProductExportRowDTO(" +
+           "p.id, p.nombre, p.descripcion, p.precio, p.stock, b.id, b.nombre, p.procesador, p.ram, " +
+           "p.almacenamiento, p.pantalla, p.gpu, p.peso, p.createdAt, p.deletedAt) " +
+           "FROM Product p LEFT JOIN p.brand b " +
+           "ORDER BY p.id")
+    Stream<ProductExportRowDTO> streamForExport();
+    
     /**
      * Bloquea el producto para evitar race conditions al actualizar stock.
      */
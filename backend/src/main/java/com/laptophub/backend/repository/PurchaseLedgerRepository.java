@@ -0,0 +1,94 @@
+package com.laptophub.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Lecturas y escrituras sobre purchase_ledger con JDBC.
+ * Participa en la transacción JPA activa, junto con el cambio de estado de la orden.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PurchaseLedgerRepository {
+
+    private static final String RECORD_ORDER =
+            "INSERT INTO purchase_ledger (user_id, product_id, created_at) " +
+            "SELECT DISTINCT o.user_id, oi.product_id, now() " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.id = ? " +
+            "ON CONFLICT (user_id, product_id) DO NOTHING";
+
+    private static final String RECORD_DELIVERED_ORDERS =
+            "INSERT INTO purchase_ledger (user_id, product_id, created_at) " +
+            "SELECT DISTINCT o.user_id, oi.product_id, now() " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.id = ANY (?) AND o.estado = 'ENTREGADO' " +
+            "ON CONFLICT (user_id, product_id) DO NOTHING";
+
+    /**
+     * Quita los pares de la orden salvo que el usuario tenga otra orden ENTREGADO con el mismo producto.
+     */
+    private static final String REMOVE_ORDER =
+            "DELETE FROM purchase_ledger pl " +
+            "USING orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.id = ? AND pl.user_id = o.user_id AND pl.product_id = oi.product_id " +
+            "AND NOT EXISTS (" +
+            "  SELECT 1 FROM orders o2 JOIN order_items oi2 ON oi2.order_id = o2.id " +
+            "  WHERE o2.user_id = o.user_id AND oi2.product_id = oi.product_id " +
+            "  AND o2.estado = 'ENTREGADO' AND o2.id <> o.id)";
+
+    private static final String BACKFILL =
+            "INSERT INTO purchase_ledger (user_id, product_id, created_at) " +
+            "SELECT o.user_id, oi.product_id, MIN(o.created_at) " +
+            "FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.estado = 'ENTREGADO' " +
+            "GROUP BY o.user_id, oi.product_id " +
+            "ON CONFLICT (user_id, product_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public boolean exists(UUID userId, Long productId) {
+        Boolean exists = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM purchase_ledger WHERE user_id = ? AND product_id = ?)",
+                Boolean.class, userId, productId);
+        return Boolean.TRUE.equals(exists);
+    }
+
+    /**
+     * Registra los pares de una orden que está pasando a ENTREGADO.
+     * No filtra por estado porque el nuevo estado todavía puede no estar escrito en la transacción.
+     */
+    public int recordOrder(Long orderId) {
+        return jdbcTemplate.update(RECORD_ORDER, orderId);
+    }
+
+    /**
+     * Registra los pares de un lote de órdenes ya actualizadas a ENTREGADO (las que no lo estén se ignoran)
+     */
+    public int recordDeliveredOrders(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update(RECORD_DELIVERED_ORDERS, (Object) orderIds.toArray(new Long[0]));
+    }
+
+    /**
+     * La propia orden se excluye del NOT EXISTS, así que puede llamarse antes o después de escribir el nuevo estado.
+     */
+    public int removeOrder(Long orderId) {
+        return jdbcTemplate.update(REMOVE_ORDER, orderId);
+    }
+
+    public boolean isEmpty() {
+        Boolean any = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM purchase_ledger)", Boolean.class);
+        return !Boolean.TRUE.equals(any);
+    }
+
+    public int backfill() {
+        return jdbcTemplate.update(BACKFILL);
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,6 +21,13 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByProduct(Product product);
     Optional<Review> findByProductAndUser(Product product, User user);
 
+    /**
+     * Rating promedio por producto: filas [productId (Long), promedio (Double)].
+     * Los productos sin reseñas no aparecen.
+     */
+    @Query("SELECT r.product.id, AVG(r.rating) FROM Review r WHERE r.product.id IN :productIds GROUP BY r.product.id")
+    List<Object[]> averageRatingByProductIds(@Param("productIds") Collection<Long> productIds);
+
     @Query("SELECT r FROM Review r WHERE r.product.id = :productId AND r.user.id = :userId")
     Optional<Review> findByProductIdAndUserId(@Param("productId") Long productId, @Param("userId") UUID userId);
 }
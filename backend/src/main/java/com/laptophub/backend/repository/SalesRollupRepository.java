@@ -0,0 +1,115 @@
+package com.laptophub.backend.repository;
+
+import com.laptophub.backend.dto.SalesRollupRowDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Lecturas y escrituras sobre sales_daily_rollups con JDBC.
+ * Participa en la transacción JPA activa: el delta de una orden confirma o revierte junto con su cambio de estado.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+
+    private static final String COUNTED_STATUSES = "('PROCESANDO', 'ENVIADO', 'ENTREGADO')";
+
+    /**
+     * Suma (signo = 1) o resta (signo = -1) los items de una orden en una sola sentencia.
+     * La clave (día de creación de la orden, producto) solo depende de la orden, así que la reversión
+     * cae siempre sobre la misma fila que la venta.
+     */
+    private static final String APPLY_ORDER_DELTA =
+            "INSERT INTO sales_daily_rollups (dia, product_id, unidades, ingresos, updated_at) " +
+            "SELECT CAST(o.created_at AS date), oi.product_id, " +
+            "       ? * SUM(oi.cantidad), ? * SUM(oi.cantidad * oi.precio_unitario), now() " +
+            "FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.id = ? " +
+            "GROUP BY CAST(o.created_at AS date), oi.product_id " +
+            "ON CONFLICT (dia, product_id) DO UPDATE SET " +
+            "unidades = sales_daily_rollups.unidades + EXCLUDED.unidades, " +
+            "ingresos = sales_daily_rollups.ingresos + EXCLUDED.ingresos, " +
+            "updated_at = EXCLUDED.updated_at";
+
+    private static final String REBUILD =
+            "INSERT INTO sales_daily_rollups (dia, product_id, unidades, ingresos, updated_at) " +
+            "SELECT CAST(o.created_at AS date), oi.product_id, " +
+            "       SUM(oi.cantidad), SUM(oi.cantidad * oi.precio_unitario), now() " +
+            "FROM orders o " +
+            "JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.estado IN " + COUNTED_STATUSES + " " +
+            "GROUP BY CAST(o.created_at AS date), oi.product_id";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int applyOrderDelta(Long orderId, int signo) {
+        return jdbcTemplate.update(APPLY_ORDER_DELTA, signo, signo, orderId);
+    }
+
+    /**
+     * Recalcula la tabla completa desde orders/order_items. Devuelve las filas generadas.
+     */
+    public int rebuild() {
+        // Bloquea los deltas concurrentes hasta el commit para que no se pierdan ni se cuenten dos veces
+        jdbcTemplate.execute("LOCK TABLE sales_daily_rollups IN EXCLUSIVE MODE");
+        jdbcTemplate.update("DELETE FROM sales_daily_rollups");
+        return jdbcTemplate.update(REBUILD);
+    }
+
+    public List<SalesRollupRowDTO> sumByDay(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT r.dia, SUM(r.unidades) AS unidades, SUM(r.ingresos) AS ingresos " +
+                "FROM sales_daily_rollups r WHERE r.dia BETWEEN ? AND ? " +
+                "GROUP BY r.dia HAVING SUM(r.unidades) <> 0 ORDER BY r.dia",
+                (rs, rowNum) -> SalesRollupRowDTO.builder()
+                        .dia(rs.getDate("dia").toLocalDate())
+                        .unidades(rs.getLong("unidades"))
+                        .ingresos(rs.getBigDecimal("ingresos"))
+                        .build(),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    public List<SalesRollupRowDTO> sumByProduct(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT r.product_id, p.nombre, SUM(r.unidades) AS unidades, SUM(r.ingresos) AS ingresos " +
+                "FROM sales_daily_rollups r LEFT JOIN products p ON p.id = r.product_id " +
+                "WHERE r.dia BETWEEN ? AND ? " +
+                "GROUP BY r.product_id, p.nombre HAVING SUM(r.unidades) <> 0 ORDER BY ingresos DESC, r.product_id",
+                (rs, rowNum) -> SalesRollupRowDTO.builder()
+                        .productId(rs.getLong("product_id"))
+                        .productNombre(rs.getString("nombre"))
+                        .unidades(rs.getLong("unidades"))
+                        .ingresos(rs.getBigDecimal("ingresos"))
+                        .build(),
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    /**
+     * Agrupa por la marca actual de cada producto (brand_id = 0 para productos sin marca)
+     */
+    public List<SalesRollupRowDTO> sumByBrand(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.query(
+                "SELECT COALESCE(p.brand_id, 0) AS brand_id, b.nombre, SUM(r.unidades) AS unidades, SUM(r.ingresos) AS ingresos " +
+                "FROM sales_daily_rollups r " +
+                "LEFT JOIN products p ON p.id = r.product_id " +
+                "LEFT JOIN brands b ON b.id = p.brand_id " +
+                "WHERE r.dia BETWEEN ? AND ? " +
+                "GROUP BY COALESCE(p.brand_id, 0), b.nombre HAVING SUM(r.unidades) <> 0 ORDER BY ingresos DESC, brand_id",
+                (rs, rowNum) -> {
+                    long brandId = rs.getLong("brand_id");
+                    return SalesRollupRowDTO.builder()
+                            .brandId(brandId == 0 ? null : brandId)
+                            .marca(brandId == 0 ? "Sin marca" : rs.getString("nombre"))
+                            .unidades(rs.getLong("unidades"))
+                            .ingresos(rs.getBigDecimal("ingresos"))
+                            .build();
+                },
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+}
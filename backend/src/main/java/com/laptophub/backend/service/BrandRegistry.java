@@ -0,0 +1,120 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.BrandResponseDTO;
+import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diccionario en memoria id → BrandResponseDTO de todas las marcas (activas e inactivas).
+ * Las marcas son pocas y cambian poco: los productos ya no cargan la marca desde la base de datos,
+ * solo su brand_id, y el DTO se toma de aquí (la misma instancia para todos los productos).
+ *
+ * El mapa es inmutable y se reemplaza completo en cada cambio, así las lecturas no necesitan bloqueo.
+ * BrandService publica cada escritura al hacer commit; la recarga periódica recoge los cambios
+ * hechos por otras instancias.
+ */
+@Service
+@RequiredArgsConstructor
+public class BrandRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BrandRegistry.class);
+
+    private final BrandRepository brandRepository;
+
+    private volatile Map<Long, BrandResponseDTO> snapshot;
+
+    /**
+     * DTO de la marca del producto, sin inicializar el proxy de la marca
+     */
+    public BrandResponseDTO forProduct(Product product) {
+        return product.getBrand() == null ? null : get(product.getBrand().getId());
+    }
+
+    /**
+     * DTO de la marca, o null si no existe.
+     * Una marca ausente del diccionario (creada fuera de BrandService) se busca una vez y se agrega.
+     */
+    @SuppressWarnings("null")
+    public BrandResponseDTO get(Long brandId) {
+        if (brandId == null) {
+            return null;
+        }
+        BrandResponseDTO brand = snapshot().get(brandId);
+        if (brand != null) {
+            return brand;
+        }
+        return brandRepository.findById(brandId)
+                .map(found -> {
+                    BrandResponseDTO dto = DTOMapper.toBrandResponse(found);
+                    publish(dto);
+                    return dto;
+                })
+                .orElse(null);
+    }
+
+    public Collection<BrandResponseDTO> all() {
+        return snapshot().values();
+    }
+
+    /**
+     * Publica la marca cuando la transacción actual haga commit, para no exponer cambios que se reviertan
+     */
+    public void publishAfterCommit(BrandResponseDTO brand) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(brand);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(brand);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${app.brands.registry-refresh-ms:60000}",
+            initialDelayString = "${app.brands.registry-refresh-ms:60000}")
+    public synchronized void reload() {
+        Map<Long, BrandResponseDTO> brands = new HashMap<>();
+        for (Brand brand : brandRepository.findAll()) {
+            brands.put(brand.getId(), DTOMapper.toBrandResponse(brand));
+        }
+        snapshot = Map.copyOf(brands);
+        logger.debug("[BrandRegistry] Diccionario de marcas recargado: {} marcas", brands.size());
+    }
+
+    private synchronized void publish(BrandResponseDTO brand) {
+        Map<Long, BrandResponseDTO> next = new HashMap<>(snapshot());
+        next.put(brand.getId(), brand);
+        snapshot = Map.copyOf(next);
+    }
+
+    private Map<Long, BrandResponseDTO> snapshot() {
+        Map<Long, BrandResponseDTO> current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+}
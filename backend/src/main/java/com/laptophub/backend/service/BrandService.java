@@ -3,6 +3,8 @@ package com.laptophub.backend.service;
 import com.laptophub.backend.dto.BrandCreateDTO;
 import com.laptophub.backend.dto.BrandResponseDTO;
 import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.dto.DirectUploadConfirmDTO;
+import com.laptophub.backend.dto.SignedUploadDTO;
 import com.laptophub.backend.exception.ConflictException;
 import com.laptophub.backend.exception.ResourceNotFoundException;
 import com.laptophub.backend.model.Brand;
@@ -21,8 +23,13 @@ import java.io.IOException;
 @RequiredArgsConstructor
 public class BrandService {
     
+    private static final String BRANDS_FOLDER = "laptophub/brands";
+    
     private final BrandRepository brandRepository;
     private final CloudinaryService cloudinaryService;
+    private final BrandRegistry brandRegistry;
+    private final DirectUploadService directUploadService;
+    private final ImageUploadLimits imageUploadLimits;
     
     @Transactional(readOnly = true)
     public Page<BrandResponseDTO> findAll(@NonNull Pageable pageable) {
@@ -66,8 +73,7 @@ public class BrandService {
                 .imageUrl(dto.getImageUrl())
                 .build();
         
-        Brand saved = brandRepository.save(brand);
-        return DTOMapper.toBrandResponse(saved);
+        return publish(brandRepository.save(brand));
     }
     
     @Transactional
@@ -91,8 +97,7 @@ public class BrandService {
             brand.setImageUrl(dto.getImageUrl());
         }
         
-        Brand saved = brandRepository.save(brand);
-        return DTOMapper.toBrandResponse(saved);
+        return publish(brandRepository.save(brand));
     }
     
     @Transactional
@@ -104,7 +109,7 @@ public class BrandService {
             throw new ConflictException("La marca ya está desactivada");
         }
         brand.setDeletedAt(java.time.LocalDateTime.now());
-        brandRepository.save(brand);
+        publish(brandRepository.save(brand));
     }
 
     @Transactional
@@ -116,7 +121,7 @@ public class BrandService {
             throw new ConflictException("La marca ya está activa");
         }
         brand.setDeletedAt(null);
-        return DTOMapper.toBrandResponse(brandRepository.save(brand));
+        return publish(brandRepository.save(brand));
     }
 
     @Transactional
@@ -124,14 +129,56 @@ public class BrandService {
     public BrandResponseDTO uploadImage(Long id, MultipartFile file) throws IOException {
         Brand brand = brandRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Marca no encontrada con id: " + id));
+        imageUploadLimits.checkImage(file);
 
         // Eliminar imagen anterior de Cloudinary si existe
         if (brand.getImageUrl() != null && !brand.getImageUrl().isBlank()) {
             cloudinaryService.deleteImage(brand.getImageUrl());
         }
 
-        String newUrl = cloudinaryService.uploadImage(file, "laptophub/brands");
+        String newUrl = cloudinaryService.uploadImage(file, BRANDS_FOLDER);
         brand.setImageUrl(newUrl);
-        return DTOMapper.toBrandResponse(brandRepository.save(brand));
+        return publish(brandRepository.save(brand));
+    }
+
+    /**
+     * Parámetros firmados para que el navegador suba la imagen de la marca directamente a Cloudinary
+     */
+    @Transactional(readOnly = true)
+    @SuppressWarnings("null")
+    public SignedUploadDTO imageUploadSignature(Long id) {
+        if (!brandRepository.existsById(id)) {
+            throw new ResourceNotFoundException("Marca no encontrada con id: " + id);
+        }
+        return directUploadService.sign(BRANDS_FOLDER, false);
+    }
+
+    /**
+     * Registra como imagen de la marca la subida directa a Cloudinary, reemplazando la anterior
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public BrandResponseDTO confirmImage(Long id, DirectUploadConfirmDTO dto) throws IOException {
+        Brand brand = brandRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Marca no encontrada con id: " + id));
+        String newUrl = directUploadService.verify(dto, BRANDS_FOLDER);
+        if (newUrl.equals(brand.getImageUrl())) {
+            return DTOMapper.toBrandResponse(brand);
+        }
+
+        if (brand.getImageUrl() != null && !brand.getImageUrl().isBlank()) {
+            cloudinaryService.deleteImage(brand.getImageUrl());
+        }
+        brand.setImageUrl(newUrl);
+        return publish(brandRepository.save(brand));
+    }
+
+    /**
+     * Actualiza BrandRegistry con la marca guardada cuando la transacción haga commit
+     */
+    private BrandResponseDTO publish(Brand brand) {
+        BrandResponseDTO dto = DTOMapper.toBrandResponse(brand);
+        brandRegistry.publishAfterCommit(dto);
+        return dto;
     }
-}
\ No newline at end of file
+}
@@ -2,10 +2,9 @@ package com.laptophub.backend.service;
 
 import com.laptophub.backend.dto.*;
 import com.laptophub.backend.model.*;
+import com.laptophub.backend.repository.CartItemBatchRepository;
 import com.laptophub.backend.repository.CartItemRepository;
 import com.laptophub.backend.repository.CartRepository;
-import com.laptophub.backend.repository.ProductImageRepository;
-import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.exception.ResourceNotFoundException;
 import com.laptophub.backend.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
@@ -14,7 +13,11 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -33,10 +36,9 @@ public class CartService {
     
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
+    private final CartItemBatchRepository cartItemBatchRepository;
     private final UserService userService;
-    private final ProductService productService;
-    private final ProductImageRepository productImageRepository;
-    private final ReviewRepository reviewRepository;
+    private final BrandRegistry brandRegistry;
     
     @Transactional
     @SuppressWarnings("null")
@@ -54,6 +56,14 @@ public class CartService {
         return cartRepository.save(newCart);
     }
     
+    /**
+     * Carrito del usuario sin hidratar sus items; solo lo crea (camino lento) si todavía no existe
+     */
+    private Cart getOrCreateCartWithoutItems(UUID userId) {
+        return cartRepository.findByActiveUserId(userId)
+                .orElseGet(() -> getOrCreateCart(userId));
+    }
+    
     @Transactional
     @SuppressWarnings("null")
     public Cart addToCart(UUID userId, Long productId, Integer cantidad) {
@@ -61,25 +71,12 @@ public class CartService {
             throw new ValidationException("La cantidad debe ser mayor a 0");
         }
         
-        Cart cart = getOrCreateCart(userId);
-        Product product = productService.findById(productId);
+        Cart cart = getOrCreateCartWithoutItems(userId);
         
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst();
-        
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setCantidad(item.getCantidad() + cantidad);
-            cartItemRepository.save(item);
-        } else {
-            CartItem newItem = CartItem.builder()
-                    .cart(cart)
-                    .product(product)
-                    .cantidad(cantidad)
-                    .build();
-            CartItem savedItem = cartItemRepository.save(newItem);
-            cart.getItems().add(savedItem);
+        // INSERT ... ON CONFLICT: crea la línea o suma la cantidad sin leer los items del carrito
+        int affected = cartItemRepository.upsertCantidad(cart.getId(), productId, cantidad);
+        if (affected == 0) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
         }
         
         return cart;
@@ -87,43 +84,38 @@ public class CartService {
     
     @Transactional
     @SuppressWarnings("null")
-    public CartItem updateQuantity(Long cartItemId, Integer newQuantity) {
+    public void updateQuantity(Long cartItemId, Integer newQuantity) {
         if (newQuantity <= 0) {
             throw new ValidationException("La cantidad debe ser mayor a 0. Use removeFromCart para eliminar.");
         }
         
-        CartItem item = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Item de carrito no encontrado con id: " + cartItemId));
-        
-        item.setCantidad(newQuantity);
-        return cartItemRepository.save(item);
+        if (cartItemRepository.updateCantidad(cartItemId, newQuantity) == 0) {
+            throw new ResourceNotFoundException("Item de carrito no encontrado con id: " + cartItemId);
+        }
     }
     
     @Transactional
     @SuppressWarnings("null")
     public void removeFromCart(Long cartItemId) {
-        CartItem item = cartItemRepository.findById(cartItemId)
-                .orElseThrow(() -> new ResourceNotFoundException("Item de carrito no encontrado con id: " + cartItemId));
-        cartItemRepository.delete(item);
+        if (cartItemRepository.deleteByIdReturningCount(cartItemId) == 0) {
+            throw new ResourceNotFoundException("Item de carrito no encontrado con id: " + cartItemId);
+        }
     }
     
     @Transactional
     @SuppressWarnings("null")
     public void clearCart(UUID userId) {
-        Cart cart = getOrCreateCart(userId);
-        cartItemRepository.deleteAll(cart.getItems());
+        Cart cart = getOrCreateCartWithoutItems(userId);
+        cartItemRepository.deleteByCartId(cart.getId());
     }
     
     @Transactional(readOnly = true)
     @SuppressWarnings("null")
     public BigDecimal calculateTotal(Long cartId) {
-        Cart cart = cartRepository.findById(cartId)
-                .orElseThrow(() -> new ResourceNotFoundException("Carrito no encontrado con id: " + cartId));
-        
-        return cart.getItems().stream()
-                .map(item -> item.getProduct().getPrecio()
-                        .multiply(BigDecimal.valueOf(item.getCantidad())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (!cartRepository.existsById(cartId)) {
+            throw new ResourceNotFoundException("Carrito no encontrado con id: " + cartId);
+        }
+        return cartItemRepository.sumTotalByCartId(cartId);
     }
     
     @Transactional
@@ -131,11 +123,68 @@ public class CartService {
         return getOrCreateCart(userId);
     }
     
+    /**
+     * Aplica un lote de operaciones ADD/SET/REMOVE en una sola transacción (todo o nada).
+     * Las operaciones se colapsan por producto en el orden recibido, de modo que cada producto
+     * termina en una única escritura; luego se ejecutan como JDBC batch ordenadas por productId
+     * para que dos lotes concurrentes bloqueen filas en el mismo orden.
+     */
+    @Transactional
+    @SuppressWarnings("null")
+    public CartResponseDTO applyBatch(UUID userId, CartBatchDTO dto) {
+        Map<Long, Integer> adds = new TreeMap<>();
+        Map<Long, Integer> sets = new TreeMap<>();
+        Set<Long> removes = new TreeSet<>();
+
+        for (CartOperationDTO op : dto.getOperaciones()) {
+            Long productId = op.getProductId();
+            if (op.getTipo() != CartOperationDTO.Tipo.REMOVE && op.getCantidad() == null) {
+                throw new ValidationException("La cantidad es obligatoria para " + op.getTipo() + " del producto " + productId);
+            }
+            switch (op.getTipo()) {
+                case ADD -> {
+                    if (removes.remove(productId)) {
+                        sets.put(productId, op.getCantidad());
+                    } else if (sets.containsKey(productId)) {
+                        sets.merge(productId, op.getCantidad(), Integer::sum);
+                    } else {
+                        adds.merge(productId, op.getCantidad(), Integer::sum);
+                    }
+                }
+                case SET -> {
+                    removes.remove(productId);
+                    adds.remove(productId);
+                    sets.put(productId, op.getCantidad());
+                }
+                case REMOVE -> {
+                    adds.remove(productId);
+                    sets.remove(productId);
+                    removes.add(productId);
+                }
+            }
+        }
+
+        Set<Long> upserted = new TreeSet<>(adds.keySet());
+        upserted.addAll(sets.keySet());
+        List<Long> activeIds = cartItemBatchRepository.findActiveProductIds(upserted);
+        if (activeIds.size() != upserted.size()) {
+            upserted.removeAll(activeIds);
+            throw new ResourceNotFoundException("Productos no encontrados o inactivos: " + upserted);
+        }
+
+        Cart cart = getOrCreateCartWithoutItems(userId);
+        cartItemBatchRepository.deleteLines(cart.getId(), removes);
+        cartItemBatchRepository.setQuantities(cart.getId(), sets);
+        cartItemBatchRepository.addQuantities(cart.getId(), adds);
+
+        return mapCartToDTO(cart);
+    }
+    
     // Métodos que retornan DTOs
     
     @Transactional
     public CartResponseDTO getCartByUserIdDTO(UUID userId) {
-        Cart cart = getOrCreateCart(userId);
+        Cart cart = getOrCreateCartWithoutItems(userId);
         return mapCartToDTO(cart);
     }
     
@@ -147,32 +196,26 @@ public class CartService {
     
     @Transactional
     public CartResponseDTO updateQuantityDTO(Long cartItemId, UpdateCartItemDTO dto) {
-        CartItem item = updateQuantity(cartItemId, dto.getCantidad());
-        Cart cart = item.getCart();
+        updateQuantity(cartItemId, dto.getCantidad());
+        Cart cart = cartRepository.findByCartItemId(cartItemId)
+                .orElseThrow(() -> new ResourceNotFoundException("Item de carrito no encontrado con id: " + cartItemId));
         return mapCartToDTO(cart);
     }
     
+    /**
+     * Arma la respuesta con una sola consulta de filas; el total se calcula sobre esas mismas filas.
+     */
     private CartResponseDTO mapCartToDTO(Cart cart) {
-        List<CartItemResponseDTO> items = cart.getItems().stream()
-                .map(this::mapCartItemToDTO)
+        List<CartLineDTO> lines = cartItemRepository.findCartLines(cart.getId());
+        
+        List<CartItemResponseDTO> items = lines.stream()
+                .map(line -> DTOMapper.toCartItemResponse(line, brandRegistry.get(line.getBrandId())))
                 .collect(Collectors.toList());
         
-        BigDecimal total = calculateTotal(cart.getId());
+        BigDecimal total = lines.stream()
+                .map(line -> line.getPrecio().multiply(BigDecimal.valueOf(line.getCantidad())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
         
         return DTOMapper.toCartResponse(cart, items, total);
     }
-    
-    private CartItemResponseDTO mapCartItemToDTO(CartItem item) {
-        Product product = item.getProduct();
-        List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
-        ProductImage mainImage = images.isEmpty() ? null : images.get(0);
-        
-        List<Review> reviews = reviewRepository.findByProduct(product);
-        Double avgRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        
-        return DTOMapper.toCartItemResponse(item, mainImage, avgRating);
-    }
 }
@@ -0,0 +1,146 @@
+package com.laptophub.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Versión del catálogo (productos, imágenes, marcas y reseñas) usada para los ETag de los GET públicos.
+ *
+ * - Vive en la tabla catalog_version, compartida por todas las instancias: una escritura en una
+ *   instancia invalida los ETag de las demás.
+ * - Cada instancia guarda el último valor leído y lo vuelve a leer como mucho cada
+ *   app.catalog.version-check-ms, así que la mayoría de los GET no consultan la base de datos.
+ *   Una instancia ve las escrituras de otra con ese retraso máximo; las propias, en el momento.
+ * - Se lee y se incrementa siempre en el primario, en una transacción propia.
+ */
+@Service
+public class CatalogVersionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogVersionService.class);
+
+    private static final Object TX_KEY = new Object();
+
+    private static final String READ = "SELECT version FROM catalog_version WHERE id = 1";
+
+    /**
+     * Crea la fila si no existe (esquema generado por Hibernate en tests) con milisegundos epoch como valor inicial
+     */
+    private static final String INCREMENT =
+            "INSERT INTO catalog_version (id, version) " +
+            "VALUES (1, (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT) " +
+            "ON CONFLICT (id) DO UPDATE SET version = catalog_version.version + 1 " +
+            "RETURNING version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate ownTransaction;
+    private final long checkMs;
+
+    private volatile long version = -1;
+    private volatile long checkedAt;
+    private volatile long changedAt;
+
+    public CatalogVersionService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${app.catalog.version-check-ms:1000}") long checkMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ownTransaction = new TransactionTemplate(transactionManager);
+        this.ownTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.checkMs = checkMs;
+    }
+
+    public String currentVersion() {
+        if (version < 0 || System.currentTimeMillis() - checkedAt >= checkMs) {
+            reload();
+        }
+        return Long.toString(version);
+    }
+
+    /**
+     * Cuándo esta instancia vio por primera vez la versión actual (su propio incremento o una lectura de la tabla).
+     * Las escrituras de otras instancias se ven hasta version-check-ms después de confirmarse.
+     */
+    public long lastChangeMillis() {
+        return changedAt;
+    }
+
+    /**
+     * Incrementa la versión cuando la transacción actual haga commit (una sola vez por transacción).
+     * Si se incrementara antes, un GET concurrente podría guardar datos viejos bajo la versión nueva.
+     * Fuera de una transacción incrementa en el momento.
+     */
+    public void bumpAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(TX_KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(TX_KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment();
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(TX_KEY);
+            }
+        });
+    }
+
+    private void increment() {
+        try {
+            Long updated = ownTransaction.execute(status -> jdbcTemplate.queryForObject(INCREMENT, Long.class));
+            if (updated != null) {
+                store(updated);
+            }
+        } catch (RuntimeException e) {
+            // El cambio ya está confirmado: sin la versión nueva se sirven ETag viejos hasta la próxima escritura
+            logger.error("[CatalogVersionService] No se pudo incrementar la versión del catálogo: ", e);
+        }
+    }
+
+    private synchronized void reload() {
+        if (version >= 0 && System.currentTimeMillis() - checkedAt < checkMs) {
+            return;
+        }
+        try {
+            List<Long> rows = ownTransaction.execute(status -> jdbcTemplate.queryForList(READ, Long.class));
+            if (rows == null || rows.isEmpty()) {
+                // Sin fila todavía (esquema recién creado): la primera lectura la crea
+                increment();
+                return;
+            }
+            store(rows.get(0));
+        } catch (RuntimeException e) {
+            if (version < 0) {
+                throw e;
+            }
+            // Se sigue usando el último valor conocido hasta el próximo intento
+            logger.warn("[CatalogVersionService] No se pudo leer la versión del catálogo: {}", e.getMessage());
+            checkedAt = System.currentTimeMillis();
+        }
+    }
+
+    private synchronized void store(long value) {
+        // Nunca retrocede: un incremento propio puede terminar antes que una lectura más antigua
+        long now = System.currentTimeMillis();
+        if (value > version) {
+            version = value;
+            changedAt = now;
+        }
+        checkedAt = now;
+    }
+}
@@ -0,0 +1,235 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.CheckoutQueueDTO;
+import com.laptophub.backend.exception.TooManyRequestsException;
+import com.laptophub.backend.repository.CartItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Admisión de checkouts por producto, antes de abrir la transacción de la orden.
+ *
+ * - Cada producto tiene un carril con un número fijo de checkouts en curso (permits-per-product)
+ *   y una cola acotada (max-queue). Quien no entra en la cola recibe 429 con Retry-After al instante,
+ *   sin ocupar una conexión ni esperar el bloqueo de la fila del producto.
+ * - Los carriles de un carrito se toman en orden de id para que dos carritos no se bloqueen entre sí.
+ * - Un producto sin competencia obtiene su permiso al primer intento: el checkout no espera.
+ * - Con InventoryReservationEngine activo no se aplica: la reserva es un compareAndSet sin bloqueo de fila,
+ *   y un turno por producto volvería a serializar los checkouts que el motor permite en paralelo.
+ * - Los carriles sin uso durante idle-evict-ms se descartan (con sus contadores).
+ *
+ * Las colas son locales a la instancia; con varias instancias cada una acota sus propios hilos.
+ */
+@Service
+public class CheckoutAdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutAdmissionService.class);
+
+    private final CartItemRepository cartItemRepository;
+    private final InventoryReservationEngine inventoryReservationEngine;
+    private final boolean enabled;
+    private final int permitsPerProduct;
+    private final int maxQueue;
+    private final long maxWaitMs;
+    private final long idleEvictMs;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    public CheckoutAdmissionService(CartItemRepository cartItemRepository,
+                                    InventoryReservationEngine inventoryReservationEngine,
+                                    @Value("${app.checkout.admission.enabled:true}") boolean enabled,
+                                    @Value("${app.checkout.admission.permits-per-product:1}") int permitsPerProduct,
+                                    @Value("${app.checkout.admission.max-queue:20}") int maxQueue,
+                                    @Value("${app.checkout.admission.max-wait-ms:3000}") long maxWaitMs,
+                                    @Value("${app.checkout.admission.idle-evict-ms:60000}") long idleEvictMs) {
+        this.cartItemRepository = cartItemRepository;
+        this.inventoryReservationEngine = inventoryReservationEngine;
+        this.enabled = enabled;
+        this.permitsPerProduct = Math.max(1, permitsPerProduct);
+        this.maxQueue = Math.max(0, maxQueue);
+        this.maxWaitMs = Math.max(0, maxWaitMs);
+        this.idleEvictMs = idleEvictMs;
+        if (enabled && inventoryReservationEngine.isEnabled()) {
+            logger.info("[CheckoutAdmissionService] Motor de reservas activo: la admisión por producto no se aplica");
+        }
+    }
+
+    /**
+     * Ejecuta el checkout del carrito del usuario tras obtener turno en cada producto del carrito.
+     * @throws TooManyRequestsException si la cola de algún producto está llena o el turno no llega a tiempo
+     */
+    public <T> T admit(UUID userId, Supplier<T> checkout) {
+        if (!enabled || inventoryReservationEngine.isEnabled()) {
+            return checkout.get();
+        }
+        return admitProducts(cartItemRepository.findProductIdsByUserId(userId), checkout);
+    }
+
+    /**
+     * Ejecuta la operación tras obtener turno en cada uno de los productos indicados
+     */
+    public <T> T admitProducts(Collection<Long> productIds, Supplier<T> checkout) {
+        List<Lane> acquired = new ArrayList<>(productIds.size());
+        try {
+            for (Long productId : new TreeSet<>(productIds)) {
+                Lane lane = checkOut(productId);
+                try {
+                    enter(lane);
+                } catch (RuntimeException e) {
+                    checkIn(lane);
+                    throw e;
+                }
+                acquired.add(lane);
+            }
+            long start = System.nanoTime();
+            try {
+                return checkout.get();
+            } finally {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                acquired.forEach(lane -> lane.recordHold(elapsedMs));
+            }
+        } finally {
+            for (int i = acquired.size() - 1; i >= 0; i--) {
+                acquired.get(i).permits.release();
+                checkIn(acquired.get(i));
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.checkout.admission.idle-evict-ms:60000}")
+    public void evictIdle() {
+        evictIdle(idleEvictMs);
+    }
+
+    /**
+     * Descarta los carriles sin checkouts en curso ni en cola cuyo último uso fue hace más de idleMs
+     * @return carriles descartados
+     */
+    public int evictIdle(long idleMs) {
+        long now = System.currentTimeMillis();
+        int before = lanes.size();
+        for (Long productId : lanes.keySet()) {
+            lanes.computeIfPresent(productId, (id, lane) ->
+                    lane.users == 0 && now - lane.lastUsedAt >= idleMs ? null : lane);
+        }
+        int evicted = before - lanes.size();
+        if (evicted > 0) {
+            logger.debug("[CheckoutAdmissionService] {} carriles inactivos descartados", evicted);
+        }
+        return evicted;
+    }
+
+    /**
+     * Estado de los carriles por producto, de mayor a menor cola
+     */
+    public List<CheckoutQueueDTO> snapshot() {
+        return lanes.values().stream()
+                .map(lane -> CheckoutQueueDTO.builder()
+                        .productId(lane.productId)
+                        .enCola(lane.waiting.get())
+                        .enCurso(permitsPerProduct - lane.permits.availablePermits())
+                        .admitidos(lane.admitted.get())
+                        .rechazados(lane.rejected.get())
+                        .duracionPromedioMs(lane.avgHoldMs)
+                        .build())
+                .sorted(Comparator.comparingInt(CheckoutQueueDTO::getEnCola).reversed()
+                        .thenComparing(Comparator.comparingLong(CheckoutQueueDTO::getRechazados).reversed()))
+                .toList();
+    }
+
+    /**
+     * Carril del producto, marcado en uso. Se cuenta dentro de la operación atómica del mapa:
+     * un carril en uso nunca se descarta, así que dos checkouts del mismo producto no quedan en carriles distintos.
+     */
+    private Lane checkOut(Long productId) {
+        return lanes.compute(productId, (id, lane) -> {
+            Lane current = lane != null ? lane : new Lane(id);
+            current.users++;
+            return current;
+        });
+    }
+
+    private void checkIn(Lane lane) {
+        lanes.computeIfPresent(lane.productId, (id, current) -> {
+            current.users--;
+            current.lastUsedAt = System.currentTimeMillis();
+            return current;
+        });
+    }
+
+    private void enter(Lane lane) {
+        // Sin nadie esperando se entra directo; si hay cola se respeta el orden de llegada
+        if (!lane.permits.hasQueuedThreads() && lane.permits.tryAcquire()) {
+            lane.admitted.incrementAndGet();
+            return;
+        }
+        if (lane.waiting.incrementAndGet() > maxQueue) {
+            lane.waiting.decrementAndGet();
+            throw reject(lane, "cola llena");
+        }
+        boolean acquired;
+        try {
+            acquired = lane.permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            lane.waiting.decrementAndGet();
+        }
+        if (!acquired) {
+            throw reject(lane, "tiempo de espera agotado");
+        }
+        lane.admitted.incrementAndGet();
+    }
+
+    private TooManyRequestsException reject(Lane lane, String reason) {
+        lane.rejected.incrementAndGet();
+        // Lo que tardaría en vaciarse la cola actual al ritmo medio de checkouts del producto
+        long drainMs = (lane.waiting.get() + 1L) * Math.max(lane.avgHoldMs, 100L) / permitsPerProduct;
+        long retryAfterSeconds = Math.max(1L, (drainMs + 999L) / 1000L);
+        logger.debug("[CheckoutAdmissionService] Checkout rechazado para producto {} ({}, {} en cola)",
+                lane.productId, reason, lane.waiting.get());
+        return new TooManyRequestsException(
+                "Demasiados checkouts en curso para el producto " + lane.productId + ". Intenta de nuevo en unos segundos",
+                retryAfterSeconds);
+    }
+
+    private final class Lane {
+        private final Long productId;
+        private final Semaphore permits = new Semaphore(permitsPerProduct, true);
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicLong admitted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile long avgHoldMs;
+        // Solo se modifican dentro de compute/computeIfPresent sobre la clave del carril
+        private int users;
+        private long lastUsedAt = System.currentTimeMillis();
+
+        private Lane(Long productId) {
+            this.productId = productId;
+        }
+
+        private void recordHold(long elapsedMs) {
+            // Media móvil exponencial (1/8); las carreras entre hilos solo pierden alguna muestra
+            long current = avgHoldMs;
+            avgHoldMs = current == 0 ? elapsedMs : current + (elapsedMs - current) / 8;
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package com.laptophub.backend.service;
 
 import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
 import com.cloudinary.utils.ObjectUtils;
+import com.laptophub.backend.dto.SignedUploadDTO;
+import com.laptophub.backend.model.ImageVariantSpec;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
+@Profile("!simulated")
 public class CloudinaryService {
 
     private final Cloudinary cloudinary;
@@ -30,6 +41,77 @@ public class CloudinaryService {
         return (String) uploadResult.get("secure_url");
     }
 
+    /**
+     * Sube una imagen de producto y genera en ese momento sus variantes (eager), para que la primera
+     * visita a un listado no espere a que Cloudinary las calcule.
+     */
+    public UploadedImage uploadProductImage(MultipartFile file, String folder) throws IOException {
+        List<Transformation> eager = Arrays.stream(ImageVariantSpec.values())
+                .map(spec -> new Transformation().rawTransformation(spec.transformation()))
+                .toList();
+        @SuppressWarnings("unchecked")
+        Map<String, Object> uploadResult = cloudinary.uploader().upload(
+                file.getBytes(),
+                ObjectUtils.asMap(
+                        "folder", folder,
+                        "resource_type", "auto",
+                        "eager", eager
+                )
+        );
+        return new UploadedImage(
+                (String) uploadResult.get("secure_url"),
+                asInteger(uploadResult.get("width")),
+                asInteger(uploadResult.get("height")));
+    }
+
+    /**
+     * Firma los parámetros de una subida directa desde el navegador: los bytes no pasan por el backend.
+     * Cloudinary rechaza la subida si el navegador cambia folder o eager, o si la firma tiene más de una hora.
+     * @param eager transformaciones a generar al subir separadas por "|", o null
+     */
+    public SignedUploadDTO signUpload(String folder, String eager) {
+        long timestamp = Instant.now().getEpochSecond();
+        Map<String, Object> params = new HashMap<>();
+        params.put("timestamp", timestamp);
+        params.put("folder", folder);
+        if (eager != null) {
+            params.put("eager", eager);
+        }
+        return SignedUploadDTO.builder()
+                .uploadUrl("https://api.cloudinary.com/v1_1/" + cloudinary.config.cloudName + "/image/upload")
+                .apiKey(cloudinary.config.apiKey)
+                .timestamp(timestamp)
+                .folder(folder)
+                .eager(eager)
+                .signature(sign(params))
+                .build();
+    }
+
+    /**
+     * Comprueba la firma que Cloudinary incluye en la respuesta de una subida (sobre public_id y version),
+     * para que no se pueda registrar un recurso que no subió alguien con parámetros firmados por nosotros.
+     */
+    public boolean isValidUploadResponse(String publicId, long version, String signature) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("public_id", publicId);
+        params.put("version", version);
+        return MessageDigest.isEqual(
+                sign(params).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * URL de entrega de un recurso de nuestro cloud, con el mismo formato que secure_url
+     */
+    public String deliveryUrl(String publicId, long version, String format) {
+        return "https://res.cloudinary.com/" + cloudinary.config.cloudName + "/image/upload/v"
+                + version + "/" + publicId + "." + format;
+    }
+
+    protected String sign(Map<String, Object> params) {
+        return cloudinary.apiSignRequest(params, cloudinary.config.apiSecret);
+    }
+
     public void deleteImage(String imageUrl) throws IOException {
         String publicId = extractPublicIdFromUrl(imageUrl);
         if (publicId != null) {
@@ -68,6 +150,10 @@ public class CloudinaryService {
         }
     }
 
+    private static Integer asInteger(Object value) {
+        return value instanceof Number number ? number.intValue() : null;
+    }
+
     private boolean isAllDigits(String value) {
         for (int i = 0; i < value.length(); i++) {
             if (!Character.isDigit(value.charAt(i))) {
@@ -0,0 +1,133 @@
+package com.laptophub.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.dto.OrderExportRowDTO;
+import com.laptophub.backend.dto.ProductExportRowDTO;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.repository.OrderItemRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Exportación de órdenes y productos en CSV o JSONL con memoria constante.
+ *
+ * - Las filas salen de un cursor del servidor (Stream con fetch size y hint de solo lectura)
+ * - Son proyecciones DTO, así que no se acumulan entidades en el contexto de persistencia
+ * - Cada fila se escribe directo al Writer de la respuesta y se hace flush cada FLUSH_EVERY filas
+ */
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class DataExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataExportService.class);
+
+    private static final int FLUSH_EVERY = 1000;
+
+    private static final List<String> ORDER_COLUMNS = List.of(
+            "orderId", "createdAt", "estado", "userId", "email", "total", "pagoEstado",
+            "orderItemId", "productId", "productNombre", "cantidad", "precioUnitario");
+
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+            "id", "nombre", "descripcion", "precio", "stock", "brandId", "marca", "procesador",
+            "ram", "almacenamiento", "pantalla", "gpu", "peso", "createdAt", "deletedAt");
+
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Valida el formato solicitado y devuelve su Content-Type.
+     * Se llama antes de escribir la respuesta para que un formato inválido siga siendo un 400.
+     */
+    public String contentType(String format) {
+        return switch (normalize(format)) {
+            case "csv" -> "text/csv; charset=UTF-8";
+            case "jsonl" -> "application/x-ndjson; charset=UTF-8";
+            default -> throw new ValidationException("Formato de exportación no soportado: " + format + " (usa csv o jsonl)");
+        };
+    }
+
+    /**
+     * Exporta todas las órdenes, una fila por item, ordenadas por orden e item
+     */
+    @Transactional(readOnly = true)
+    public long exportOrders(Writer writer, String format) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        try (Stream<OrderExportRowDTO> stream = orderItemRepository.streamForExport()) {
+            rows = write(stream, writer, normalize(format), ORDER_COLUMNS, row -> new Object[]{
+                    row.getOrderId(), row.getCreatedAt(), row.getEstado(), row.getUserId(), row.getEmail(),
+                    row.getTotal(), row.getPagoEstado(), row.getOrderItemId(), row.getProductId(),
+                    row.getProductNombre(), row.getCantidad(), row.getPrecioUnitario()});
+        }
+        logger.info("[DataExportService] Exportación de órdenes: {} filas en {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    /**
+     * Exporta el catálogo completo, incluidos los productos eliminados (deletedAt)
+     */
+    @Transactional(readOnly = true)
+    public long exportProducts(Writer writer, String format) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows;
+        try (Stream<ProductExportRowDTO> stream = productRepository.streamForExport()) {
+            rows = write(stream, writer, normalize(format), PRODUCT_COLUMNS, row -> new Object[]{
+                    row.getId(), row.getNombre(), row.getDescripcion(), row.getPrecio(), row.getStock(),
+                    row.getBrandId(), row.getMarca(), row.getProcesador(), row.getRam(), row.getAlmacenamiento(),
+                    row.getPantalla(), row.getGpu(), row.getPeso(), row.getCreatedAt(), row.getDeletedAt()});
+        }
+        logger.info("[DataExportService] Exportación de productos: {} filas en {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    private <T> long write(Stream<T> stream, Writer writer, String format, List<String> columns,
+                           Function<T, Object[]> cells) throws IOException {
+        boolean csv = "csv".equals(format);
+        if (csv) {
+            writer.write(String.join(",", columns));
+            writer.write('\n');
+        }
+
+        long rows = 0;
+        Iterator<T> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            T row = iterator.next();
+            if (csv) {
+                Object[] values = cells.apply(row);
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        writer.write(',');
+                    }
+                    writer.write(CsvSupport.escape(values[i]));
+                }
+            } else {
+                writer.write(objectMapper.writeValueAsString(row));
+            }
+            writer.write('\n');
+
+            if (++rows % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private String normalize(String format) {
+        return format == null ? "csv" : format.trim().toLowerCase(Locale.ROOT);
+    }
+}
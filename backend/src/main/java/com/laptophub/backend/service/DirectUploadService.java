@@ -0,0 +1,80 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.DirectUploadConfirmDTO;
+import com.laptophub.backend.dto.SignedUploadDTO;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.ImageVariantSpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Subida directa de imágenes del navegador a Cloudinary, sin que los bytes pasen por el backend.
+ *
+ * 1. El backend firma los parámetros de la subida (carpeta fija y, para productos, las variantes eager).
+ * 2. El navegador sube el archivo a Cloudinary con esos parámetros.
+ * 3. El navegador reenvía la respuesta de Cloudinary al endpoint de confirmación, que la verifica aquí:
+ *    firma de la respuesta, carpeta esperada y antigüedad máxima (app.images.direct-upload.ttl-seconds).
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectUploadService.class);
+
+    private static final Pattern FORMAT = Pattern.compile("[a-z0-9]{2,5}");
+    private static final Pattern PUBLIC_ID_NAME = Pattern.compile("[A-Za-z0-9_-]+");
+
+    private final CloudinaryService cloudinaryService;
+    private final long ttlSeconds;
+
+    public DirectUploadService(CloudinaryService cloudinaryService,
+                               @Value("${app.images.direct-upload.ttl-seconds:900}") long ttlSeconds) {
+        this.cloudinaryService = cloudinaryService;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    /**
+     * @param withVariants si Cloudinary debe generar al subir las variantes de ImageVariantSpec
+     */
+    public SignedUploadDTO sign(String folder, boolean withVariants) {
+        String eager = withVariants
+                ? Arrays.stream(ImageVariantSpec.values())
+                        .map(ImageVariantSpec::transformation)
+                        .collect(Collectors.joining("|"))
+                : null;
+        SignedUploadDTO signed = cloudinaryService.signUpload(folder, eager);
+        signed.setExpiraEn(signed.getTimestamp() + ttlSeconds);
+        return signed;
+    }
+
+    /**
+     * Verifica la respuesta de Cloudinary reenviada por el navegador y devuelve la URL de entrega a registrar.
+     * @throws ValidationException si la firma no es válida, el recurso no está en la carpeta esperada o la subida expiró
+     */
+    public String verify(DirectUploadConfirmDTO dto, String folder) {
+        String publicId = dto.getPublicId();
+        String prefix = folder + "/";
+        if (!publicId.startsWith(prefix) || !PUBLIC_ID_NAME.matcher(publicId.substring(prefix.length())).matches()) {
+            throw new ValidationException("La imagen no pertenece a la carpeta " + folder);
+        }
+        if (!FORMAT.matcher(dto.getFormat()).matches()) {
+            throw new ValidationException("Formato de imagen no válido: " + dto.getFormat());
+        }
+        if (!cloudinaryService.isValidUploadResponse(publicId, dto.getVersion(), dto.getSignature())) {
+            logger.warn("[DirectUploadService] Firma de subida inválida para {}", publicId);
+            throw new ValidationException("La firma de la subida no es válida");
+        }
+        // version es el instante de la subida (segundos epoch)
+        long age = Instant.now().getEpochSecond() - dto.getVersion();
+        if (age > ttlSeconds) {
+            throw new ValidationException("La subida expiró, vuelva a subir la imagen");
+        }
+        return cloudinaryService.deliveryUrl(publicId, dto.getVersion(), dto.getFormat());
+    }
+}
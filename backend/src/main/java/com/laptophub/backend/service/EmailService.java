@@ -2,6 +2,7 @@ package com.laptophub.backend.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -11,6 +12,7 @@ import java.util.Map;
 
 @SuppressWarnings("null")
 @Service
+@Profile("!simulated")
 public class EmailService {
 
     private final ObjectMapper objectMapper = new ObjectMapper();
@@ -0,0 +1,185 @@
+package com.laptophub.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.config.ReplicaConsistencyTracker;
+import com.laptophub.backend.dto.BrandHighlightDTO;
+import com.laptophub.backend.dto.BrandResponseDTO;
+import com.laptophub.backend.dto.HomeFeedDTO;
+import com.laptophub.backend.dto.ProductListDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Portada del catálogo para visitantes (vista pública): mejor valorados, novedades y destacados por marca.
+ *
+ * - Se calcula en segundo plano y se guarda ya serializada (byte[] inmutables): servirla no consulta
+ *   la base de datos ni vuelve a serializar.
+ * - Cada instantánea lleva la versión del catálogo con la que se calculó. La portada se sirve aunque esa
+ *   versión ya no sea la actual, con el ETag de su propia versión, mientras refresh() la recalcula en
+ *   segundo plano (comprobación cada check-ms). Solo el primer cálculo (arranque en frío) se hace en la petición:
+ *   una ráfaga de escrituras no bloquea las peticiones de la portada detrás de un recálculo.
+ * - top-rated y el listado por defecto solo usan la instantánea al día: esos endpoints llevan el ETag de la
+ *   versión actual, así que con una instantánea vieja se responden con las consultas normales.
+ * - Con réplica de lectura se calcula en el primario mientras la réplica podría no tener la última versión
+ *   (ver ReplicaConsistencyTracker.catalogReadNeedsPrimary).
+ */
+@Service
+public class HomeFeedService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HomeFeedService.class);
+
+    private static final int TOP_RATED_SIZE = 10;
+    private static final int NEWEST_SIZE = 20;
+
+    private record Snapshot(String catalogVersion, long builtAtMillis, byte[] home, byte[] topRated, byte[] newest) {
+    }
+
+    /**
+     * JSON de la portada y la versión del catálogo con la que se calculó (puede ser anterior a la actual)
+     */
+    public record Home(String catalogVersion, byte[] json) {
+    }
+
+    private final ProductService productService;
+    private final BrandRegistry brandRegistry;
+    private final CatalogVersionService catalogVersionService;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<ReplicaConsistencyTracker> replicaConsistencyTracker;
+    private final long refreshMs;
+    private final int brandHighlights;
+
+    private volatile Snapshot snapshot;
+
+    public HomeFeedService(ProductService productService,
+                           BrandRegistry brandRegistry,
+                           CatalogVersionService catalogVersionService,
+                           ObjectMapper objectMapper,
+                           ObjectProvider<ReplicaConsistencyTracker> replicaConsistencyTracker,
+                           @Value("${app.home.refresh-ms:60000}") long refreshMs,
+                           @Value("${app.home.brand-highlights:4}") int brandHighlights) {
+        this.productService = productService;
+        this.brandRegistry = brandRegistry;
+        this.catalogVersionService = catalogVersionService;
+        this.objectMapper = objectMapper;
+        this.replicaConsistencyTracker = replicaConsistencyTracker;
+        this.refreshMs = refreshMs;
+        this.brandHighlights = brandHighlights;
+    }
+
+    /**
+     * Portada (HomeFeedDTO) de la última instantánea, aunque su versión haya quedado vieja.
+     * Solo se calcula en este momento si todavía no hay ninguna.
+     */
+    public Home home() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            current = rebuildIfStale();
+        }
+        return new Home(current.catalogVersion(), current.home());
+    }
+
+    /**
+     * JSON de GET /api/products/top-rated en vista pública, si la instantánea está al día
+     */
+    public Optional<byte[]> topRated() {
+        return Optional.ofNullable(fresh()).map(Snapshot::topRated);
+    }
+
+    /**
+     * JSON de la primera página de GET /api/products sin filtros en vista pública, si la instantánea está al día
+     */
+    public Optional<byte[]> newest() {
+        return Optional.ofNullable(fresh()).map(Snapshot::newest);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${app.home.check-ms:2000}", fixedDelayString = "${app.home.check-ms:2000}")
+    public void refresh() {
+        try {
+            rebuildIfStale();
+        } catch (Exception e) {
+            // Se sigue sirviendo desde las consultas normales hasta el próximo intento
+            logger.error("[HomeFeedService] Error al recalcular la portada: ", e);
+        }
+    }
+
+    private Snapshot fresh() {
+        Snapshot current = snapshot;
+        if (current == null || !current.catalogVersion().equals(catalogVersionService.currentVersion())) {
+            return null;
+        }
+        return current;
+    }
+
+    private synchronized Snapshot rebuildIfStale() {
+        Snapshot current = fresh();
+        if (current != null && System.currentTimeMillis() - current.builtAtMillis() < refreshMs) {
+            return current;
+        }
+        // La versión se lee antes de consultar: una escritura durante el cálculo deja la instantánea vieja
+        String version = catalogVersionService.currentVersion();
+        long start = System.currentTimeMillis();
+
+        ReplicaConsistencyTracker tracker = replicaConsistencyTracker.getIfAvailable();
+        Snapshot rebuilt = tracker != null && tracker.catalogReadNeedsPrimary(catalogVersionService.lastChangeMillis())
+                ? tracker.onPrimary(() -> build(version))
+                : build(version);
+        snapshot = rebuilt;
+        logger.debug("[HomeFeedService] Portada recalculada en {}ms (versión {}, {} bytes)",
+                System.currentTimeMillis() - start, version, rebuilt.home().length);
+        return rebuilt;
+    }
+
+    private Snapshot build(String version) {
+        Page<ProductListDTO> topRated = productService.search(
+                null, null, "rating", "desc", PageRequest.of(0, TOP_RATED_SIZE), false, true);
+        Page<ProductListDTO> newest = productService.search(
+                null, null, "createdAt", "desc", PageRequest.of(0, NEWEST_SIZE), false, true);
+        List<BrandHighlightDTO> marcas = brandRegistry.all().stream()
+                .filter(brand -> brand.getDeletedAt() == null)
+                .sorted(Comparator.comparing(BrandResponseDTO::getNombre, String.CASE_INSENSITIVE_ORDER))
+                .map(this::highlight)
+                .filter(highlight -> !highlight.getProductos().isEmpty())
+                .toList();
+        HomeFeedDTO home = HomeFeedDTO.builder()
+                .topRated(topRated.getContent())
+                .newest(newest.getContent())
+                .marcas(marcas)
+                .generadoEn(LocalDateTime.now())
+                .build();
+        return new Snapshot(version, System.currentTimeMillis(), toJson(home), toJson(topRated), toJson(newest));
+    }
+
+    private BrandHighlightDTO highlight(BrandResponseDTO brand) {
+        Page<ProductListDTO> productos = productService.search(
+                null, brand.getId(), "rating", "desc", PageRequest.of(0, brandHighlights), false, true);
+        return BrandHighlightDTO.builder()
+                .brandId(brand.getId())
+                .nombre(brand.getNombre())
+                .imageUrl(brand.getImageUrl())
+                .productos(productos.getContent())
+                .build();
+    }
+
+    private byte[] toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la portada", e);
+        }
+    }
+}
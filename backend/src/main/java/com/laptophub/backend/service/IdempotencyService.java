@@ -0,0 +1,227 @@
+package com.laptophub.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.exception.ConflictException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.repository.IdempotencyKeyRepository;
+import com.laptophub.backend.repository.IdempotencyKeyRepository.StoredKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Soporte de la cabecera Idempotency-Key para operaciones que no deben repetirse (checkout, pagos).
+ *
+ * - La clave vale dentro de un ámbito: la operación y el usuario autenticado (su SHA-256, para que
+ *   cualquier nombre o email quepa en la columna).
+ * - La primera petición reserva la clave en idempotency_keys, ejecuta la operación y guarda la
+ *   respuesta en JSON. Las repeticiones devuelven esa respuesta sin volver a ejecutar nada.
+ * - Los duplicados simultáneos en la misma instancia esperan a la primera ejecución; en otra
+ *   instancia encuentran la reserva y reciben 409 hasta que la respuesta esté guardada.
+ * - Si la operación falla la reserva se libera y el reintento vuelve a ejecutarla.
+ * - Una reserva sin completar nunca se toma de nuevo: si la instancia cayó o no pudo guardar la respuesta,
+ *   no se sabe si la operación se hizo, y repetirla podría crear una segunda orden o un segundo cobro.
+ *   Las repeticiones reciben 409 hasta que la clave vence; el cliente debe revisar el estado y usar otra clave.
+ * - Las respuestas recientes se sirven desde memoria sin consultar la base de datos.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @FunctionalInterface
+    public interface Operation<T, E extends Exception> {
+        T run() throws E;
+    }
+
+    private record CachedResponse(String requestHash, String responseBody, long expiresAtMillis) {
+    }
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final long ttlHours;
+    private final long cacheTtlMs;
+    private final long maxWaitMs;
+
+    private final Map<String, CachedResponse> recent = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyKeyRepository idempotencyKeyRepository,
+                              ObjectMapper objectMapper,
+                              @Value("${app.idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${app.idempotency.cache-ttl-ms:600000}") long cacheTtlMs,
+                              @Value("${app.idempotency.max-wait-ms:10000}") long maxWaitMs) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.ttlHours = ttlHours;
+        this.cacheTtlMs = cacheTtlMs;
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    /**
+     * Ejecuta la operación una sola vez por clave. Sin clave se ejecuta siempre.
+     * @param operation nombre de la operación (forma parte del ámbito de la clave)
+     * @param key valor de la cabecera Idempotency-Key (puede ser null)
+     * @param request datos de la petición; la misma clave con otros datos se rechaza
+     * @param responseType tipo de la respuesta guardada
+     * @throws ValidationException si la clave es inválida o ya se usó con otra petición
+     * @throws ConflictException si la primera ejecución sigue en curso tras la espera máxima
+     *         o quedó sin completar (resultado desconocido)
+     */
+    public <T, E extends Exception> T execute(String operation, String key, Object request,
+                                              Class<T> responseType, Operation<T, E> action) throws E {
+        if (key == null || key.isBlank()) {
+            return action.run();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ValidationException("Idempotency-Key no puede superar " + MAX_KEY_LENGTH + " caracteres");
+        }
+        String scope = operation + ":" + sha256(currentPrincipal());
+        String id = scope + "|" + key;
+        String requestHash = sha256(toJson(request));
+
+        while (true) {
+            CachedResponse cached = recent.get(id);
+            if (cached != null && cached.expiresAtMillis() > System.currentTimeMillis()) {
+                return replay(cached.requestHash(), cached.responseBody(), requestHash, responseType);
+            }
+
+            CompletableFuture<Void> mine = new CompletableFuture<>();
+            CompletableFuture<Void> running = inFlight.putIfAbsent(id, mine);
+            if (running != null) {
+                awaitFirstExecution(running);
+                // Completada: la respuesta ya está en memoria. Fallida: la clave se liberó y se reintenta
+                continue;
+            }
+            try {
+                return executeOnce(scope, key, id, requestHash, responseType, action);
+            } finally {
+                inFlight.remove(id, mine);
+                mine.complete(null);
+            }
+        }
+    }
+
+    private <T, E extends Exception> T executeOnce(String scope, String key, String id, String requestHash,
+                                                   Class<T> responseType, Operation<T, E> action) throws E {
+        if (!idempotencyKeyRepository.claim(scope, key, requestHash)) {
+            Optional<StoredKey> stored = idempotencyKeyRepository.find(scope, key);
+            if (stored.isPresent() && stored.get().isCompleted()) {
+                remember(id, stored.get().requestHash(), stored.get().responseBody());
+                return replay(stored.get().requestHash(), stored.get().responseBody(), requestHash, responseType);
+            }
+            // Liberada entre medias (la otra ejecución falló): se puede reservar de nuevo
+            boolean claimed = stored.isEmpty() && idempotencyKeyRepository.claim(scope, key, requestHash);
+            if (!claimed) {
+                throw new ConflictException("Ya hay una solicitud con la misma Idempotency-Key en curso o sin resultado " +
+                        "confirmado. Revisa el estado antes de reintentar con otra clave");
+            }
+        }
+
+        T result;
+        try {
+            result = action.run();
+        } catch (Exception | Error e) {
+            idempotencyKeyRepository.release(scope, key);
+            throw e;
+        }
+        String body = toJson(result);
+        remember(id, requestHash, body);
+        try {
+            idempotencyKeyRepository.complete(scope, key, body);
+        } catch (Exception e) {
+            // La operación ya se hizo: no se informa como fallo. Esta instancia responde desde memoria;
+            // en las demás la reserva queda sin completar y los reintentos reciben 409, nunca una segunda ejecución
+            logger.error("[IdempotencyService] No se pudo guardar la respuesta de {}: ", scope, e);
+        }
+        return result;
+    }
+
+    /**
+     * Borra claves vencidas de la tabla y de memoria
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(cached -> cached.expiresAtMillis() <= now);
+        try {
+            int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(ttlHours));
+            if (deleted > 0) {
+                logger.info("[IdempotencyService] {} claves de idempotencia vencidas eliminadas", deleted);
+            }
+        } catch (Exception e) {
+            logger.error("[IdempotencyService] Error al eliminar claves vencidas: ", e);
+        }
+    }
+
+    private <T> T replay(String storedHash, String responseBody, String requestHash, Class<T> responseType) {
+        if (!storedHash.equals(requestHash)) {
+            throw new ValidationException("La Idempotency-Key ya se usó con una solicitud distinta");
+        }
+        try {
+            return objectMapper.readValue(responseBody, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Respuesta guardada ilegible para " + responseType.getSimpleName(), e);
+        }
+    }
+
+    private void remember(String id, String requestHash, String responseBody) {
+        recent.put(id, new CachedResponse(requestHash, responseBody, System.currentTimeMillis() + cacheTtlMs));
+    }
+
+    private void awaitFirstExecution(CompletableFuture<Void> running) {
+        try {
+            running.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("Ya hay una solicitud en curso con la misma Idempotency-Key");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Ya hay una solicitud en curso con la misma Idempotency-Key");
+        } catch (ExecutionException e) {
+            // La primera ejecución nunca completa el future con error
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static String currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : "anonimo";
+    }
+}
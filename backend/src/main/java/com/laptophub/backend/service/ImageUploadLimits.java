@@ -0,0 +1,67 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Límites de las imágenes que pasan por el backend (imagen de producto, lote de producto e imagen de marca).
+ *
+ * spring.servlet.multipart.* es global: vale para todos los endpoints multipart y lo aplica el contenedor
+ * antes de llegar al controlador. Se dimensiona para el endpoint más grande (el lote) y cada endpoint aplica
+ * aquí su propio límite. Al arrancar se verifica que un lote completo quepa en max-request-size.
+ */
+@Component
+public class ImageUploadLimits {
+
+    private final DataSize maxFileSize;
+    private final int maxFiles;
+
+    public ImageUploadLimits(@Value("${app.images.upload.max-file-size:10MB}") DataSize maxFileSize,
+                             @Value("${app.images.upload.max-files:5}") int maxFiles,
+                             @Value("${spring.servlet.multipart.max-file-size:1MB}") DataSize multipartMaxFileSize,
+                             @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize multipartMaxRequestSize) {
+        if (maxFileSize.compareTo(multipartMaxFileSize) > 0) {
+            throw new IllegalStateException("app.images.upload.max-file-size (" + maxFileSize +
+                    ") supera spring.servlet.multipart.max-file-size (" + multipartMaxFileSize + ")");
+        }
+        if (maxFiles * maxFileSize.toBytes() > multipartMaxRequestSize.toBytes()) {
+            throw new IllegalStateException("Un lote de " + maxFiles + " imágenes de " + maxFileSize +
+                    " no cabe en spring.servlet.multipart.max-request-size (" + multipartMaxRequestSize + ")");
+        }
+        this.maxFileSize = maxFileSize;
+        this.maxFiles = maxFiles;
+    }
+
+    /**
+     * @throws ValidationException si la imagen supera app.images.upload.max-file-size
+     */
+    public void checkImage(MultipartFile file) {
+        if (file.getSize() > maxFileSize.toBytes()) {
+            throw new ValidationException("La imagen " + file.getOriginalFilename() + " supera el máximo de " +
+                    readable(maxFileSize));
+        }
+    }
+
+    /**
+     * @throws ValidationException si el lote supera app.images.upload.max-files
+     */
+    public void checkFileCount(int count) {
+        if (count > maxFiles) {
+            throw new ValidationException("Se permiten como máximo " + maxFiles + " imágenes por petición");
+        }
+    }
+
+    private static String readable(DataSize size) {
+        long bytes = size.toBytes();
+        if (bytes >= DataSize.ofMegabytes(1).toBytes() && bytes % DataSize.ofMegabytes(1).toBytes() == 0) {
+            return size.toMegabytes() + " MB";
+        }
+        if (bytes >= DataSize.ofKilobytes(1).toBytes() && bytes % DataSize.ofKilobytes(1).toBytes() == 0) {
+            return size.toKilobytes() + " KB";
+        }
+        return bytes + " bytes";
+    }
+}
@@ -0,0 +1,224 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.repository.InventoryMovementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Motor de reservas de stock en memoria para ventas con mucha concurrencia sobre pocos productos
+ * (opcional: app.inventory.engine.enabled=true).
+ *
+ * - Cada producto tiene un contador de disponibles (AtomicInteger); reservar es un compareAndSet,
+ *   sin SELECT ... FOR UPDATE sobre la fila del producto.
+ * - La reserva se registra en inventory_movements dentro de la transacción de la orden. Si la
+ *   transacción se revierte, el contador se devuelve al completar.
+ * - Un flush periódico suma los movimientos a products.stock y los borra en una sola sentencia,
+ *   así que la fila del producto se actualiza una vez por intervalo y no una vez por checkout.
+ * - Al arrancar se aplican los movimientos que quedaron pendientes (caída entre commit y flush),
+ *   incluso con el motor apagado.
+ * - Flush y reconciliación escriben products.stock por JDBC, así que incrementan ellos mismos la
+ *   versión del catálogo (los ETag y el home muestran el stock).
+ *
+ * Los contadores son locales a la instancia: con el motor activo el backend debe correr en una sola
+ * instancia (o con los checkouts de cada producto dirigidos siempre a la misma).
+ */
+@Service
+public class InventoryReservationEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InventoryReservationEngine.class);
+
+    private final InventoryMovementRepository inventoryMovementRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final boolean enabled;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+
+    public InventoryReservationEngine(InventoryMovementRepository inventoryMovementRepository,
+                                      CatalogVersionService catalogVersionService,
+                                      @Value("${app.inventory.engine.enabled:false}") boolean enabled) {
+        this.inventoryMovementRepository = inventoryMovementRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reserva todas las cantidades o ninguna y las registra en el diario de la orden.
+     * Debe llamarse dentro de la transacción que crea la orden.
+     * @param quantitiesByProduct productId → cantidad
+     * @throws ValidationException si algún producto no tiene stock suficiente
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reserve(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+        // Orden fijo por id: dos checkouts con los mismos productos no se devuelven stock mutuamente a medias
+        Map<Long, Integer> ordered = new TreeMap<>(quantitiesByProduct);
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        try {
+            for (Map.Entry<Long, Integer> entry : ordered.entrySet()) {
+                if (!tryTake(counter(entry.getKey()), entry.getValue())) {
+                    throw new ValidationException("Stock insuficiente para producto " + entry.getKey());
+                }
+                reserved.add(entry);
+            }
+        } catch (RuntimeException e) {
+            reserved.forEach(entry -> counter(entry.getKey()).addAndGet(entry.getValue()));
+            throw e;
+        }
+
+        // Si la orden no llega a confirmarse (incluido un fallo del insert), las unidades vuelven a estar disponibles
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    ordered.forEach((productId, cantidad) -> counter(productId).addAndGet(cantidad));
+                }
+            }
+        });
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        ordered.forEach((productId, cantidad) -> deltas.put(productId, -cantidad));
+        inventoryMovementRepository.insert(orderId, deltas);
+    }
+
+    /**
+     * Devuelve al stock las cantidades de una orden cancelada, expirada o con pago fallido.
+     * Las unidades vuelven a estar disponibles cuando la transacción hace commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(Long orderId, Map<Long, Integer> quantitiesByProduct) {
+        Map<Long, Integer> deltas = new TreeMap<>(quantitiesByProduct);
+        inventoryMovementRepository.insert(orderId, deltas);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach((productId, cantidad) -> {
+                    AtomicInteger counter = available.get(productId);
+                    if (counter != null) {
+                        counter.addAndGet(cantidad);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Registra un stock fijado por fuera del motor (edición o importación): cuando la transacción hace commit,
+     * suma a cada contador la diferencia con el stock anterior.
+     *
+     * El contador no se descarta: las reservas de checkouts aún sin confirmar ya están descontadas de él,
+     * y recargarlo desde la base de datos (que todavía no las ve) volvería a vender esas unidades.
+     * Debe llamarse antes de escribir el stock nuevo: lee el anterior bloqueando las filas, así que un flush
+     * concurrente no se pierde bajo la escritura ni cambia la diferencia.
+     * @param stockByProduct productId → stock nuevo
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void adjustToStock(Map<Long, Integer> stockByProduct) {
+        if (!enabled || stockByProduct.isEmpty()) {
+            return;
+        }
+        Map<Long, Integer> previous = inventoryMovementRepository.lockStock(stockByProduct.keySet());
+        Map<Long, Integer> deltas = new TreeMap<>();
+        previous.forEach((productId, stock) -> deltas.put(productId, stockByProduct.get(productId) - stock));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deltas.forEach((productId, delta) -> {
+                    // Sin contador no hay nada que corregir: el próximo se carga ya con el stock nuevo
+                    AtomicInteger counter = available.get(productId);
+                    if (counter != null) {
+                        counter.addAndGet(delta);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Unidades disponibles según el motor (carga el contador si aún no existe)
+     */
+    public int available(Long productId) {
+        return counter(productId).get();
+    }
+
+    @Scheduled(fixedDelayString = "${app.inventory.engine.flush-ms:250}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            int updated = inventoryMovementRepository.applyPending();
+            if (updated > 0) {
+                logger.debug("[InventoryReservationEngine] Stock aplicado a {} productos", updated);
+                catalogVersionService.bumpAfterCommit();
+            }
+        } catch (Exception e) {
+            // Los movimientos siguen en el diario y se aplican en el próximo flush
+            logger.error("[InventoryReservationEngine] Error al aplicar movimientos de stock: ", e);
+        }
+    }
+
+    /**
+     * Reconciliación al arrancar: aplica lo que quedó en el diario antes de servir checkouts
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(0)
+    public void reconcile() {
+        long pending = inventoryMovementRepository.countPending();
+        if (pending == 0) {
+            return;
+        }
+        int updated = inventoryMovementRepository.applyPending();
+        if (updated > 0) {
+            catalogVersionService.bumpAfterCommit();
+        }
+        logger.warn("[InventoryReservationEngine] Reconciliación: {} movimientos pendientes aplicados a {} productos",
+                pending, updated);
+    }
+
+    private AtomicInteger counter(Long productId) {
+        AtomicInteger counter = available.computeIfAbsent(productId, id -> {
+            Integer stock = inventoryMovementRepository.available(id);
+            return stock == null ? null : new AtomicInteger(stock);
+        });
+        if (counter == null) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+        }
+        return counter;
+    }
+
+    private static boolean tryTake(AtomicInteger counter, int cantidad) {
+        while (true) {
+            int current = counter.get();
+            if (current < cantidad) {
+                return false;
+            }
+            if (counter.compareAndSet(current, current - cantidad)) {
+                return true;
+            }
+        }
+    }
+}
@@ -10,22 +10,31 @@ import com.laptophub.backend.repository.OrderRepository;
 import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.repository.ReviewRepository;
+import com.laptophub.backend.exception.ConflictException;
 import com.laptophub.backend.exception.ResourceNotFoundException;
 import com.laptophub.backend.exception.ValidationException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,6 +43,8 @@ public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
 
+    private static final int BATCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final ProductRepository productRepository;
@@ -42,6 +53,11 @@ public class OrderService {
     private final UserService userService;
     private final CartService cartService;
     private final PaymentService paymentService;
+    private final SalesRollupService salesRollupService;
+    private final PurchaseLedgerService purchaseLedgerService;
+    private final BrandRegistry brandRegistry;
+    private final InventoryReservationEngine inventoryReservationEngine;
+    private final TransactionTemplate transactionTemplate;
     
     @Transactional
     @SuppressWarnings("null")
@@ -53,16 +69,19 @@ public class OrderService {
             throw new ValidationException("El carrito está vacío");
         }
         
-        for (CartItem cartItem : cart.getItems()) {
-            Long productId = cartItem.getProduct().getId();
-            Product product = productRepository.findByIdWithLock(productId)
-                .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productId));
-            
-            if (product.getStock() < cartItem.getCantidad()) {
-                throw new ValidationException("Stock insuficiente para producto " + product.getId());
-            }
+        // Con el motor de reservas el stock se reserva en memoria más abajo, sin bloquear la fila del producto
+        if (!inventoryReservationEngine.isEnabled()) {
+            for (CartItem cartItem : cart.getItems()) {
+                Long productId = cartItem.getProduct().getId();
+                Product product = productRepository.findByIdWithLock(productId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Producto no encontrado con id: " + productId));
+                
+                if (product.getStock() < cartItem.getCantidad()) {
+                    throw new ValidationException("Stock insuficiente para producto " + product.getId());
+                }
 
-            cartItem.setProduct(product);
+                cartItem.setProduct(product);
+            }
         }
         
         BigDecimal total = cart.getItems().stream()
@@ -79,6 +98,11 @@ public class OrderService {
                 .build();
         
         Order savedOrder = orderRepository.save(order);
+
+        if (inventoryReservationEngine.isEnabled()) {
+            inventoryReservationEngine.reserve(savedOrder.getId(), quantitiesByProduct(
+                    cart.getItems(), item -> item.getProduct().getId(), CartItem::getCantidad));
+        }
         
         for (CartItem cartItem : cart.getItems()) {
             Product product = cartItem.getProduct();
@@ -92,9 +116,11 @@ public class OrderService {
             
             orderItemRepository.save(orderItem);
             
-            Integer newStock = product.getStock() - cartItem.getCantidad();
-            product.setStock(newStock);
-            productRepository.save(product);
+            if (!inventoryReservationEngine.isEnabled()) {
+                Integer newStock = product.getStock() - cartItem.getCantidad();
+                product.setStock(newStock);
+                productRepository.save(product);
+            }
         }
         
         try {
@@ -118,30 +144,43 @@ public class OrderService {
     
     @Transactional(readOnly = true)
     public Page<Order> findByUserId(UUID userId, @NonNull Pageable pageable) {
-        User user = userService.findById(userId);
-        return orderRepository.findByUser(user, pageable);
-    }
-    
-    @Transactional(readOnly = true)
-    public List<Order> findByUserId(UUID userId) {
-        User user = userService.findById(userId);
-        return orderRepository.findByUser(user);
+        userService.findById(userId);
+        return loadOrderPage(orderRepository.findIdPageByUserId(userId, pageable));
     }
     
     @Transactional(readOnly = true)
     public Page<Order> findByStatus(OrderStatus estado, @NonNull Pageable pageable) {
-        return orderRepository.findByEstado(estado, pageable);
+        return loadOrderPage(orderRepository.findIdPageByEstado(estado, pageable));
     }
-    
-    @Transactional(readOnly = true)
-    public List<Order> findByStatus(OrderStatus estado) {
-        return orderRepository.findByEstado(estado);
+
+    /**
+     * Segunda fase de los listados: carga el grafo de las órdenes de la página en una consulta
+     * y las devuelve en el mismo orden que la página de ids.
+     */
+    private Page<Order> loadOrderPage(Page<Long> idPage) {
+        if (idPage.isEmpty()) {
+            return new PageImpl<>(List.of(), idPage.getPageable(), idPage.getTotalElements());
+        }
+        Map<Long, Order> byId = orderRepository.findWithItemsByIdIn(idPage.getContent()).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<Order> orders = idPage.getContent().stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new PageImpl<>(orders, idPage.getPageable(), idPage.getTotalElements());
     }
     
     @Transactional
     public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
         Order order = findById(orderId);
-        order.setEstado(newStatus);
+        OrderStatus anterior = order.getEstado();
+        if (anterior == newStatus) {
+            return order;
+        }
+
+        applyTransition(order, newStatus);
+        salesRollupService.recordTransition(order, anterior, newStatus);
+        purchaseLedgerService.recordTransition(order, anterior, newStatus);
         return orderRepository.save(order);
     }
     
@@ -156,25 +195,63 @@ public class OrderService {
                     "Solo se pueden cancelar órdenes pendientes. Estado actual: " + order.getEstado());
         }
         
+        OrderStatus anterior = order.getEstado();
+        applyTransition(order, OrderStatus.CANCELADO);
         restoreOrderStock(order);
-        order.setEstado(OrderStatus.CANCELADO);
+        salesRollupService.recordTransition(order, anterior, OrderStatus.CANCELADO);
         return orderRepository.save(order);
     }
 
-    @Transactional
+    /**
+     * Cambia el estado con un UPDATE condicionado al estado leído, como el webhook de Stripe.
+     * Si otra transacción (webhook, scheduler u otro admin) lo cambió antes, no se aplica ningún efecto
+     * (stock, ventas ni historial de compras) y se responde 409.
+     */
+    private void applyTransition(Order order, OrderStatus nuevo) {
+        OrderStatus anterior = order.getEstado();
+        if (orderRepository.updateEstado(order.getId(), anterior, nuevo) != 1) {
+            throw new ConflictException("La orden " + order.getId() + " cambió de estado mientras se procesaba (estaba en " +
+                    anterior.getValue() + "). Vuelve a consultarla");
+        }
+        order.setEstado(nuevo);
+    }
+
+    /**
+     * Expira las órdenes PENDIENTE_PAGO vencidas por lotes de BATCH_SIZE (keyset por id).
+     * Cada lote corre en su propia transacción, así que la memoria no crece con el número de órdenes
+     * y un lote confirmado no se pierde si uno posterior falla.
+     */
     public int expirePendingPaymentOrders() {
         LocalDateTime now = LocalDateTime.now();
-        List<Order> expired = orderRepository.findByEstadoAndExpiresAtBefore(OrderStatus.PENDIENTE_PAGO, now);
+        int count = 0;
+        int candidates = 0;
+        long afterId = 0L;
 
-        logger.info("[OrderService] [{}] Órdenes candidatas a expirar: {}", now, expired.size());
+        while (true) {
+            List<Long> ids = orderRepository.findExpiredIdsAfter(
+                    OrderStatus.PENDIENTE_PAGO, now, afterId, PageRequest.of(0, BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            candidates += ids.size();
+            afterId = ids.get(ids.size() - 1);
+
+            Integer expiredInBatch = transactionTemplate.execute(status -> expireBatch(ids, now));
+            count += expiredInBatch != null ? expiredInBatch : 0;
 
-        if (expired.isEmpty()) {
-            return 0;
+            if (ids.size() < BATCH_SIZE) {
+                break;
+            }
         }
 
+        logger.info("[OrderService] [{}] Órdenes candidatas a expirar: {}, expiradas correctamente: {}", now, candidates, count);
+        return count;
+    }
+
+    private int expireBatch(List<Long> ids, LocalDateTime now) {
         int count = 0;
-        for (Order order : expired) {
-            Order lockedOrder = orderRepository.findByIdWithLock(order.getId()).orElse(null);
+        for (Long id : ids) {
+            Order lockedOrder = orderRepository.findByIdWithLock(id).orElse(null);
             if (lockedOrder == null) continue;
 
             if (lockedOrder.getEstado() != OrderStatus.PENDIENTE_PAGO || lockedOrder.getExpiresAt().isAfter(now)) {
@@ -182,6 +259,7 @@ public class OrderService {
             }
 
             restoreOrderStock(lockedOrder);
+            salesRollupService.recordTransition(lockedOrder, lockedOrder.getEstado(), OrderStatus.EXPIRADO);
             lockedOrder.setEstado(OrderStatus.EXPIRADO);
 
             if (lockedOrder.getPayment() != null &&
@@ -192,23 +270,33 @@ public class OrderService {
             orderRepository.save(lockedOrder);
             count++;
         }
-
-        logger.info("[OrderService] [{}] Órdenes expiradas correctamente: {}", now, count);
         return count;
     }
     
-    @Transactional(readOnly = true)
-    public List<Order> findAll() {
-        return orderRepository.findAll();
-    }
-    
     public void restoreOrderStock(Order order) {
+        if (inventoryReservationEngine.isEnabled()) {
+            inventoryReservationEngine.release(order.getId(), quantitiesByProduct(
+                    order.getOrderItems(), item -> item.getProduct().getId(), OrderItem::getCantidad));
+            return;
+        }
         for (OrderItem item : order.getOrderItems()) {
             Product product = item.getProduct();
             product.setStock(product.getStock() + item.getCantidad());
             productRepository.save(product);
         }
     }
+
+    /**
+     * Suma las cantidades por producto (un carrito u orden puede tener el mismo producto en varias líneas)
+     */
+    private static <T> Map<Long, Integer> quantitiesByProduct(List<T> lines, Function<T, Long> productId,
+                                                             Function<T, Integer> cantidad) {
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (T line : lines) {
+            quantities.merge(productId.apply(line), cantidad.apply(line), Integer::sum);
+        }
+        return quantities;
+    }
     
     // Métodos que retornan DTOs
     
@@ -226,17 +314,17 @@ public class OrderService {
     
     @Transactional(readOnly = true)
     public Page<OrderResponseDTO> findAllDTO(@NonNull Pageable pageable) {
-        return orderRepository.findAll(pageable).map(this::mapOrderToDTO);
+        return mapOrderPageToDTO(loadOrderPage(orderRepository.findIdPage(pageable)));
     }
     
     @Transactional(readOnly = true)
     public Page<OrderResponseDTO> findByUserIdDTO(UUID userId, @NonNull Pageable pageable) {
-        return findByUserId(userId, pageable).map(this::mapOrderToDTO);
+        return mapOrderPageToDTO(findByUserId(userId, pageable));
     }
     
     @Transactional(readOnly = true)
     public Page<OrderResponseDTO> findByStatusDTO(OrderStatus estado, @NonNull Pageable pageable) {
-        return findByStatus(estado, pageable).map(this::mapOrderToDTO);
+        return mapOrderPageToDTO(findByStatus(estado, pageable));
     }
     
     @Transactional
@@ -252,8 +340,47 @@ public class OrderService {
     }
     
     private OrderResponseDTO mapOrderToDTO(Order order) {
+        return mapOrdersToDTO(List.of(order)).get(0);
+    }
+
+    private Page<OrderResponseDTO> mapOrderPageToDTO(Page<Order> page) {
+        return new PageImpl<>(mapOrdersToDTO(page.getContent()), page.getPageable(), page.getTotalElements());
+    }
+
+    /**
+     * Mapea un conjunto de órdenes resolviendo imagen principal y rating de todos sus productos
+     * con una consulta de cada tipo, en lugar de dos consultas por item.
+     */
+    private List<OrderResponseDTO> mapOrdersToDTO(List<Order> orders) {
+        Set<Long> productIds = orders.stream()
+                .flatMap(order -> order.getOrderItems().stream())
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet());
+
+        Map<Long, ProductImage> mainImages = new HashMap<>();
+        Map<Long, Double> ratings = new HashMap<>();
+        if (!productIds.isEmpty()) {
+            for (ProductImage image : productImageRepository.findMainImagesByProductIds(productIds)) {
+                mainImages.put(image.getProduct().getId(), image);
+            }
+            for (Object[] row : reviewRepository.averageRatingByProductIds(productIds)) {
+                ratings.put((Long) row[0], (Double) row[1]);
+            }
+        }
+
+        List<OrderResponseDTO> result = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            result.add(mapOrderToDTO(order, mainImages, ratings));
+        }
+        return result;
+    }
+
+    private OrderResponseDTO mapOrderToDTO(Order order, Map<Long, ProductImage> mainImages, Map<Long, Double> ratings) {
         List<OrderItemResponseDTO> items = order.getOrderItems().stream()
-                .map(this::mapOrderItemToDTO)
+                .map(item -> DTOMapper.toOrderItemResponse(item,
+                        brandRegistry.forProduct(item.getProduct()),
+                        mainImages.get(item.getProduct().getId()),
+                        ratings.getOrDefault(item.getProduct().getId(), 0.0)))
                 .collect(Collectors.toList());
 
         PaymentResponseDTO payment = null;
@@ -267,20 +394,6 @@ public class OrderService {
         return DTOMapper.toOrderResponse(order, items, payment);
     }
     
-    private OrderItemResponseDTO mapOrderItemToDTO(OrderItem item) {
-        Product product = item.getProduct();
-        List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
-        ProductImage mainImage = images.isEmpty() ? null : images.get(0);
-        
-        List<Review> reviews = reviewRepository.findByProduct(product);
-        Double avgRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
-        
-        return DTOMapper.toOrderItemResponse(item, mainImage, avgRating);
-    }
-
     /**
      * Progresa órdenes en estado PROCESANDO a ENVIADO
      * Se ejecuta automáticamente by scheduler cada 2 minutos
@@ -288,16 +401,7 @@ public class OrderService {
     @Transactional
     public int progressProcessingToShipped() {
         logger.info("[OrderService] Buscando órdenes en estado PROCESANDO para cambiar a ENVIADO...");
-        List<Order> processingOrders = orderRepository.findByEstado(OrderStatus.PROCESANDO);
-        
-        int count = 0;
-        for (Order order : processingOrders) {
-            order.setEstado(OrderStatus.ENVIADO);
-            orderRepository.save(order);
-            logger.info("[OrderService] Orden {} movida a ENVIADO", order.getId());
-            count++;
-        }
-        return count;
+        return progressInBatches(OrderStatus.PROCESANDO, OrderStatus.ENVIADO);
     }
 
     /**
@@ -307,14 +411,32 @@ public class OrderService {
     @Transactional
     public int progressShippedToDelivered() {
         logger.info("[OrderService] Buscando órdenes en estado ENVIADO para cambiar a ENTREGADO...");
-        List<Order> shippedOrders = orderRepository.findByEstado(OrderStatus.ENVIADO);
-        
+        return progressInBatches(OrderStatus.ENVIADO, OrderStatus.ENTREGADO);
+    }
+
+    /**
+     * Mueve órdenes de un estado a otro por lotes de BATCH_SIZE ids con un UPDATE por lote.
+     * No carga entidades, así que la memoria no depende de cuántas órdenes haya en el estado.
+     * Ambos estados cuentan como venta, por lo que no hay delta para sales_daily_rollups;
+     * al llegar a ENTREGADO se registran las compras del lote en purchase_ledger.
+     */
+    private int progressInBatches(OrderStatus actual, OrderStatus nuevo) {
         int count = 0;
-        for (Order order : shippedOrders) {
-            order.setEstado(OrderStatus.ENTREGADO);
-            orderRepository.save(order);
-            logger.info("[OrderService] Orden {} movida a ENTREGADO", order.getId());
-            count++;
+        while (true) {
+            List<Long> ids = orderRepository.findIdsByEstado(actual, PageRequest.of(0, BATCH_SIZE));
+            if (ids.isEmpty()) {
+                break;
+            }
+            int updated = orderRepository.updateEstadoByIdIn(ids, actual, nuevo);
+            if (nuevo == OrderStatus.ENTREGADO) {
+                purchaseLedgerService.recordDelivered(ids);
+            }
+            logger.info("[OrderService] {} órdenes movidas de {} a {}", updated, actual, nuevo);
+            logger.debug("[OrderService] Órdenes movidas a {}: {}", nuevo, ids);
+            count += updated;
+            if (ids.size() < BATCH_SIZE) {
+                break;
+            }
         }
         return count;
     }
@@ -333,7 +455,7 @@ public class OrderService {
             );
         }
         
-        order.setEstado(OrderStatus.ENVIADO);
+        applyTransition(order, OrderStatus.ENVIADO);
         Order updated = orderRepository.save(order);
         logger.info("[OrderService] Orden {} cambió a ENVIADO por acción admin", orderId);
         return updated;
@@ -362,7 +484,8 @@ public class OrderService {
             );
         }
         
-        order.setEstado(OrderStatus.ENTREGADO);
+        applyTransition(order, OrderStatus.ENTREGADO);
+        purchaseLedgerService.recordTransition(order, OrderStatus.ENVIADO, OrderStatus.ENTREGADO);
         Order updated = orderRepository.save(order);
         logger.info("[OrderService] Orden {} cambió a ENTREGADO por acción admin", orderId);
         return updated;
@@ -385,7 +508,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public boolean isProductPurchasedByUser(UUID userId, Long productId) {
-        return orderRepository.hasUserPurchasedProduct(userId, productId);
+        return purchaseLedgerService.hasPurchased(userId, productId);
     }
 
     /**
@@ -396,7 +519,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public PurchasedResponseDTO checkProductPurchase(UUID userId, Long productId) {
-        boolean purchased = orderRepository.hasUserPurchasedProduct(userId, productId);
+        boolean purchased = purchaseLedgerService.hasPurchased(userId, productId);
         if (!purchased) {
             return PurchasedResponseDTO.builder()
                     .purchased(false)
@@ -426,18 +549,7 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Page<ReviewableProductDTO> getReviewableProducts(UUID userId, @NonNull Pageable pageable) {
-        List<ReviewableProductDTO> allProducts = orderRepository.getReviewableProducts(userId);
-        
-        int start = (int) pageable.getOffset();
-        int end = Math.min(start + pageable.getPageSize(), allProducts.size());
-        
-        List<ReviewableProductDTO> pageContent = new ArrayList<>(allProducts.subList(start, Math.max(start, end)));
-        
-        return new org.springframework.data.domain.PageImpl<>(
-            pageContent,
-            pageable,
-            allProducts.size()
-        );
+        return orderRepository.getReviewableProducts(userId, pageable);
     }
 
     /**
@@ -448,7 +560,6 @@ public class OrderService {
      */
     @Transactional(readOnly = true)
     public Page<OrderResponseDTO> getUserActiveOrders(UUID userId, @NonNull Pageable pageable) {
-        return orderRepository.findUserOrdersByActiveStatuses(userId, pageable)
-            .map(this::mapOrderToDTO);
+        return mapOrderPageToDTO(loadOrderPage(orderRepository.findActiveIdPageByUserId(userId, pageable)));
     }
 }
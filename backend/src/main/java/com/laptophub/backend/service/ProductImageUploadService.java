@@ -0,0 +1,244 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.DTOMapper;
+import com.laptophub.backend.dto.DirectUploadConfirmDTO;
+import com.laptophub.backend.dto.ImageUploadErrorDTO;
+import com.laptophub.backend.dto.ProductImageBatchResultDTO;
+import com.laptophub.backend.dto.ProductImageDTO;
+import com.laptophub.backend.dto.SignedUploadDTO;
+import com.laptophub.backend.exception.ConflictException;
+import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.ImageVariantSpec;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.ProductImageBatchRepository;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Subida de varias imágenes de un producto en una petición.
+ *
+ * - Los archivos se suben a Cloudinary en paralelo con un pool acotado (app.images.upload.parallelism),
+ *   compartido por todas las peticiones: varias subidas masivas a la vez no multiplican los hilos.
+ * - Las que suben bien se insertan juntas al final, con orden consecutivo tras las imágenes existentes.
+ *   El bloqueo del producto se toma solo para ese insert, no durante las subidas.
+ * - Un archivo que falla no frena a los demás: se informa en detalleErrores.
+ *
+ * También registra las imágenes subidas directamente desde el navegador (ver DirectUploadService),
+ * que se agregan igual: al final, con el siguiente orden.
+ */
+@Service
+public class ProductImageUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImageUploadService.class);
+    private static final String FOLDER = "laptophub/products";
+
+    private record Upload(int indice, MultipartFile file, String descripcion, ProductImage image, String error) {
+    }
+
+    private final CloudinaryService cloudinaryService;
+    private final ProductRepository productRepository;
+    private final ProductImageBatchRepository productImageBatchRepository;
+    private final ProductImageRepository productImageRepository;
+    private final DirectUploadService directUploadService;
+    private final CatalogVersionService catalogVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final ImageUploadLimits imageUploadLimits;
+    private final ExecutorService uploadExecutor;
+
+    public ProductImageUploadService(CloudinaryService cloudinaryService,
+                                     ProductRepository productRepository,
+                                     ProductImageBatchRepository productImageBatchRepository,
+                                     ProductImageRepository productImageRepository,
+                                     DirectUploadService directUploadService,
+                                     CatalogVersionService catalogVersionService,
+                                     TransactionTemplate transactionTemplate,
+                                     ImageUploadLimits imageUploadLimits,
+                                     @Value("${app.images.upload.parallelism:4}") int parallelism) {
+        this.cloudinaryService = cloudinaryService;
+        this.productRepository = productRepository;
+        this.productImageBatchRepository = productImageBatchRepository;
+        this.productImageRepository = productImageRepository;
+        this.directUploadService = directUploadService;
+        this.catalogVersionService = catalogVersionService;
+        this.transactionTemplate = transactionTemplate;
+        this.imageUploadLimits = imageUploadLimits;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.uploadExecutor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "image-upload-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @param descripciones descripción de cada archivo por posición (opcional, puede ser más corta que files)
+     * @throws ResourceNotFoundException si el producto no existe
+     * @throws ValidationException si no hay archivos o se supera el máximo por petición
+     *         (un archivo que supera el tamaño máximo se informa en detalleErrores, ver ImageUploadLimits)
+     */
+    public ProductImageBatchResultDTO uploadImages(Long productId, List<MultipartFile> files, List<String> descripciones) {
+        long start = System.currentTimeMillis();
+        if (files == null || files.isEmpty()) {
+            throw new ValidationException("Debe enviar al menos un archivo");
+        }
+        imageUploadLimits.checkFileCount(files.size());
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+        }
+
+        List<CompletableFuture<Upload>> pending = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            int indice = i;
+            MultipartFile file = files.get(i);
+            String descripcion = descripciones != null && i < descripciones.size() ? descripciones.get(i) : null;
+            pending.add(CompletableFuture.supplyAsync(() -> upload(indice, file, descripcion), uploadExecutor));
+        }
+        List<Upload> uploads = pending.stream().map(CompletableFuture::join).toList();
+
+        List<ProductImage> uploaded = uploads.stream()
+                .filter(upload -> upload.image() != null)
+                .map(Upload::image)
+                .toList();
+        List<ImageUploadErrorDTO> errores = new ArrayList<>();
+        uploads.stream()
+                .filter(upload -> upload.error() != null)
+                .forEach(upload -> errores.add(error(upload, upload.error())));
+
+        List<ProductImage> saved = List.of();
+        if (!uploaded.isEmpty()) {
+            try {
+                saved = transactionTemplate.execute(status -> {
+                    List<ProductImage> inserted = productImageBatchRepository.insertAppending(productId, uploaded);
+                    catalogVersionService.bumpAfterCommit();
+                    return inserted;
+                });
+            } catch (RuntimeException e) {
+                // Sin filas que las referencien, las imágenes subidas quedarían huérfanas en Cloudinary
+                logger.error("[ProductImageUploadService] Error al registrar imágenes del producto {}: ", productId, e);
+                uploaded.forEach(image -> deleteQuietly(image.getUrl()));
+                if (e instanceof ResourceNotFoundException) {
+                    // Producto desactivado mientras se subían los archivos
+                    throw e;
+                }
+                uploads.stream()
+                        .filter(upload -> upload.image() != null)
+                        .forEach(upload -> errores.add(error(upload, "No se pudo registrar la imagen: " + e.getMessage())));
+                saved = List.of();
+            }
+        }
+        errores.sort((a, b) -> Integer.compare(a.getIndice(), b.getIndice()));
+
+        logger.info("[ProductImageUploadService] Producto {}: {} de {} imágenes subidas en {}ms",
+                productId, saved.size(), files.size(), System.currentTimeMillis() - start);
+        return ProductImageBatchResultDTO.builder()
+                .recibidas(files.size())
+                .subidas(saved.size())
+                .errores(errores.size())
+                .imagenes(saved.stream().map(DTOMapper::toProductImageDTO).toList())
+                .detalleErrores(errores)
+                .duracionMs(System.currentTimeMillis() - start)
+                .build();
+    }
+
+    /**
+     * Parámetros firmados para subir una imagen del producto directamente a Cloudinary
+     * @throws ResourceNotFoundException si el producto no existe
+     */
+    public SignedUploadDTO uploadSignature(Long productId) {
+        if (!productRepository.existsById(productId)) {
+            throw new ResourceNotFoundException("Producto no encontrado con id: " + productId);
+        }
+        return directUploadService.sign(FOLDER, true);
+    }
+
+    /**
+     * Registra una imagen subida directamente a Cloudinary, a continuación de las existentes del producto.
+     * Queda sin dimensiones (y sus variantes también): las que informa el navegador no están firmadas.
+     * @throws ValidationException si la respuesta de Cloudinary no es válida (ver DirectUploadService.verify)
+     * @throws ConflictException si la imagen ya está registrada, en este producto o en otro
+     */
+    public ProductImageDTO confirmDirectUpload(Long productId, DirectUploadConfirmDTO dto) {
+        String url = directUploadService.verify(dto, FOLDER);
+        ProductImage image = ProductImage.builder()
+                .url(url)
+                .descripcion(dto.getDescripcion())
+                .build();
+        ImageVariantSpec.applyTo(image);
+
+        ProductImage saved = transactionTemplate.execute(status -> {
+            // Con la fila del producto bloqueada, un confirm repetido en paralelo no inserta dos veces.
+            // La búsqueda es en todos los productos: una misma subida no puede quedar en dos
+            productImageBatchRepository.lockProduct(productId);
+            if (productImageRepository.existsByUrl(image.getUrl())) {
+                throw new ConflictException("La imagen ya está registrada");
+            }
+            ProductImage inserted = productImageBatchRepository.insertAppending(productId, List.of(image)).get(0);
+            catalogVersionService.bumpAfterCommit();
+            return inserted;
+        });
+        logger.info("[ProductImageUploadService] Imagen subida directamente registrada en producto {}: {}",
+                productId, saved.getUrl());
+        return DTOMapper.toProductImageDTO(saved);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploadExecutor.shutdown();
+    }
+
+    private Upload upload(int indice, MultipartFile file, String descripcion) {
+        if (file.isEmpty()) {
+            return new Upload(indice, file, descripcion, null, "El archivo está vacío");
+        }
+        try {
+            imageUploadLimits.checkImage(file);
+        } catch (ValidationException e) {
+            return new Upload(indice, file, descripcion, null, e.getMessage());
+        }
+        try {
+            UploadedImage result = cloudinaryService.uploadProductImage(file, FOLDER);
+            ProductImage image = ProductImage.builder()
+                    .url(result.url())
+                    .ancho(result.ancho())
+                    .alto(result.alto())
+                    .descripcion(descripcion)
+                    .build();
+            ImageVariantSpec.applyTo(image);
+            return new Upload(indice, file, descripcion, image, null);
+        } catch (Exception e) {
+            logger.warn("[ProductImageUploadService] Falló la subida de {}: {}", file.getOriginalFilename(), e.getMessage());
+            return new Upload(indice, file, descripcion, null, "Error al subir la imagen: " + e.getMessage());
+        }
+    }
+
+    private void deleteQuietly(String url) {
+        try {
+            cloudinaryService.deleteImage(url);
+        } catch (Exception e) {
+            logger.warn("[ProductImageUploadService] No se pudo eliminar la imagen huérfana {}: {}", url, e.getMessage());
+        }
+    }
+
+    private static ImageUploadErrorDTO error(Upload upload, String mensaje) {
+        return ImageUploadErrorDTO.builder()
+                .indice(upload.indice())
+                .archivo(upload.file().getOriginalFilename())
+                .mensaje(mensaje)
+                .build();
+    }
+}
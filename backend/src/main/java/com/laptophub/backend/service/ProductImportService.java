@@ -0,0 +1,419 @@
+package com.laptophub.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.dto.ImportRowErrorDTO;
+import com.laptophub.backend.dto.ProductCreateDTO;
+import com.laptophub.backend.dto.ProductImportResultDTO;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.repository.BrandRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Importación masiva de productos desde CSV o JSONL.
+ *
+ * - El archivo se lee fila a fila desde el cuerpo de la petición (nunca se carga completo)
+ * - Las marcas se resuelven contra un mapa en memoria (por id o por nombre)
+ * - Cada fila se valida con las mismas reglas que ProductCreateDTO
+ * - Las filas válidas se escriben en lotes JDBC de BATCH_SIZE, cada lote en su propia transacción
+ * - Filas con columna "id" actualizan ese producto (si no está eliminado); sin "id" se insertan como nuevos
+ * - Si la base rechaza un lote, se reintenta fila a fila para reportar solo las filas culpables
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO products (nombre, descripcion, precio, stock, brand_id, procesador, ram, " +
+            "almacenamiento, pantalla, gpu, peso, created_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL =
+            "UPDATE products SET nombre = ?, descripcion = ?, precio = ?, stock = ?, brand_id = ?, procesador = ?, " +
+            "ram = ?, almacenamiento = ?, pantalla = ?, gpu = ?, peso = ? WHERE id = ? AND deleted_at IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BrandRepository brandRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final InventoryReservationEngine inventoryReservationEngine;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    private record ImportRow(long linea, Long id, ProductCreateDTO product) {
+    }
+
+    /**
+     * Acumula contadores y errores de una importación en curso
+     */
+    private static class ImportProgress {
+        private long filasLeidas;
+        private long insertados;
+        private long actualizados;
+        private long errores;
+        private final List<ImportRowErrorDTO> detalleErrores = new ArrayList<>();
+
+        private void error(long linea, String mensaje) {
+            errores++;
+            if (detalleErrores.size() < MAX_REPORTED_ERRORS) {
+                detalleErrores.add(ImportRowErrorDTO.builder().linea(linea).mensaje(mensaje).build());
+            }
+        }
+    }
+
+    /**
+     * @param body cuerpo de la petición
+     * @param format "csv" (primera fila = encabezados) o "jsonl" (un objeto JSON por línea)
+     */
+    public ProductImportResultDTO importProducts(Reader body, String format) throws IOException {
+        long start = System.currentTimeMillis();
+        String normalizedFormat = format == null ? "" : format.toLowerCase(Locale.ROOT);
+        if (!normalizedFormat.equals("csv") && !normalizedFormat.equals("jsonl")) {
+            throw new ValidationException("Formato de importación no soportado: " + format + ". Use csv o jsonl");
+        }
+
+        Map<Long, Long> brandIds = new HashMap<>();
+        Map<String, Long> brandIdsByName = new HashMap<>();
+        for (Brand brand : brandRepository.findAll()) {
+            brandIds.put(brand.getId(), brand.getId());
+            brandIdsByName.put(brand.getNombre().trim().toLowerCase(Locale.ROOT), brand.getId());
+        }
+
+        ImportProgress progress = new ImportProgress();
+        List<ImportRow> inserts = new ArrayList<>(BATCH_SIZE);
+        List<ImportRow> updates = new ArrayList<>(BATCH_SIZE);
+
+        LineNumberReader reader = new LineNumberReader(body);
+        Iterator<Map.Entry<Long, Map<String, String>>> rows = normalizedFormat.equals("csv")
+                ? csvRows(reader)
+                : jsonlRows(reader, progress);
+
+        while (rows.hasNext()) {
+            Map.Entry<Long, Map<String, String>> entry = rows.next();
+            long linea = entry.getKey();
+            progress.filasLeidas++;
+            try {
+                ImportRow row = toImportRow(linea, entry.getValue(), brandIds, brandIdsByName);
+                (row.id() == null ? inserts : updates).add(row);
+            } catch (IllegalArgumentException e) {
+                progress.error(linea, e.getMessage());
+            }
+
+            if (inserts.size() + updates.size() >= BATCH_SIZE) {
+                flushBatch(inserts, updates, progress);
+            }
+        }
+        flushBatch(inserts, updates, progress);
+
+        long duration = System.currentTimeMillis() - start;
+        logger.info("[ProductImportService] Importación terminada: {} filas, {} insertados, {} actualizados, {} errores en {} ms",
+                progress.filasLeidas, progress.insertados, progress.actualizados, progress.errores, duration);
+
+        return ProductImportResultDTO.builder()
+                .filasLeidas(progress.filasLeidas)
+                .insertados(progress.insertados)
+                .actualizados(progress.actualizados)
+                .errores(progress.errores)
+                .detalleErrores(progress.detalleErrores)
+                .duracionMs(duration)
+                .build();
+    }
+
+    private void flushBatch(List<ImportRow> inserts, List<ImportRow> updates, ImportProgress progress) {
+        if (inserts.isEmpty() && updates.isEmpty()) {
+            return;
+        }
+
+        try {
+            writeAndRecord(inserts, updates, progress);
+        } catch (DataAccessException e) {
+            // El lote completo se revirtió: cada fila se reintenta en su propia transacción
+            logger.warn("[ProductImportService] Lote de {} filas rechazado por la base de datos, se reintenta fila a fila: {}",
+                    inserts.size() + updates.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            for (ImportRow row : inserts) {
+                writeSingleRow(row, progress);
+            }
+            for (ImportRow row : updates) {
+                writeSingleRow(row, progress);
+            }
+        }
+
+        logger.info("[ProductImportService] Progreso: {} filas leídas, {} insertados, {} actualizados, {} errores",
+                progress.filasLeidas, progress.insertados, progress.actualizados, progress.errores);
+        inserts.clear();
+        updates.clear();
+    }
+
+    private void writeSingleRow(ImportRow row, ImportProgress progress) {
+        boolean insert = row.id() == null;
+        try {
+            writeAndRecord(insert ? List.of(row) : List.of(), insert ? List.of() : List.of(row), progress);
+        } catch (DataAccessException e) {
+            progress.error(row.linea(), "Fila rechazada por la base de datos: " +
+                    NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    /**
+     * Escribe inserciones y actualizaciones en una transacción y, si confirma, las suma al progreso.
+     * Las actualizaciones que no encuentran un producto activo se reportan como error de su fila.
+     */
+    private void writeAndRecord(List<ImportRow> inserts, List<ImportRow> updates, ImportProgress progress) {
+        List<ImportRow> missing = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (!inserts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_SQL, inserts, inserts.size(), (ps, row) -> {
+                    bindProduct(ps, row.product());
+                    ps.setObject(12, now);
+                });
+            }
+            if (!updates.isEmpty()) {
+                // Antes del UPDATE: el motor de reservas necesita el stock anterior (la última fila de cada id gana)
+                Map<Long, Integer> stockByProduct = new HashMap<>();
+                updates.forEach(row -> stockByProduct.put(row.id(), row.product().getStock()));
+                inventoryReservationEngine.adjustToStock(stockByProduct);
+                int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, updates, updates.size(), (ps, row) -> {
+                    bindProduct(ps, row.product());
+                    ps.setLong(12, row.id());
+                });
+                for (int i = 0; i < updates.size(); i++) {
+                    if (counts[0][i] == 0) {
+                        missing.add(updates.get(i));
+                    }
+                }
+            }
+            // Las escrituras JDBC no pasan por CatalogVersionListener
+            catalogVersionService.bumpAfterCommit();
+        });
+        progress.insertados += inserts.size();
+        progress.actualizados += updates.size() - missing.size();
+        for (ImportRow row : missing) {
+            progress.error(row.linea(), "Producto no encontrado con id: " + row.id());
+        }
+    }
+
+    private void bindProduct(PreparedStatement ps, ProductCreateDTO product) throws SQLException {
+        ps.setString(1, product.getNombre());
+        ps.setString(2, product.getDescripcion());
+        ps.setBigDecimal(3, product.getPrecio());
+        ps.setInt(4, product.getStock());
+        ps.setLong(5, product.getBrandId());
+        ps.setString(6, product.getProcesador());
+        ps.setObject(7, product.getRam(), Types.INTEGER);
+        ps.setObject(8, product.getAlmacenamiento(), Types.INTEGER);
+        ps.setString(9, product.getPantalla());
+        ps.setString(10, product.getGpu());
+        ps.setBigDecimal(11, product.getPeso());
+    }
+
+    private ImportRow toImportRow(long linea, Map<String, String> row,
+                                  Map<Long, Long> brandIds, Map<String, Long> brandIdsByName) {
+        Long brandId;
+        if (value(row, "brandid") != null) {
+            brandId = brandIds.get(parseLong(row, "brandid"));
+            if (brandId == null) {
+                throw new IllegalArgumentException("Marca no encontrada con id: " + value(row, "brandid"));
+            }
+        } else if (value(row, "marca") != null || value(row, "brand") != null) {
+            String nombre = value(row, "marca") != null ? value(row, "marca") : value(row, "brand");
+            brandId = brandIdsByName.get(nombre.toLowerCase(Locale.ROOT));
+            if (brandId == null) {
+                throw new IllegalArgumentException("Marca no encontrada: " + nombre);
+            }
+        } else {
+            brandId = null;
+        }
+
+        ProductCreateDTO product = ProductCreateDTO.builder()
+                .nombre(value(row, "nombre"))
+                .descripcion(value(row, "descripcion"))
+                .precio(parseDecimal(row, "precio"))
+                .stock(parseInteger(row, "stock"))
+                .brandId(brandId)
+                .procesador(value(row, "procesador"))
+                .ram(parseInteger(row, "ram"))
+                .almacenamiento(parseInteger(row, "almacenamiento"))
+                .pantalla(value(row, "pantalla"))
+                .gpu(value(row, "gpu"))
+                .peso(parseDecimal(row, "peso"))
+                .build();
+
+        Set<ConstraintViolation<ProductCreateDTO>> violations = validator.validate(product);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+        return new ImportRow(linea, value(row, "id") != null ? parseLong(row, "id") : null, product);
+    }
+
+    private Iterator<Map.Entry<Long, Map<String, String>>> csvRows(LineNumberReader reader) throws IOException {
+        List<String> header = CsvSupport.readRecord(reader);
+        if (header == null) {
+            return Collections.emptyIterator();
+        }
+        List<String> columns = header.stream()
+                .map(column -> column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT))
+                .toList();
+
+        return new RowIterator() {
+            @Override
+            protected Map.Entry<Long, Map<String, String>> readNext() throws IOException {
+                while (true) {
+                    long linea = reader.getLineNumber() + 1;
+                    List<String> record = CsvSupport.readRecord(reader);
+                    if (record == null) {
+                        return null;
+                    }
+                    if (record.size() == 1 && record.get(0).isBlank()) {
+                        continue;
+                    }
+                    Map<String, String> row = new HashMap<>();
+                    for (int i = 0; i < columns.size() && i < record.size(); i++) {
+                        row.put(columns.get(i), record.get(i));
+                    }
+                    return Map.entry(linea, row);
+                }
+            }
+        };
+    }
+
+    private Iterator<Map.Entry<Long, Map<String, String>>> jsonlRows(LineNumberReader reader, ImportProgress progress) {
+        return new RowIterator() {
+            @Override
+            protected Map.Entry<Long, Map<String, String>> readNext() throws IOException {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    long linea = reader.getLineNumber();
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    JsonNode node;
+                    try {
+                        node = objectMapper.readTree(line);
+                    } catch (IOException e) {
+                        node = null;
+                    }
+                    if (node == null || !node.isObject()) {
+                        progress.filasLeidas++;
+                        progress.error(linea, "JSON inválido");
+                        continue;
+                    }
+                    Map<String, String> row = new HashMap<>();
+                    node.fields().forEachRemaining(field -> row.put(
+                            field.getKey().toLowerCase(Locale.ROOT),
+                            field.getValue().isNull() ? null : field.getValue().asText()));
+                    return Map.entry(linea, row);
+                }
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Iterador perezoso de filas (línea de inicio → columnas): solo lee del stream cuando se pide la siguiente,
+     * así los errores de parseo quedan en el mismo orden que las filas.
+     */
+    private abstract static class RowIterator implements Iterator<Map.Entry<Long, Map<String, String>>> {
+        private Map.Entry<Long, Map<String, String>> next;
+        private boolean finished;
+
+        protected abstract Map.Entry<Long, Map<String, String>> readNext() throws IOException;
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) {
+                try {
+                    next = readNext();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                finished = next == null;
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Long, Map<String, String>> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<Long, Map<String, String>> current = next;
+            next = null;
+            return current;
+        }
+    }
+
+    private String value(Map<String, String> row, String column) {
+        String value = row.get(column);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private Long parseLong(Map<String, String> row, String column) {
+        try {
+            return Long.valueOf(value(row, column));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para '" + column + "': " + row.get(column));
+        }
+    }
+
+    private Integer parseInteger(Map<String, String> row, String column) {
+        String value = value(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para '" + column + "': " + value);
+        }
+    }
+
+    private BigDecimal parseDecimal(Map<String, String> row, String column) {
+        String value = value(row, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para '" + column + "': " + value);
+        }
+    }
+}
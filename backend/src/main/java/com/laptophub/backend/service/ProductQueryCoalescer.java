@@ -0,0 +1,74 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.ProductListDTO;
+import com.laptophub.backend.dto.ProductResponseDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * Agrupa búsquedas de catálogo y detalles de producto idénticos que llegan a la vez
+ * (p. ej. miles de visitas desde un enlace de promoción) en una sola consulta a ProductService.
+ *
+ * La clave normaliza los parámetros tal como los interpreta la búsqueda (mayúsculas en el nombre,
+ * orden por defecto, vista de admin o pública) e incluye la versión del catálogo: quien llega después
+ * de un cambio confirmado no recibe un resultado calculado antes del cambio.
+ * Este servicio no abre transacción: quienes esperan no ocupan conexiones.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductQueryCoalescer {
+
+    private record SearchKey(String nombre, Long brandId, String sortBy, String sort,
+                             int page, int size, boolean isAdmin, boolean onlyActive, String catalogVersion) {
+    }
+
+    private record DetailKey(Long id, String catalogVersion) {
+    }
+
+    private final ProductService productService;
+    private final CatalogVersionService catalogVersionService;
+
+    private final SingleFlight<SearchKey, Page<ProductListDTO>> searches = new SingleFlight<>();
+    private final SingleFlight<DetailKey, ProductResponseDTO> details = new SingleFlight<>();
+
+    /**
+     * Igual que ProductService.search, compartiendo la ejecución con llamadas idénticas en curso
+     */
+    public Page<ProductListDTO> search(String nombre, Long brandId, String sortBy, String sort,
+                                       @NonNull Pageable pageable, boolean isAdmin, boolean onlyActive) {
+        SearchKey key = new SearchKey(
+                nombre == null || nombre.isEmpty() ? null : nombre.toLowerCase(Locale.ROOT),
+                brandId,
+                normalizeSortBy(sortBy),
+                "asc".equalsIgnoreCase(sort) ? "asc" : "desc",
+                pageable.getPageNumber(),
+                pageable.getPageSize(),
+                isAdmin,
+                onlyActive,
+                catalogVersionService.currentVersion());
+        return searches.run(key, () -> productService.search(
+                key.nombre(), key.brandId(), key.sortBy(), key.sort(), pageable, key.isAdmin(), key.onlyActive()));
+    }
+
+    /**
+     * Igual que ProductService.findByIdDTO, compartiendo la ejecución con llamadas en curso para el mismo id
+     */
+    public ProductResponseDTO findByIdDTO(Long id) {
+        return details.run(new DetailKey(id, catalogVersionService.currentVersion()),
+                () -> productService.findByIdDTO(id));
+    }
+
+    private static String normalizeSortBy(String sortBy) {
+        for (String known : new String[]{"rating", "price", "name"}) {
+            if (known.equalsIgnoreCase(sortBy)) {
+                return known;
+            }
+        }
+        return "createdAt";
+    }
+}
@@ -2,7 +2,6 @@ package com.laptophub.backend.service;
 
 
 import com.laptophub.backend.dto.*;
-import com.laptophub.backend.model.Brand;
 import com.laptophub.backend.model.Product;
 import com.laptophub.backend.model.ProductImage;
 import com.laptophub.backend.model.Review;
@@ -20,6 +19,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 import org.springframework.data.domain.PageImpl;
 
@@ -31,6 +31,8 @@ public class ProductService {
     private final ProductImageRepository productImageRepository;
     private final ReviewRepository reviewRepository;
     private final BrandRepository brandRepository;
+    private final BrandRegistry brandRegistry;
+    private final InventoryReservationEngine inventoryReservationEngine;
     private final CartItemRepository cartItemRepository;
     @SuppressWarnings("unused")
     private final CloudinaryService cloudinaryService;
@@ -103,7 +105,7 @@ public class ProductService {
                     List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
                     ProductImage mainImage = images.isEmpty() ? null : images.get(0);
                     Double avgRating = getAverageRatingForProduct(product.getId());
-                    return DTOMapper.toProductListDTO(product, mainImage, avgRating);
+                    return DTOMapper.toProductListDTO(product, brandRegistry.forProduct(product), mainImage, avgRating);
                 })
                 .collect(Collectors.toList());
         
@@ -132,7 +134,7 @@ public class ProductService {
             List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
             ProductImage mainImage = images.isEmpty() ? null : images.get(0);
             Double avgRating = getAverageRatingForProduct(product.getId());
-            return DTOMapper.toProductListDTO(product, mainImage, avgRating);
+            return DTOMapper.toProductListDTO(product, brandRegistry.forProduct(product), mainImage, avgRating);
         });
     }
     
@@ -142,7 +144,7 @@ public class ProductService {
             List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(product.getId());
             ProductImage mainImage = images.isEmpty() ? null : images.get(0);
             Double avgRating = getAverageRatingForProduct(product.getId());
-            return DTOMapper.toProductListDTO(product, mainImage, avgRating);
+            return DTOMapper.toProductListDTO(product, brandRegistry.forProduct(product), mainImage, avgRating);
         });
     }
     
@@ -163,18 +165,17 @@ public class ProductService {
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(id);
         List<Review> reviews = reviewRepository.findByProduct(product);
         Double avgRating = getAverageRatingForProduct(id);
-        return DTOMapper.toProductResponse(product, images, reviews, avgRating);
+        return DTOMapper.toProductResponse(product, brandRegistry.forProduct(product), images, reviews, avgRating);
     }
 
     @Transactional
     @SuppressWarnings("null")
     public ProductResponseDTO createProduct(ProductCreateDTO dto) {
-        Brand brand = brandRepository.findById(dto.getBrandId())
-                .orElseThrow(() -> new ResourceNotFoundException("Marca no encontrada con id: " + dto.getBrandId()));
+        BrandResponseDTO brand = requireBrand(dto.getBrandId());
         
-        Product product = DTOMapper.toProduct(dto, brand);
+        Product product = DTOMapper.toProduct(dto, brandRepository.getReferenceById(brand.getId()));
         Product saved = productRepository.save(product);
-        return DTOMapper.toProductResponse(saved, List.of(), List.of(), 0.0);
+        return DTOMapper.toProductResponse(saved, brand, List.of(), List.of(), 0.0);
     }
     
     @Transactional
@@ -185,11 +186,13 @@ public class ProductService {
         if (dto.getNombre() != null) existingProduct.setNombre(dto.getNombre());
         if (dto.getDescripcion() != null) existingProduct.setDescripcion(dto.getDescripcion());
         if (dto.getPrecio() != null) existingProduct.setPrecio(dto.getPrecio());
-        if (dto.getStock() != null) existingProduct.setStock(dto.getStock());
+        if (dto.getStock() != null) {
+            inventoryReservationEngine.adjustToStock(Map.of(id, dto.getStock()));
+            existingProduct.setStock(dto.getStock());
+        }
         if (dto.getBrandId() != null) {
-            Brand brand = brandRepository.findById(dto.getBrandId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Marca no encontrada con id: " + dto.getBrandId()));
-            existingProduct.setBrand(brand);
+            BrandResponseDTO brand = requireBrand(dto.getBrandId());
+            existingProduct.setBrand(brandRepository.getReferenceById(brand.getId()));
         }
         if (dto.getProcesador() != null) existingProduct.setProcesador(dto.getProcesador());
         if (dto.getRam() != null) existingProduct.setRam(dto.getRam());
@@ -202,7 +205,7 @@ public class ProductService {
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(id);
         List<Review> reviews = reviewRepository.findByProduct(saved);
         Double avgRating = getAverageRatingForProduct(id);
-        return DTOMapper.toProductResponse(saved, images, reviews, avgRating);
+        return DTOMapper.toProductResponse(saved, brandRegistry.forProduct(saved), images, reviews, avgRating);
     }
     
     @Transactional
@@ -232,7 +235,18 @@ public class ProductService {
         List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(id);
         List<Review> reviews = reviewRepository.findByProduct(saved);
         Double avgRating = getAverageRatingForProduct(id);
-        return DTOMapper.toProductResponse(saved, images, reviews, avgRating);
+        return DTOMapper.toProductResponse(saved, brandRegistry.forProduct(saved), images, reviews, avgRating);
+    }
+    
+    /**
+     * Valida la marca contra BrandRegistry; el producto solo guarda la referencia (sin SELECT de la marca)
+     */
+    private BrandResponseDTO requireBrand(Long brandId) {
+        BrandResponseDTO brand = brandRegistry.get(brandId);
+        if (brand == null) {
+            throw new ResourceNotFoundException("Marca no encontrada con id: " + brandId);
+        }
+        return brand;
     }
     
     @SuppressWarnings("null")
@@ -0,0 +1,77 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.model.Order;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.repository.PurchaseLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Mantiene purchase_ledger, el índice (usuario, producto) que responde "¿el usuario compró este producto?".
+ *
+ * - Una orden que entra a ENTREGADO agrega sus pares (idempotente)
+ * - Una orden que sale de ENTREGADO quita sus pares, salvo que otra orden entregada los cubra
+ * - Al arrancar, si la tabla está vacía se llena con el historial de órdenes entregadas
+ */
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class PurchaseLedgerService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseLedgerService.class);
+
+    private final PurchaseLedgerRepository purchaseLedgerRepository;
+
+    @Transactional(readOnly = true)
+    public boolean hasPurchased(UUID userId, Long productId) {
+        return purchaseLedgerRepository.exists(userId, productId);
+    }
+
+    /**
+     * Registra el cambio de estado de una orden, dentro de la misma transacción que lo persiste
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, OrderStatus anterior, OrderStatus nuevo) {
+        boolean antes = anterior == OrderStatus.ENTREGADO;
+        boolean despues = nuevo == OrderStatus.ENTREGADO;
+        if (antes == despues) {
+            return;
+        }
+
+        if (despues) {
+            int filas = purchaseLedgerRepository.recordOrder(order.getId());
+            logger.info("[PurchaseLedgerService] Orden {} entregada: {} compras registradas", order.getId(), filas);
+        } else {
+            int filas = purchaseLedgerRepository.removeOrder(order.getId());
+            logger.info("[PurchaseLedgerService] Orden {} salió de ENTREGADO ({}): {} compras retiradas", order.getId(), nuevo, filas);
+        }
+    }
+
+    /**
+     * Registra un lote de órdenes que acaban de pasar a ENTREGADO con un UPDATE masivo
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDelivered(Collection<Long> orderIds) {
+        purchaseLedgerRepository.recordDeliveredOrders(orderIds);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillIfEmpty() {
+        if (!purchaseLedgerRepository.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int filas = purchaseLedgerRepository.backfill();
+        logger.info("[PurchaseLedgerService] Historial de compras cargado: {} filas en {} ms", filas, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,112 @@
+package com.laptophub.backend.service;
+
+import com.laptophub.backend.dto.SalesReportDTO;
+import com.laptophub.backend.dto.SalesRollupRowDTO;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Order;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.repository.SalesRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Mantiene sales_daily_rollups de forma incremental.
+ *
+ * Una orden cuenta como venta mientras está en PROCESANDO, ENVIADO o ENTREGADO.
+ * Cada cambio de estado se traduce en un delta: entrar a esos estados suma sus items,
+ * salir de ellos (cancelación, expiración) los resta, y moverse entre ellos no hace nada.
+ * Por eso aplicar dos veces la misma transición (p. ej. un webhook repetido) no duplica ventas.
+ */
+@Service
+@RequiredArgsConstructor
+@SuppressWarnings("null")
+public class SalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private static final Set<OrderStatus> COUNTED = EnumSet.of(
+            OrderStatus.PROCESANDO, OrderStatus.ENVIADO, OrderStatus.ENTREGADO);
+
+    private static final long MAX_RANGE_DAYS = 366;
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    /**
+     * Registra el cambio de estado de una orden. Debe llamarse dentro de la misma transacción
+     * que persiste el nuevo estado, con el estado anterior tal como estaba antes del cambio.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransition(Order order, OrderStatus anterior, OrderStatus nuevo) {
+        boolean antes = anterior != null && COUNTED.contains(anterior);
+        boolean despues = nuevo != null && COUNTED.contains(nuevo);
+        if (antes == despues) {
+            return;
+        }
+
+        int signo = despues ? 1 : -1;
+        int filas = salesRollupRepository.applyOrderDelta(order.getId(), signo);
+        logger.info("[SalesRollupService] Orden {} {} -> {}: delta {} aplicado a {} filas de ventas",
+                order.getId(), anterior, nuevo, signo, filas);
+    }
+
+    @Transactional(readOnly = true)
+    public SalesReportDTO getReport(LocalDate desde, LocalDate hasta, String agrupar) {
+        if (desde == null || hasta == null) {
+            throw new ValidationException("Los parámetros desde y hasta son obligatorios");
+        }
+        if (hasta.isBefore(desde)) {
+            throw new ValidationException("La fecha hasta no puede ser anterior a desde");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= MAX_RANGE_DAYS) {
+            throw new ValidationException("El rango máximo es de " + MAX_RANGE_DAYS + " días");
+        }
+
+        String grouping = agrupar == null ? "dia" : agrupar.trim().toLowerCase(Locale.ROOT);
+        List<SalesRollupRowDTO> filas = switch (grouping) {
+            case "dia" -> salesRollupRepository.sumByDay(desde, hasta);
+            case "producto" -> salesRollupRepository.sumByProduct(desde, hasta);
+            case "marca" -> salesRollupRepository.sumByBrand(desde, hasta);
+            default -> throw new ValidationException("Agrupación no soportada: " + agrupar + " (usa dia, producto o marca)");
+        };
+
+        long unidades = 0;
+        BigDecimal ingresos = BigDecimal.ZERO;
+        for (SalesRollupRowDTO fila : filas) {
+            unidades += fila.getUnidades();
+            ingresos = ingresos.add(fila.getIngresos());
+        }
+
+        return SalesReportDTO.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .agrupar(grouping)
+                .unidades(unidades)
+                .ingresos(ingresos)
+                .filas(filas)
+                .build();
+    }
+
+    /**
+     * Recalcula la tabla desde cero. Sirve para poblarla la primera vez y para corregir
+     * desvíos (p. ej. órdenes modificadas directamente en la base).
+     */
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        int filas = salesRollupRepository.rebuild();
+        logger.info("[SalesRollupService] Ventas recalculadas: {} filas en {} ms", filas, System.currentTimeMillis() - start);
+        return filas;
+    }
+}
@@ -0,0 +1,69 @@
+package com.laptophub.backend.service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Agrupa llamadas simultáneas con la misma clave en una sola ejecución.
+ * La primera llamada calcula el valor en su propio hilo; las que llegan mientras tanto esperan y
+ * reciben el mismo resultado (o la misma excepción). Al terminar la clave se libera: no es una caché,
+ * la siguiente llamada vuelve a calcular.
+ */
+public final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public V run(K key, Supplier<V> computation) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            shared.incrementAndGet();
+            return await(running);
+        }
+        executions.incrementAndGet();
+        try {
+            V value = computation.get();
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /**
+     * Llamadas que ejecutaron el cálculo
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    /**
+     * Llamadas que recibieron el resultado de otra ejecución en curso
+     */
+    public long getShared() {
+        return shared.get();
+    }
+
+    private static <V> V await(CompletableFuture<V> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+}
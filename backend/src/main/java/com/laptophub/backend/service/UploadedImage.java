@@ -0,0 +1,7 @@
+package com.laptophub.backend.service;
+
+/**
+ * Resultado de subir una imagen: URL de entrega y dimensiones del original (null si no se conocen)
+ */
+public record UploadedImage(String url, Integer ancho, Integer alto) {
+}
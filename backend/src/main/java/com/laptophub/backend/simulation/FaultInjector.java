@@ -0,0 +1,37 @@
+package com.laptophub.backend.simulation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latencia y fallos configurables para los simuladores del perfil "simulated".
+ * Cada simulador crea su propia instancia con los valores de sus propiedades.
+ */
+public class FaultInjector {
+
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double failureRate;
+
+    public FaultInjector(long latencyMs, long jitterMs, double failureRate) {
+        this.latencyMs = Math.max(0, latencyMs);
+        this.jitterMs = Math.max(0, jitterMs);
+        this.failureRate = Math.min(1.0, Math.max(0.0, failureRate));
+    }
+
+    /**
+     * Espera la latencia configurada (más un jitter aleatorio) y decide si la llamada debe fallar.
+     * @return true si la llamada simulada debe terminar en error
+     */
+    public boolean simulateCall() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long pause = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (pause > 0) {
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return failureRate > 0 && random.nextDouble() < failureRate;
+    }
+}
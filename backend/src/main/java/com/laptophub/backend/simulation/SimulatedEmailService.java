@@ -0,0 +1,36 @@
+package com.laptophub.backend.simulation;
+
+import com.laptophub.backend.service.EmailService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+/**
+ * Sustituto en proceso de Brevo para el perfil "simulated".
+ * No envía correos: registra en el log el destinatario y el token de restablecimiento.
+ */
+@Service
+@Profile("simulated")
+public class SimulatedEmailService extends EmailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulatedEmailService.class);
+
+    private final FaultInjector faults;
+
+    public SimulatedEmailService(
+            @Value("${simulation.brevo.latency-ms:150}") long latencyMs,
+            @Value("${simulation.brevo.jitter-ms:50}") long jitterMs,
+            @Value("${simulation.brevo.failure-rate:0.0}") double failureRate) {
+        this.faults = new FaultInjector(latencyMs, jitterMs, failureRate);
+    }
+
+    @Override
+    public void sendPasswordResetEmail(String toEmail, String token) {
+        if (faults.simulateCall()) {
+            throw new RuntimeException("Error al enviar correo por Brevo: fallo simulado");
+        }
+        logger.info("[SimulatedEmailService] Correo de restablecimiento para {} con token {}", toEmail, token);
+    }
+}
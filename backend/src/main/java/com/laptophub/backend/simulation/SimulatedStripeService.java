@@ -0,0 +1,102 @@
+package com.laptophub.backend.simulation;
+
+import com.laptophub.backend.service.StripeService;
+import com.stripe.exception.ApiConnectionException;
+import com.stripe.exception.StripeException;
+import com.stripe.model.PaymentIntent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sustituto en proceso de Stripe para el perfil "simulated".
+ * Crea PaymentIntents falsos en memoria (prefijo pi_sim_) sin llamar a la API real.
+ * Los webhooks se simulan firmando el payload con stripe.webhook.secret.
+ */
+@Service
+@Profile("simulated")
+public class SimulatedStripeService extends StripeService {
+
+    private static final int MAX_INTENTS = 100_000;
+
+    private final Map<String, PaymentIntent> intents = new ConcurrentHashMap<>();
+    private final FaultInjector faults;
+
+    public SimulatedStripeService(
+            @Value("${simulation.stripe.latency-ms:120}") long latencyMs,
+            @Value("${simulation.stripe.jitter-ms:60}") long jitterMs,
+            @Value("${simulation.stripe.failure-rate:0.0}") double failureRate) {
+        this.faults = new FaultInjector(latencyMs, jitterMs, failureRate);
+    }
+
+    @Override
+    public PaymentIntent createPaymentIntent(Long orderId, BigDecimal amount, String email) throws StripeException {
+        simulate("crear PaymentIntent");
+
+        String id = "pi_sim_" + UUID.randomUUID().toString().replace("-", "");
+        PaymentIntent paymentIntent = new PaymentIntent();
+        paymentIntent.setId(id);
+        paymentIntent.setObject("payment_intent");
+        paymentIntent.setAmount(amount.multiply(new BigDecimal("100")).longValue());
+        paymentIntent.setCurrency("usd");
+        paymentIntent.setDescription("Pago de orden LaptopHub #" + orderId);
+        paymentIntent.setReceiptEmail(email);
+        paymentIntent.setMetadata(Map.of("orderId", orderId.toString()));
+        paymentIntent.setStatus("requires_payment_method");
+        paymentIntent.setClientSecret(id + "_secret_" + UUID.randomUUID().toString().replace("-", ""));
+
+        // Mismo criterio que LoginRateLimiterService.cleanupCache: evita crecer sin límite en pruebas largas
+        if (intents.size() > MAX_INTENTS) {
+            intents.clear();
+        }
+        intents.put(id, paymentIntent);
+        return paymentIntent;
+    }
+
+    /**
+     * En el simulador, confirmar equivale a que el cliente completó el pago con tarjeta.
+     */
+    @Override
+    public PaymentIntent confirmPayment(String paymentIntentId) throws StripeException {
+        PaymentIntent paymentIntent = retrievePaymentIntent(paymentIntentId);
+        paymentIntent.setStatus("succeeded");
+        return paymentIntent;
+    }
+
+    @Override
+    public PaymentIntent retrievePaymentIntent(String paymentIntentId) throws StripeException {
+        simulate("recuperar PaymentIntent");
+        // Si el intent fue descartado por el límite de memoria se reconstruye como pendiente
+        return intents.computeIfAbsent(paymentIntentId, id -> {
+            PaymentIntent paymentIntent = new PaymentIntent();
+            paymentIntent.setId(id);
+            paymentIntent.setObject("payment_intent");
+            paymentIntent.setStatus("requires_payment_method");
+            paymentIntent.setClientSecret(id + "_secret_simulated");
+            return paymentIntent;
+        });
+    }
+
+    @Override
+    public PaymentIntent cancelPaymentIntent(String paymentIntentId) throws StripeException {
+        PaymentIntent paymentIntent = retrievePaymentIntent(paymentIntentId);
+        paymentIntent.setStatus("canceled");
+        return paymentIntent;
+    }
+
+    @Override
+    public boolean isPaymentSucceeded(String paymentIntentId) throws StripeException {
+        return "succeeded".equals(retrievePaymentIntent(paymentIntentId).getStatus());
+    }
+
+    private void simulate(String operation) throws StripeException {
+        if (faults.simulateCall()) {
+            throw new ApiConnectionException("Fallo simulado de Stripe al " + operation);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+-- Esquema base de LaptopHub, equivalente al que Hibernate generaba con ddl-auto antes de usar migraciones.
+-- Las bases existentes se marcan en esta versión sin ejecutarla (spring.flyway.baseline-on-migrate=true).
+
+CREATE TABLE users (
+    id          UUID         NOT NULL,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    nombre      VARCHAR(255) NOT NULL,
+    apellido    VARCHAR(255) NOT NULL,
+    telefono    VARCHAR(255),
+    direccion   TEXT,
+    role        VARCHAR(255) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    deleted_at  TIMESTAMP(6),
+    CONSTRAINT pk_users PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE brands (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre      VARCHAR(255) NOT NULL,
+    descripcion TEXT,
+    image_url   TEXT,
+    created_at  TIMESTAMP(6) NOT NULL,
+    deleted_at  TIMESTAMP(6),
+    CONSTRAINT pk_brands PRIMARY KEY (id),
+    CONSTRAINT uk_brands_nombre UNIQUE (nombre)
+);
+
+CREATE TABLE products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    nombre         VARCHAR(255)   NOT NULL,
+    descripcion    TEXT,
+    precio         NUMERIC(38, 2) NOT NULL,
+    stock          INTEGER        NOT NULL,
+    brand_id       BIGINT,
+    procesador     VARCHAR(255),
+    ram            INTEGER,
+    almacenamiento INTEGER,
+    pantalla       VARCHAR(255),
+    gpu            VARCHAR(255),
+    peso           NUMERIC(38, 2),
+    created_at     TIMESTAMP(6)   NOT NULL,
+    deleted_at     TIMESTAMP(6),
+    CONSTRAINT pk_products PRIMARY KEY (id),
+    CONSTRAINT fk_products_brand FOREIGN KEY (brand_id) REFERENCES brands (id)
+);
+
+CREATE TABLE product_images (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    url         VARCHAR(500) NOT NULL,
+    orden       INTEGER      NOT NULL,
+    descripcion VARCHAR(200),
+    product_id  BIGINT       NOT NULL,
+    CONSTRAINT pk_product_images PRIMARY KEY (id),
+    CONSTRAINT fk_product_images_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE reviews (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    product_id  BIGINT       NOT NULL,
+    user_id     UUID         NOT NULL,
+    rating      INTEGER      NOT NULL,
+    comentario  TEXT,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_reviews PRIMARY KEY (id),
+    CONSTRAINT fk_reviews_product FOREIGN KEY (product_id) REFERENCES products (id),
+    CONSTRAINT fk_reviews_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE cart (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id     UUID         NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_cart PRIMARY KEY (id),
+    CONSTRAINT fk_cart_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE cart_items (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    cart_id     BIGINT  NOT NULL,
+    product_id  BIGINT  NOT NULL,
+    cantidad    INTEGER NOT NULL,
+    CONSTRAINT pk_cart_items PRIMARY KEY (id),
+    CONSTRAINT fk_cart_items_cart FOREIGN KEY (cart_id) REFERENCES cart (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE orders (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id         UUID           NOT NULL,
+    total           NUMERIC(38, 2) NOT NULL,
+    estado          VARCHAR(255)   NOT NULL,
+    direccion_envio TEXT           NOT NULL,
+    expires_at      TIMESTAMP(6),
+    created_at      TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_orders PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE order_items (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    order_id        BIGINT         NOT NULL,
+    product_id      BIGINT         NOT NULL,
+    cantidad        INTEGER        NOT NULL,
+    precio_unitario NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT pk_order_items PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES products (id)
+);
+
+CREATE TABLE payments (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    order_id          BIGINT         NOT NULL,
+    stripe_payment_id VARCHAR(255),
+    monto             NUMERIC(38, 2) NOT NULL,
+    estado            VARCHAR(255)   NOT NULL,
+    created_at        TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_payments PRIMARY KEY (id),
+    CONSTRAINT uk_payments_order UNIQUE (order_id),
+    CONSTRAINT fk_payments_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+CREATE TABLE password_reset_tokens (
+    id          UUID         NOT NULL,
+    user_id     UUID         NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    used        BOOLEAN      NOT NULL,
+    CONSTRAINT pk_password_reset_tokens PRIMARY KEY (id),
+    CONSTRAINT fk_password_reset_tokens_user FOREIGN KEY (user_id) REFERENCES users (id) ON DELETE CASCADE
+);
@@ -0,0 +1,25 @@
+-- sales_daily_rollups: ventas acumuladas por día × producto × marca (ver SalesRollupService).
+-- Es idempotente porque las bases de desarrollo pueden tener ya la tabla creada por ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS sales_daily_rollups (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    dia         DATE           NOT NULL,
+    product_id  BIGINT         NOT NULL,
+    brand_id    BIGINT         NOT NULL,
+    unidades    BIGINT         NOT NULL,
+    ingresos    NUMERIC(14, 2) NOT NULL,
+    updated_at  TIMESTAMP(6)   NOT NULL,
+    CONSTRAINT pk_sales_daily_rollups PRIMARY KEY (id),
+    CONSTRAINT uk_sales_rollups_dia_product_brand UNIQUE (dia, product_id, brand_id)
+);
+
+-- Carga inicial desde el historial (no toca filas existentes)
+INSERT INTO sales_daily_rollups (dia, product_id, brand_id, unidades, ingresos, updated_at)
+SELECT CAST(o.created_at AS date), oi.product_id, COALESCE(p.brand_id, 0),
+       SUM(oi.cantidad), SUM(oi.cantidad * oi.precio_unitario), now()
+FROM orders o
+JOIN order_items oi ON oi.order_id = o.id
+JOIN products p ON p.id = oi.product_id
+WHERE o.estado IN ('PROCESANDO', 'ENVIADO', 'ENTREGADO')
+GROUP BY CAST(o.created_at AS date), oi.product_id, COALESCE(p.brand_id, 0)
+ON CONFLICT (dia, product_id, brand_id) DO NOTHING;
@@ -0,0 +1,18 @@
+-- purchase_ledger: pares (usuario, producto) con al menos una orden ENTREGADO (ver PurchaseLedgerService).
+-- Es idempotente porque las bases de desarrollo pueden tener ya la tabla creada por ddl-auto=update.
+
+CREATE TABLE IF NOT EXISTS purchase_ledger (
+    user_id     UUID         NOT NULL,
+    product_id  BIGINT       NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_purchase_ledger PRIMARY KEY (user_id, product_id)
+);
+
+-- Carga inicial desde el historial (no toca filas existentes)
+INSERT INTO purchase_ledger (user_id, product_id, created_at)
+SELECT o.user_id, oi.product_id, MIN(o.created_at)
+FROM orders o
+JOIN order_items oi ON oi.order_id = o.id
+WHERE o.estado = 'ENTREGADO'
+GROUP BY o.user_id, oi.product_id
+ON CONFLICT (user_id, product_id) DO NOTHING;
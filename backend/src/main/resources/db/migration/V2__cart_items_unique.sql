@@ -0,0 +1,26 @@
+-- cart_items: una sola fila por (cart_id, product_id), requerida por los upserts del carrito (ON CONFLICT).
+-- Es idempotente porque las bases de desarrollo pueden tener ya la restricción creada por ddl-auto=update.
+
+-- Consolidar líneas duplicadas del carrito (se suman las cantidades en la fila más antigua)
+UPDATE cart_items ci
+SET cantidad = dup.total
+FROM (
+    SELECT MIN(id) AS keep_id, SUM(cantidad) AS total
+    FROM cart_items
+    GROUP BY cart_id, product_id
+    HAVING COUNT(*) > 1
+) dup
+WHERE ci.id = dup.keep_id;
+
+DELETE FROM cart_items ci
+USING cart_items keep
+WHERE ci.cart_id = keep.cart_id
+  AND ci.product_id = keep.product_id
+  AND ci.id > keep.id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_cart_items_cart_product') THEN
+        ALTER TABLE cart_items ADD CONSTRAINT uk_cart_items_cart_product UNIQUE (cart_id, product_id);
+    END IF;
+END $$;
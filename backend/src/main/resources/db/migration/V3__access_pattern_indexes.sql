@@ -0,0 +1,32 @@
+-- Índices para los patrones de acceso reales. Se crean CONCURRENTLY para no bloquear escrituras
+-- en producción; Flyway ejecuta este script fuera de transacción porque todas sus sentencias lo requieren.
+-- La lista debe coincidir con SchemaIndexVerifier.EXPECTED_INDEXES.
+
+-- Expiración de órdenes pendientes: estado = 'PENDIENTE_PAGO' AND expires_at < now
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_estado_expires_at ON orders (estado, expires_at);
+
+-- Historial del usuario, más recientes primero
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_orders_user_id_created_at ON orders (user_id, created_at DESC);
+
+-- Items de una orden (carga del grafo, exportación, rollups)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+
+-- Reseñas y rating promedio por producto
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_reviews_product_id ON reviews (product_id);
+
+-- Imágenes de un producto en orden; también resuelve la imagen principal (MIN(orden))
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_product_images_product_id_orden ON product_images (product_id, orden);
+
+-- Carrito activo del usuario. cart_items(cart_id) ya está cubierto por uk_cart_items_cart_product (cart_id, product_id)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_cart_user_id ON cart (user_id);
+
+-- Webhook de Stripe: búsqueda del pago por PaymentIntent
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_payments_stripe_payment_id ON payments (stripe_payment_id);
+
+-- Catálogo activo (deleted_at IS NULL): orden por precio, por fecha y filtro por marca
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_active_precio ON products (precio) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_active_created_at ON products (created_at DESC) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_products_active_brand_id ON products (brand_id) WHERE deleted_at IS NULL;
+
+-- Marcas activas
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_brands_active_nombre ON brands (nombre) WHERE deleted_at IS NULL;
@@ -0,0 +1,12 @@
+-- Diario de movimientos de stock del motor de reservas en memoria (app.inventory.engine.enabled).
+-- Solo contiene movimientos confirmados pendientes de sumar a products.stock.
+CREATE TABLE IF NOT EXISTS inventory_movements (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    product_id  BIGINT       NOT NULL,
+    order_id    BIGINT,
+    delta       INTEGER      NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    CONSTRAINT pk_inventory_movements PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inventory_movements_product_id ON inventory_movements (product_id);
@@ -0,0 +1,13 @@
+-- Respuestas guardadas por Idempotency-Key (checkout y creación de pagos).
+-- Una fila sin completed_at es una ejecución en curso; al completarse guarda la respuesta en JSON.
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope            VARCHAR(150) NOT NULL,
+    idempotency_key  VARCHAR(100) NOT NULL,
+    request_hash     VARCHAR(64)  NOT NULL,
+    response_body    TEXT,
+    created_at       TIMESTAMP(6) NOT NULL,
+    completed_at     TIMESTAMP(6),
+    CONSTRAINT pk_idempotency_keys PRIMARY KEY (scope, idempotency_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
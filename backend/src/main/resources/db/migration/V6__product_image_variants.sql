@@ -0,0 +1,22 @@
+-- Variantes redimensionadas de las imágenes de producto (miniatura, tarjeta, detalle) y dimensiones del original.
+ALTER TABLE product_images
+    ADD COLUMN IF NOT EXISTS ancho           INTEGER,
+    ADD COLUMN IF NOT EXISTS alto            INTEGER,
+    ADD COLUMN IF NOT EXISTS miniatura_url   VARCHAR(600),
+    ADD COLUMN IF NOT EXISTS miniatura_ancho INTEGER,
+    ADD COLUMN IF NOT EXISTS miniatura_alto  INTEGER,
+    ADD COLUMN IF NOT EXISTS tarjeta_url     VARCHAR(600),
+    ADD COLUMN IF NOT EXISTS tarjeta_ancho   INTEGER,
+    ADD COLUMN IF NOT EXISTS tarjeta_alto    INTEGER,
+    ADD COLUMN IF NOT EXISTS detalle_url     VARCHAR(600),
+    ADD COLUMN IF NOT EXISTS detalle_ancho   INTEGER,
+    ADD COLUMN IF NOT EXISTS detalle_alto    INTEGER;
+
+-- Imágenes ya subidas a Cloudinary: las variantes son transformaciones de la misma URL.
+-- Las dimensiones no se conocen; Cloudinary genera cada variante en su primera petición.
+UPDATE product_images
+SET miniatura_url = regexp_replace(url, '/upload/', '/upload/c_limit,w_160,q_auto/'),
+    tarjeta_url   = regexp_replace(url, '/upload/', '/upload/c_limit,w_480,q_auto/'),
+    detalle_url   = regexp_replace(url, '/upload/', '/upload/c_limit,w_1200,q_auto/')
+WHERE url LIKE '%res.cloudinary.com/%/upload/%'
+  AND tarjeta_url IS NULL;
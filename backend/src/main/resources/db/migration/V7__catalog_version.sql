@@ -0,0 +1,12 @@
+-- Versión del catálogo compartida por todas las instancias (ETag de los GET del catálogo).
+-- Una sola fila; se incrementa tras cada commit que modifica productos, imágenes, marcas o reseñas.
+-- El valor inicial son milisegundos epoch: si la base se recrea, no se repiten versiones anteriores.
+CREATE TABLE IF NOT EXISTS catalog_version (
+    id       SMALLINT NOT NULL,
+    version  BIGINT   NOT NULL,
+    CONSTRAINT pk_catalog_version PRIMARY KEY (id)
+);
+
+INSERT INTO catalog_version (id, version)
+VALUES (1, (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT)
+ON CONFLICT (id) DO NOTHING;
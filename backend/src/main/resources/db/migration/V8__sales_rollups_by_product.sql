@@ -0,0 +1,30 @@
+-- sales_daily_rollups pasa a clave (dia, product_id): la marca se resuelve al leer desde products.
+-- Con la marca en la clave, una cancelación posterior a un cambio de marca restaba en otra fila.
+
+-- Consolidar las filas del mismo día y producto repartidas entre marcas (se suman en la más antigua)
+UPDATE sales_daily_rollups r
+SET unidades = dup.unidades,
+    ingresos = dup.ingresos
+FROM (
+    SELECT MIN(id) AS keep_id, SUM(unidades) AS unidades, SUM(ingresos) AS ingresos
+    FROM sales_daily_rollups
+    GROUP BY dia, product_id
+    HAVING COUNT(*) > 1
+) dup
+WHERE r.id = dup.keep_id;
+
+DELETE FROM sales_daily_rollups r
+USING sales_daily_rollups keep
+WHERE r.dia = keep.dia
+  AND r.product_id = keep.product_id
+  AND r.id > keep.id;
+
+ALTER TABLE sales_daily_rollups DROP CONSTRAINT IF EXISTS uk_sales_rollups_dia_product_brand;
+ALTER TABLE sales_daily_rollups DROP COLUMN IF EXISTS brand_id;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_sales_rollups_dia_product') THEN
+        ALTER TABLE sales_daily_rollups ADD CONSTRAINT uk_sales_rollups_dia_product UNIQUE (dia, product_id);
+    END IF;
+END $$;
@@ -0,0 +1,345 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.dto.AddToCartDTO;
+import com.laptophub.backend.dto.CreateOrderDTO;
+import com.laptophub.backend.exception.ConflictException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.service.OrderService;
+import com.laptophub.backend.support.TestAuthHelper;
+import com.laptophub.backend.support.TestAuthHelper.AuthInfo;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests de ventas acumuladas (GET /api/admin/analytics/sales)
+ * La orden entra a las ventas al pasar a PROCESANDO y sale al cancelarse.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class AdminAnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static String adminToken;
+    private static Long brandId;
+    private static Long orderId;
+    private static Long raceOrderId;
+    private static Long raceProductId;
+    private static Long raceBrandId;
+
+    /**
+     * TEST 1: Configuración - Admin, marca, producto y una orden de 2 unidades
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() throws Exception {
+        System.out.println("\n=== TEST 1: Configuración de orden para ventas ===");
+
+        adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("analytics.admin"), "admin123");
+        AuthInfo buyer = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("analytics.user"), "password123", "Analytics", "User");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Analytics Brand " + System.currentTimeMillis())
+                .descripcion("Marca para ventas acumuladas")
+                .build());
+        brandId = brand.getId();
+
+        Product product = productRepository.save(Product.builder()
+                .nombre("Analytics Laptop")
+                .descripcion("Producto para ventas acumuladas")
+                .precio(new BigDecimal("1500.00"))
+                .stock(10)
+                .brand(brand)
+                .build());
+
+        mockMvc.perform(post("/api/cart/user/" + buyer.getUserId() + "/items")
+                        .header("Authorization", "Bearer " + buyer.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AddToCartDTO.builder()
+                                .productId(product.getId())
+                                .cantidad(2)
+                                .build())))
+                .andExpect(status().isOk());
+
+        String response = mockMvc.perform(post("/api/orders/user/" + buyer.getUserId())
+                        .header("Authorization", "Bearer " + buyer.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateOrderDTO.builder()
+                                .direccionEnvio("Calle Analytics 123")
+                                .build())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        orderId = objectMapper.readTree(response).get("id").asLong();
+
+        // Una orden pendiente de pago todavía no es venta
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + brandId + ")]").isEmpty());
+
+        System.out.println("✅ TEST 1 PASÓ: Orden creada en PENDIENTE_PAGO sin ventas\n");
+    }
+
+    /**
+     * TEST 2: Al pasar a PROCESANDO la orden suma a las ventas (una sola vez)
+     */
+    @Test
+    @Order(2)
+    public void test2_ProcessingOrderCountsOnce() throws Exception {
+        System.out.println("\n=== TEST 2: Orden PROCESANDO suma a las ventas ===");
+
+        mockMvc.perform(put("/api/orders/" + orderId + "/status/PROCESANDO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        // Repetir la transición no debe duplicar la venta
+        mockMvc.perform(put("/api/orders/" + orderId + "/status/PROCESANDO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        // Moverse entre estados contados tampoco
+        mockMvc.perform(put("/api/orders/" + orderId + "/status/ENVIADO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.agrupar").value("marca"))
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + brandId + ")].unidades").value(2))
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + brandId + ")].ingresos").value(3000.0));
+
+        System.out.println("✅ TEST 2 PASÓ: Venta registrada una sola vez\n");
+    }
+
+    /**
+     * TEST 3: Al cancelar la orden la venta se revierte; rebuild llega al mismo resultado
+     */
+    @Test
+    @Order(3)
+    public void test3_CancelledOrderIsReversed() throws Exception {
+        System.out.println("\n=== TEST 3: Orden cancelada se revierte ===");
+
+        mockMvc.perform(put("/api/orders/" + orderId + "/status/CANCELADO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + brandId + ")]").isEmpty());
+
+        mockMvc.perform(post("/api/admin/analytics/sales/rebuild")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas").isNumber());
+
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + brandId + ")]").isEmpty());
+
+        System.out.println("✅ TEST 3 PASÓ: Venta revertida al cancelar\n");
+    }
+
+    /**
+     * TEST 4: Validaciones y acceso solo para ADMIN
+     */
+    @Test
+    @Order(4)
+    public void test4_ValidationAndRequiresAdmin() throws Exception {
+        System.out.println("\n=== TEST 4: Validaciones y rol ADMIN ===");
+
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("desde", "2026-02-01")
+                        .param("hasta", "2026-01-01"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "semana"))
+                .andExpect(status().isBadRequest());
+
+        String userToken = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("analytics.other"), "password123", "Other", "User").getToken();
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        System.out.println("✅ TEST 4 PASÓ: Validaciones y restricción a ADMIN\n");
+    }
+
+    /**
+     * TEST 5: Un cambio de estado concurrente (admin cancela mientras el pago la pasa a PROCESANDO)
+     * aplica sus efectos una sola vez: la venta cuenta una vez y el stock no se restaura
+     */
+    @Test
+    @Order(5)
+    public void test5_ConcurrentTransitionsApplyOnce() throws Exception {
+        System.out.println("\n=== TEST 5: Transiciones concurrentes de una orden ===");
+
+        AuthInfo buyer = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("analytics.race"), "password123", "Race", "User");
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Analytics Race Brand " + System.currentTimeMillis())
+                .descripcion("Marca para transiciones concurrentes")
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .nombre("Analytics Race Laptop")
+                .descripcion("Producto para transiciones concurrentes")
+                .precio(new BigDecimal("1000.00"))
+                .stock(10)
+                .brand(brand)
+                .build());
+
+        mockMvc.perform(post("/api/cart/user/" + buyer.getUserId() + "/items")
+                        .header("Authorization", "Bearer " + buyer.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AddToCartDTO.builder()
+                                .productId(product.getId())
+                                .cantidad(2)
+                                .build())))
+                .andExpect(status().isOk());
+        String response = mockMvc.perform(post("/api/orders/user/" + buyer.getUserId())
+                        .header("Authorization", "Bearer " + buyer.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateOrderDTO.builder()
+                                .direccionEnvio("Calle Race 123")
+                                .build())))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        raceOrderId = objectMapper.readTree(response).get("id").asLong();
+        raceProductId = product.getId();
+        raceBrandId = brand.getId();
+
+        // La primera transición queda abierta (sin commit) mientras llega la cancelación
+        CountDownLatch applied = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> payment = CompletableFuture.runAsync(() -> transactionTemplate.executeWithoutResult(status -> {
+            orderService.updateOrderStatus(raceOrderId, OrderStatus.PROCESANDO);
+            applied.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(applied.await(10, TimeUnit.SECONDS), "La primera transición no llegó a aplicarse");
+
+        CompletableFuture<Void> cancel = CompletableFuture.runAsync(() -> orderService.cancelOrder(raceOrderId));
+        Thread.sleep(200);
+        release.countDown();
+        payment.get(10, TimeUnit.SECONDS);
+
+        // Según llegue antes o después del commit, la cancelación ve el UPDATE condicional fallar (409)
+        // o lee PROCESANDO (400); en ningún caso aplica sus efectos
+        Throwable error = assertThrows(Exception.class, () -> cancel.get(10, TimeUnit.SECONDS)).getCause();
+        assertTrue(error instanceof ConflictException || error instanceof ValidationException,
+                "Error inesperado: " + error);
+
+        assertEquals(OrderStatus.PROCESANDO, orderService.findById(raceOrderId).getEstado());
+        assertEquals(8, productRepository.findById(product.getId()).orElseThrow().getStock());
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + brand.getId() + ")].unidades").value(2));
+
+        System.out.println("✅ TEST 5 PASÓ: La venta cuenta una vez y el stock no se restaura\n");
+    }
+
+    /**
+     * TEST 6: Si el producto cambia de marca entre la venta y la cancelación, la venta y su reversión
+     * caen en la misma fila y ninguna marca queda descuadrada
+     */
+    @Test
+    @Order(6)
+    public void test6_BrandChangeDoesNotSplitReversal() throws Exception {
+        System.out.println("\n=== TEST 6: Cambio de marca entre venta y cancelación ===");
+
+        Brand nuevaMarca = brandRepository.save(Brand.builder()
+                .nombre("Analytics New Brand " + System.currentTimeMillis())
+                .descripcion("Marca nueva del producto")
+                .build());
+        Product product = productRepository.findById(raceProductId).orElseThrow();
+        product.setBrand(nuevaMarca);
+        productRepository.save(product);
+
+        // La venta se agrupa por la marca actual del producto
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + raceBrandId + ")]").isEmpty())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + nuevaMarca.getId() + ")].unidades").value(2));
+
+        mockMvc.perform(put("/api/orders/" + raceOrderId + "/status/CANCELADO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/admin/analytics/sales")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("agrupar", "marca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + raceBrandId + ")]").isEmpty())
+                .andExpect(jsonPath("$.filas[?(@.brandId == " + nuevaMarca.getId() + ")]").isEmpty());
+
+        System.out.println("✅ TEST 6 PASÓ: La reversión no depende de la marca actual\n");
+    }
+}
@@ -0,0 +1,154 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests de exportación en streaming (GET /api/admin/export/orders y /products)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class AdminExportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private static String adminToken;
+    private static String productName;
+
+    /**
+     * TEST 1: Configuración - Crear admin y producto con caracteres a escapar
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() throws Exception {
+        System.out.println("\n=== TEST 1: Configuración de admin y producto ===");
+
+        adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("export.admin"), "admin123");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Export Brand " + System.currentTimeMillis())
+                .descripcion("Marca para exportación")
+                .build());
+
+        productName = "Export Laptop " + System.currentTimeMillis();
+        productRepository.save(Product.builder()
+                .nombre(productName)
+                .descripcion("Pantalla 14\", liviana")
+                .precio(new BigDecimal("1099.99"))
+                .stock(7)
+                .brand(brand)
+                .ram(16)
+                .build());
+
+        System.out.println("✅ TEST 1 PASÓ: Admin y producto creados\n");
+    }
+
+    /**
+     * TEST 2: Exportar productos en CSV
+     */
+    @Test
+    @Order(2)
+    public void test2_ExportProductsCsv() throws Exception {
+        System.out.println("\n=== TEST 2: Exportar productos en CSV ===");
+
+        String body = mockMvc.perform(get("/api/admin/export/products")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string("Content-Disposition", org.hamcrest.Matchers.startsWith("attachment; filename=\"products-")))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        assertTrue(body.startsWith("id,nombre,descripcion,precio,stock,brandId,marca,"), "Encabezado CSV inesperado");
+        assertTrue(body.contains(productName + ",\"Pantalla 14\"\", liviana\",1099.99,7,"),
+                "El producto no aparece escapado correctamente en el CSV");
+
+        System.out.println("✅ TEST 2 PASÓ: Productos exportados en CSV\n");
+    }
+
+    /**
+     * TEST 3: Exportar órdenes en JSONL
+     */
+    @Test
+    @Order(3)
+    public void test3_ExportOrdersJsonl() throws Exception {
+        System.out.println("\n=== TEST 3: Exportar órdenes en JSONL ===");
+
+        String body = mockMvc.perform(get("/api/admin/export/orders")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("format", "jsonl"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        for (String line : body.split("\n")) {
+            if (!line.isBlank()) {
+                assertTrue(objectMapper.readTree(line).has("orderId"), "Cada línea debe ser un objeto JSON de orden");
+            }
+        }
+
+        System.out.println("✅ TEST 3 PASÓ: Órdenes exportadas en JSONL\n");
+    }
+
+    /**
+     * TEST 4: Formato inválido y acceso sin rol ADMIN
+     */
+    @Test
+    @Order(4)
+    public void test4_InvalidFormatAndRequiresAdmin() throws Exception {
+        System.out.println("\n=== TEST 4: Formato inválido y exportación sin rol ADMIN ===");
+
+        mockMvc.perform(get("/api/admin/export/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        String userToken = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("export.user"), "password123", "Export", "User").getToken();
+
+        mockMvc.perform(get("/api/admin/export/orders")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+
+        System.out.println("✅ TEST 4 PASÓ: Validación de formato y rol ADMIN\n");
+    }
+}
@@ -0,0 +1,211 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Tests de importación masiva de productos (POST /api/admin/import/products)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class AdminImportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private static String adminToken;
+    private static String brandName;
+    private static Long brandId;
+
+    /**
+     * TEST 1: Configuración - Crear admin y marca
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() throws Exception {
+        System.out.println("\n=== TEST 1: Configuración de admin y marca ===");
+
+        adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("import.admin"), "admin123");
+
+        brandName = "Import Brand " + System.currentTimeMillis();
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre(brandName)
+                .descripcion("Marca para importación")
+                .build());
+        brandId = brand.getId();
+
+        System.out.println("✅ TEST 1 PASÓ: Admin y marca creados\n");
+    }
+
+    /**
+     * TEST 2: Importar CSV con filas válidas e inválidas
+     */
+    @Test
+    @Order(2)
+    public void test2_ImportCsvWithRowErrors() throws Exception {
+        System.out.println("\n=== TEST 2: Importar productos desde CSV ===");
+
+        String csv = "nombre,descripcion,precio,stock,marca,ram\n"
+                + "CSV Laptop 1,\"Pantalla 14\"\", liviana\",999.99,10," + brandName + ",16\n"
+                + "CSV Laptop 2,Sin descripción,1299.50,5," + brandName.toUpperCase() + ",32\n"
+                + "CSV Laptop 3,Precio inválido,abc,5," + brandName + ",8\n"
+                + "CSV Laptop 4,Marca inexistente,500,5,Marca Fantasma,8\n"
+                + ",Sin nombre,500,5," + brandName + ",8\n";
+
+        long before = productRepository.count();
+
+        mockMvc.perform(post("/api/admin/import/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filasLeidas").value(5))
+                .andExpect(jsonPath("$.insertados").value(2))
+                .andExpect(jsonPath("$.errores").value(3))
+                .andExpect(jsonPath("$.detalleErrores[0].linea").value(4))
+                .andExpect(jsonPath("$.detalleErrores[1].mensaje").value("Marca no encontrada: Marca Fantasma"))
+                .andExpect(jsonPath("$.detalleErrores[2].mensaje").value("El nombre es obligatorio"));
+
+        assertTrue(productRepository.count() == before + 2, "Se esperaban 2 productos nuevos");
+        System.out.println("✅ TEST 2 PASÓ: CSV importado con errores por fila\n");
+    }
+
+    /**
+     * TEST 3: Importar JSONL por brandId
+     */
+    @Test
+    @Order(3)
+    public void test3_ImportJsonl() throws Exception {
+        System.out.println("\n=== TEST 3: Importar productos desde JSONL ===");
+
+        String jsonl = "{\"nombre\":\"JSONL Laptop 1\",\"precio\":799.99,\"stock\":3,\"brandId\":" + brandId + "}\n"
+                + "\n"
+                + "{\"nombre\":\"JSONL Laptop 2\",\"precio\":899.99,\"stock\":-1,\"brandId\":" + brandId + "}\n"
+                + "no es json\n";
+
+        mockMvc.perform(post("/api/admin/import/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .param("format", "jsonl")
+                        .contentType("application/x-ndjson")
+                        .content(jsonl))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filasLeidas").value(3))
+                .andExpect(jsonPath("$.insertados").value(1))
+                .andExpect(jsonPath("$.errores").value(2))
+                .andExpect(jsonPath("$.detalleErrores[0].mensaje").value("El stock no puede ser negativo"))
+                .andExpect(jsonPath("$.detalleErrores[1].linea").value(4));
+
+        System.out.println("✅ TEST 3 PASÓ: JSONL importado\n");
+    }
+
+    /**
+     * TEST 4: Solo administradores pueden importar
+     */
+    @Test
+    @Order(4)
+    public void test4_ImportRequiresAdmin() throws Exception {
+        System.out.println("\n=== TEST 4: Importación sin rol ADMIN ===");
+
+        String userToken = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("import.user"), "password123", "Import", "User").getToken();
+
+        mockMvc.perform(post("/api/admin/import/products")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType("text/csv")
+                        .content("nombre,precio,stock,brandId\nX,1,1," + brandId + "\n"))
+                .andExpect(status().isForbidden());
+
+        System.out.println("✅ TEST 4 PASÓ: Importación restringida a ADMIN\n");
+    }
+
+    /**
+     * TEST 5: Las actualizaciones no tocan productos eliminados, y una fila que rechaza la base de datos
+     * no arrastra al resto de su lote
+     */
+    @Test
+    @Order(5)
+    public void test5_DeletedProductsAndRejectedRows() throws Exception {
+        System.out.println("\n=== TEST 5: Productos eliminados y filas rechazadas por la base ===");
+
+        Brand brand = brandRepository.findById(brandId).orElseThrow();
+        Long activeId = productRepository.save(Product.builder()
+                .nombre("Import Active").precio(new BigDecimal("100.00")).stock(1).brand(brand).build()).getId();
+        Long deletedId = productRepository.save(Product.builder()
+                .nombre("Import Deleted").precio(new BigDecimal("100.00")).stock(1).brand(brand)
+                .deletedAt(LocalDateTime.now()).build()).getId();
+
+        // Pasa la validación del DTO pero no cabe en la columna nombre
+        String tooLong = "X".repeat(300);
+        String csv = "id,nombre,precio,stock,brandId\n"
+                + activeId + ",Import Active v2,150,7," + brandId + "\n"
+                + deletedId + ",Import Deleted v2,150,7," + brandId + "\n"
+                + "," + tooLong + ",150,1," + brandId + "\n"
+                + ",Import Sibling,150,1," + brandId + "\n";
+
+        mockMvc.perform(post("/api/admin/import/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType("text/csv")
+                        .content(csv))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.filasLeidas").value(4))
+                .andExpect(jsonPath("$.insertados").value(1))
+                .andExpect(jsonPath("$.actualizados").value(1))
+                .andExpect(jsonPath("$.errores").value(2))
+                .andExpect(jsonPath("$.detalleErrores[0].linea").value(4))
+                .andExpect(jsonPath("$.detalleErrores[0].mensaje").value(startsWith("Fila rechazada por la base de datos")))
+                .andExpect(jsonPath("$.detalleErrores[1].linea").value(3))
+                .andExpect(jsonPath("$.detalleErrores[1].mensaje").value("Producto no encontrado con id: " + deletedId));
+
+        assertEquals(7, productRepository.findById(activeId).orElseThrow().getStock());
+        Product deleted = productRepository.findById(deletedId).orElseThrow();
+        assertEquals("Import Deleted", deleted.getNombre());
+        assertEquals(1, deleted.getStock());
+
+        System.out.println("✅ TEST 5 PASÓ: Solo las filas culpables quedan reportadas\n");
+    }
+}
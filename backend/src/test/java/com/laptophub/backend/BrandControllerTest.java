@@ -3,6 +3,7 @@ package com.laptophub.backend;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laptophub.backend.dto.BrandCreateDTO;
 import com.laptophub.backend.dto.BrandResponseDTO;
+import com.laptophub.backend.dto.ProductCreateDTO;
 import com.laptophub.backend.repository.BrandRepository;
 import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.repository.UserRepository;
@@ -21,6 +22,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.math.BigDecimal;
 import java.nio.file.Files;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -324,4 +326,68 @@ public class BrandControllerTest {
 
         System.out.println("✅ TEST 9 PASÓ: Imagen de marca subida a Cloudinary correctamente\n");
     }
+
+    /**
+     * TEST 10: Los productos muestran la marca actualizada sin volver a cargarla (BrandRegistry)
+     */
+    @Test
+    @Order(10)
+    public void test10_ProductReflectsBrandUpdate() throws Exception {
+        System.out.println("\n=== TEST 10: Producto con la marca renombrada ===");
+
+        BrandCreateDTO brandDto = BrandCreateDTO.builder()
+                .nombre("Registry Brand " + System.currentTimeMillis())
+                .descripcion("Marca para el diccionario en memoria")
+                .build();
+        MvcResult brandResult = mockMvc.perform(post("/api/brands")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(brandDto)))
+                .andExpect(status().isOk())
+                .andReturn();
+        Long registryBrandId = objectMapper.readValue(
+                brandResult.getResponse().getContentAsString(), BrandResponseDTO.class).getId();
+
+        ProductCreateDTO productDto = ProductCreateDTO.builder()
+                .nombre("Registry Laptop")
+                .precio(new BigDecimal("1499.99"))
+                .stock(3)
+                .brandId(registryBrandId)
+                .build();
+        MvcResult productResult = mockMvc.perform(post("/api/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(productDto)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.brand.id").value(registryBrandId))
+                .andExpect(jsonPath("$.brand.nombre").value(brandDto.getNombre()))
+                .andReturn();
+        String productId = objectMapper.readTree(productResult.getResponse().getContentAsString()).get("id").asText();
+
+        String renamed = brandDto.getNombre() + " Renombrada";
+        mockMvc.perform(put("/api/brands/" + registryBrandId)
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(BrandCreateDTO.builder().nombre(renamed).build())))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/products/" + productId))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.brand.id").value(registryBrandId))
+                .andExpect(jsonPath("$.brand.nombre").value(renamed));
+
+        mockMvc.perform(post("/api/products")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ProductCreateDTO.builder()
+                                .nombre("Sin marca válida")
+                                .precio(new BigDecimal("10.00"))
+                                .stock(1)
+                                .brandId(999999L)
+                                .build())))
+                .andExpect(status().isNotFound());
+
+        System.out.println("✅ TEST 10 PASÓ: El producto refleja el nuevo nombre de la marca\n");
+    }
 }
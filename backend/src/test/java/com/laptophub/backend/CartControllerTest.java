@@ -2,6 +2,8 @@ package com.laptophub.backend;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.laptophub.backend.dto.AddToCartDTO;
+import com.laptophub.backend.dto.CartBatchDTO;
+import com.laptophub.backend.dto.CartOperationDTO;
 import com.laptophub.backend.model.Brand;
 import com.laptophub.backend.model.Cart;
 import com.laptophub.backend.model.Product;
@@ -11,6 +13,7 @@ import com.laptophub.backend.repository.CartItemRepository;
 import com.laptophub.backend.repository.CartRepository;
 import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.support.SqlStatementCounter;
 import com.laptophub.backend.support.TestAuthHelper;
 import com.laptophub.backend.support.TestAuthHelper.AuthInfo;
 import org.junit.jupiter.api.Test;
@@ -25,7 +28,13 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
@@ -140,17 +149,18 @@ public class CartControllerTest {
      */
     @Test
     @Order(2)
-    public void test2_GetOrCreateCartByUser() throws Exception {
+    public void test2_GetOrCreateCartByUser() throws Throwable {
         System.out.println("\n=== TEST 2: Obtener/crear carrito por usuario (GET /api/cart/user/{userId}) ===");
         
-        mockMvc.perform(get("/api/cart/user/" + userId)
-                        .header("Authorization", "Bearer " + authToken))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").exists())
-                .andExpect(jsonPath("$.userId").value(userId))
-                .andExpect(jsonPath("$.items").isArray())
-                .andExpect(jsonPath("$.total").exists());
+        SqlStatementCounter.assertMaxStatements("GET /api/cart/user/{userId}", 8, () ->
+                mockMvc.perform(get("/api/cart/user/" + userId)
+                                .header("Authorization", "Bearer " + authToken))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").exists())
+                        .andExpect(jsonPath("$.userId").value(userId))
+                        .andExpect(jsonPath("$.items").isArray())
+                        .andExpect(jsonPath("$.total").exists()));
         
         System.out.println("✅ TEST 2 PASÓ: Carrito obtenido/creado para el usuario\n");
     }
@@ -303,4 +313,162 @@ public class CartControllerTest {
         System.out.println("✅ TEST 8 PASÓ: Carrito final creado");
         System.out.println("📋 Verifica en tu gestor de BD el carrito del usuario: cart.test@laptophub.com\n");
     }
+
+    /**
+     * TEST 9: La vista del carrito cuesta un número constante de sentencias SQL sin importar cuántos items tenga
+     */
+    @Test
+    @Order(9)
+    public void test9_CartViewHasConstantStatementCount() throws Throwable {
+        System.out.println("\n=== TEST 9: Vista del carrito con número constante de consultas ===");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Dell Cart " + System.currentTimeMillis())
+                .descripcion("Marca Dell")
+                .build());
+
+        for (int i = 0; i < 4; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .nombre("Laptop Dell Carrito " + i)
+                    .descripcion("Producto extra para el carrito")
+                    .precio(new BigDecimal("500.00"))
+                    .stock(10)
+                    .brand(brand)
+                    .build());
+            productImageRepository.save(ProductImage.builder()
+                    .url("https://res.cloudinary.com/demo/image/upload/dell-" + i + ".jpg")
+                    .orden(1)
+                    .product(product)
+                    .build());
+
+            AddToCartDTO addToCart = AddToCartDTO.builder()
+                    .productId(product.getId())
+                    .cantidad(1)
+                    .build();
+            mockMvc.perform(post("/api/cart/user/" + userId + "/items")
+                            .header("Authorization", "Bearer " + authToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(addToCart)))
+                    .andExpect(status().isOk());
+        }
+
+        // Autenticación JWT + carrito con usuario + filas del carrito
+        SqlStatementCounter.assertMaxStatements("GET /api/cart/user/{userId} con 5 items", 3, () ->
+                mockMvc.perform(get("/api/cart/user/" + userId)
+                                .header("Authorization", "Bearer " + authToken))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items.length()").value(5))
+                        .andExpect(jsonPath("$.items[1].product.imagenPrincipal.url").exists())
+                        .andExpect(jsonPath("$.items[1].product.brand.nombre").value(brand.getNombre()))
+                        .andExpect(jsonPath("$.total").value(3999.98)));
+
+        System.out.println("✅ TEST 9 PASÓ: Carrito de 5 items servido con un número constante de consultas\n");
+    }
+
+    /**
+     * TEST 10: Agregar el mismo producto en paralelo no duplica líneas (INSERT ... ON CONFLICT)
+     */
+    @Test
+    @Order(10)
+    public void test10_ConcurrentAddsKeepSingleLine() throws Exception {
+        System.out.println("\n=== TEST 10: Agregados concurrentes del mismo producto ===");
+
+        mockMvc.perform(delete("/api/cart/user/" + userId + "/clear")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk());
+
+        String body = objectMapper.writeValueAsString(AddToCartDTO.builder()
+                .productId(Long.parseLong(productId))
+                .cantidad(1)
+                .build());
+
+        int clicks = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(clicks);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < clicks; i++) {
+                results.add(executor.submit(() -> mockMvc.perform(post("/api/cart/user/" + userId + "/items")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(body))
+                        .andReturn().getResponse().getStatus()));
+            }
+            for (Future<Integer> result : results) {
+                assertEquals(200, result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        mockMvc.perform(get("/api/cart/user/" + userId)
+                        .header("Authorization", "Bearer " + authToken))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].cantidad").value(clicks));
+
+        // Items inexistentes responden 404 sin cargar el carrito
+        mockMvc.perform(delete("/api/cart/items/999999999")
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isNotFound());
+
+        System.out.println("✅ TEST 10 PASÓ: Una sola línea con cantidad " + clicks + "\n");
+    }
+
+    /**
+     * TEST 11: Lote de operaciones de carrito (POST /api/cart/user/{userId}/batch)
+     */
+    @Test
+    @Order(11)
+    public void test11_BatchCartOperations() throws Throwable {
+        System.out.println("\n=== TEST 11: Lote de operaciones (POST /api/cart/user/{userId}/batch) ===");
+
+        Product extra = productRepository.save(Product.builder()
+                .nombre("Laptop Lote")
+                .descripcion("Producto para operaciones en lote")
+                .precio(new BigDecimal("100.00"))
+                .stock(10)
+                .brand(brandRepository.findAll().get(0))
+                .build());
+
+        CartBatchDTO batch = CartBatchDTO.builder()
+                .operaciones(List.of(
+                        CartOperationDTO.builder().tipo(CartOperationDTO.Tipo.REMOVE).productId(Long.parseLong(productId)).build(),
+                        CartOperationDTO.builder().tipo(CartOperationDTO.Tipo.ADD).productId(extra.getId()).cantidad(2).build(),
+                        CartOperationDTO.builder().tipo(CartOperationDTO.Tipo.ADD).productId(extra.getId()).cantidad(1).build(),
+                        CartOperationDTO.builder().tipo(CartOperationDTO.Tipo.SET).productId(Long.parseLong(productId)).cantidad(3).build()))
+                .build();
+
+        SqlStatementCounter.assertMaxStatements("POST /api/cart/user/{userId}/batch", 8, () ->
+                mockMvc.perform(post("/api/cart/user/" + userId + "/batch")
+                                .header("Authorization", "Bearer " + authToken)
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(batch)))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.items.length()").value(2))
+                        .andExpect(jsonPath("$.items[?(@.product.id == " + productId + ")].cantidad").value(3))
+                        .andExpect(jsonPath("$.items[?(@.product.id == " + extra.getId() + ")].cantidad").value(3)));
+
+        // Un producto inexistente revierte todo el lote
+        CartBatchDTO invalid = CartBatchDTO.builder()
+                .operaciones(List.of(
+                        CartOperationDTO.builder().tipo(CartOperationDTO.Tipo.ADD).productId(extra.getId()).cantidad(5).build(),
+                        CartOperationDTO.builder().tipo(CartOperationDTO.Tipo.ADD).productId(999999999L).cantidad(1).build()))
+                .build();
+
+        mockMvc.perform(post("/api/cart/user/" + userId + "/batch")
+                        .header("Authorization", "Bearer " + authToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalid)))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/cart/user/" + userId)
+                        .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[?(@.product.id == " + extra.getId() + ")].cantidad").value(3));
+
+        System.out.println("✅ TEST 11 PASÓ: Lote aplicado en una transacción y revertido ante errores\n");
+    }
 }
@@ -0,0 +1,261 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.CheckoutQueueDTO;
+import com.laptophub.backend.exception.ApiResponse;
+import com.laptophub.backend.exception.GlobalExceptionHandler;
+import com.laptophub.backend.exception.TooManyRequestsException;
+import com.laptophub.backend.service.CheckoutAdmissionService;
+import com.laptophub.backend.service.InventoryReservationEngine;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsConfigurationSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la admisión de checkouts por producto (1 turno y cola de 2 por producto)
+ */
+@SpringBootTest(properties = {
+        "app.checkout.admission.permits-per-product=1",
+        "app.checkout.admission.max-queue=2",
+        "app.checkout.admission.max-wait-ms=10000"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class CheckoutAdmissionTest {
+
+    private static final Long HOT_PRODUCT_ID = 900_001L;
+    private static final Long OTHER_PRODUCT_ID = 900_002L;
+
+    @Autowired
+    private CheckoutAdmissionService checkoutAdmissionService;
+
+    @Autowired
+    private CorsConfigurationSource corsConfigurationSource;
+
+    /**
+     * TEST 1: Un checkout sin competencia entra sin esperar
+     */
+    @Test
+    @Order(1)
+    public void test1_UncontendedCheckoutPassesThrough() {
+        System.out.println("\n=== TEST 1: Checkout sin competencia ===");
+
+        List<CheckoutQueueDTO> during = new ArrayList<>();
+        String result = checkoutAdmissionService.admitProducts(List.of(OTHER_PRODUCT_ID), () -> {
+            during.add(lane(OTHER_PRODUCT_ID));
+            return "ok";
+        });
+
+        assertEquals("ok", result);
+        // Entró directo con el turno: nunca pasó por la cola
+        assertEquals(0, during.get(0).getEnCola());
+        assertEquals(1, during.get(0).getEnCurso());
+        assertEquals(0, during.get(0).getRechazados());
+        assertEquals(1, lane(OTHER_PRODUCT_ID).getAdmitidos());
+        assertEquals(0, lane(OTHER_PRODUCT_ID).getEnCurso());
+
+        System.out.println("✅ TEST 1 PASÓ: Admitido sin cola\n");
+    }
+
+    /**
+     * TEST 2: Con el turno ocupado y la cola llena, el siguiente checkout se rechaza al instante;
+     * los de la cola entran en orden al liberarse el turno y otros productos no se ven afectados
+     */
+    @Test
+    @Order(2)
+    public void test2_FullQueueRejectsFast() throws Exception {
+        System.out.println("\n=== TEST 2: Cola llena ===");
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch releaseHolder = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<String> holder = executor.submit(() -> checkoutAdmissionService.admitProducts(
+                    List.of(HOT_PRODUCT_ID), () -> {
+                        holding.countDown();
+                        await(releaseHolder);
+                        return "holder";
+                    }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            List<Future<String>> queued = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                String name = "queued-" + i;
+                queued.add(executor.submit(() -> checkoutAdmissionService.admitProducts(
+                        List.of(HOT_PRODUCT_ID), () -> name)));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (lane(HOT_PRODUCT_ID).getEnCola() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(2, lane(HOT_PRODUCT_ID).getEnCola());
+            assertEquals(1, lane(HOT_PRODUCT_ID).getEnCurso());
+
+            TooManyRequestsException rejected = assertThrows(TooManyRequestsException.class, () ->
+                    checkoutAdmissionService.admitProducts(List.of(OTHER_PRODUCT_ID, HOT_PRODUCT_ID), () -> "rejected"));
+            // Rechazado por cola llena, sin esperar turno: el turno sigue ocupado y la cola intacta
+            assertFalse(holder.isDone());
+            assertEquals(1, lane(HOT_PRODUCT_ID).getEnCurso());
+            assertEquals(2, lane(HOT_PRODUCT_ID).getEnCola());
+            assertNotNull(rejected.getRetryAfterSeconds());
+            assertTrue(rejected.getRetryAfterSeconds() >= 1);
+            assertEquals(1, lane(HOT_PRODUCT_ID).getRechazados());
+            // El turno del otro producto tomado antes del rechazo se devolvió
+            assertEquals(0, lane(OTHER_PRODUCT_ID).getEnCurso());
+
+            assertEquals("other", checkoutAdmissionService.admitProducts(List.of(OTHER_PRODUCT_ID), () -> "other"));
+
+            releaseHolder.countDown();
+            assertEquals("holder", holder.get(5, TimeUnit.SECONDS));
+            for (Future<String> future : queued) {
+                assertTrue(future.get(5, TimeUnit.SECONDS).startsWith("queued-"));
+            }
+        } finally {
+            releaseHolder.countDown();
+            executor.shutdownNow();
+        }
+
+        CheckoutQueueDTO hot = lane(HOT_PRODUCT_ID);
+        assertEquals(0, hot.getEnCola());
+        assertEquals(0, hot.getEnCurso());
+        assertEquals(3, hot.getAdmitidos());
+
+        System.out.println("✅ TEST 2 PASÓ: Rechazo inmediato y cola drenada\n");
+    }
+
+    /**
+     * TEST 3: El 429 de admisión lleva la cabecera Retry-After
+     */
+    @Test
+    @Order(3)
+    public void test3_RetryAfterHeader() {
+        System.out.println("\n=== TEST 3: Cabecera Retry-After ===");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/user/x");
+        ResponseEntity<ApiResponse<?>> response = new GlobalExceptionHandler().handleTooManyRequests(
+                new TooManyRequestsException("Demasiados checkouts", 4L), request);
+        assertEquals(429, response.getStatusCode().value());
+        assertEquals("4", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // Sin segundos sugeridos (p. ej. el limitador de login) no se añade la cabecera
+        ResponseEntity<ApiResponse<?>> withoutHint = new GlobalExceptionHandler().handleTooManyRequests(
+                new TooManyRequestsException("Demasiados intentos"), request);
+        assertEquals(null, withoutHint.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        System.out.println("✅ TEST 3 PASÓ: Retry-After presente\n");
+    }
+
+    /**
+     * TEST 4: Los carriles inactivos se descartan; uno con checkouts en curso no
+     */
+    @Test
+    @Order(4)
+    public void test4_IdleLanesEvicted() throws Exception {
+        System.out.println("\n=== TEST 4: Descarte de carriles inactivos ===");
+
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch releaseHolder = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holder = executor.submit(() -> checkoutAdmissionService.admitProducts(
+                    List.of(HOT_PRODUCT_ID), () -> {
+                        holding.countDown();
+                        await(releaseHolder);
+                        return "holder";
+                    }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            checkoutAdmissionService.evictIdle(0);
+            assertEquals(1, lane(HOT_PRODUCT_ID).getEnCurso());
+            assertTrue(findLane(OTHER_PRODUCT_ID).isEmpty());
+
+            releaseHolder.countDown();
+            assertEquals("holder", holder.get(5, TimeUnit.SECONDS));
+        } finally {
+            releaseHolder.countDown();
+            executor.shutdownNow();
+        }
+
+        checkoutAdmissionService.evictIdle(0);
+        assertTrue(findLane(HOT_PRODUCT_ID).isEmpty());
+
+        // El próximo checkout crea un carril nuevo
+        assertEquals("ok", checkoutAdmissionService.admitProducts(List.of(HOT_PRODUCT_ID), () -> "ok"));
+        assertEquals(1, lane(HOT_PRODUCT_ID).getAdmitidos());
+
+        System.out.println("✅ TEST 4 PASÓ: Carriles inactivos descartados\n");
+    }
+
+    /**
+     * TEST 5: Con el motor de reservas activo el checkout no pasa por la admisión
+     */
+    @Test
+    @Order(5)
+    public void test5_SkippedWithInventoryEngine() {
+        System.out.println("\n=== TEST 5: Admisión con motor de reservas ===");
+
+        CheckoutAdmissionService withEngine = new CheckoutAdmissionService(
+                null, new InventoryReservationEngine(null, null, true), true, 1, 0, 0, 60000);
+
+        assertEquals("ok", withEngine.admit(UUID.randomUUID(), () -> "ok"));
+        assertTrue(withEngine.snapshot().isEmpty());
+
+        System.out.println("✅ TEST 5 PASÓ: Sin carriles con el motor activo\n");
+    }
+
+    /**
+     * TEST 6: Los navegadores pueden leer Retry-After (CORS)
+     */
+    @Test
+    @Order(6)
+    public void test6_RetryAfterExposedToBrowsers() {
+        System.out.println("\n=== TEST 6: Retry-After expuesto por CORS ===");
+
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/orders/user/x");
+        CorsConfiguration config = corsConfigurationSource.getCorsConfiguration(request);
+        assertNotNull(config);
+        assertTrue(config.getExposedHeaders().contains(HttpHeaders.RETRY_AFTER));
+
+        System.out.println("✅ TEST 6 PASÓ: Retry-After expuesto\n");
+    }
+
+    private CheckoutQueueDTO lane(Long productId) {
+        return findLane(productId).orElseThrow();
+    }
+
+    private Optional<CheckoutQueueDTO> findLane(Long productId) {
+        return checkoutAdmissionService.snapshot().stream()
+                .filter(queue -> queue.getProductId().equals(productId))
+                .findFirst();
+    }
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
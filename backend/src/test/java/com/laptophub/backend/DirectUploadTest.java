@@ -0,0 +1,260 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.dto.DirectUploadConfirmDTO;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.simulation.SimulatedCloudinaryService;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la subida directa a Cloudinary (firma, subida desde el "navegador" y confirmación).
+ * El Cloudinary simulado hace de almacenamiento: valida la firma de la subida y firma su respuesta.
+ */
+@SpringBootTest(properties = {
+        "simulation.cloudinary.latency-ms=0",
+        "simulation.cloudinary.jitter-ms=0",
+        "simulation.cloudinary.failure-rate=0.0"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("simulated")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class DirectUploadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SimulatedCloudinaryService simulatedCloudinaryService;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private static String adminToken;
+    private static Long brandId;
+    private static Long productId;
+
+    /**
+     * TEST 1: Configuración - Admin, marca y producto sin imágenes
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() throws Exception {
+        System.out.println("\n=== TEST 1: Configuración de admin, marca y producto ===");
+
+        adminToken = TestAuthHelper.createAdminAndLogin(userRepository, passwordEncoder, mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("direct.upload.admin"), "admin123");
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Direct Upload Brand " + System.currentTimeMillis())
+                .descripcion("Marca para subida directa")
+                .build());
+        brandId = brand.getId();
+        productId = productRepository.save(Product.builder()
+                .nombre("Direct Upload Laptop").precio(new BigDecimal("999.99")).stock(3).brand(brand).build()).getId();
+
+        System.out.println("✅ TEST 1 PASÓ: Datos creados\n");
+    }
+
+    /**
+     * TEST 2: Firma, subida directa y confirmación de una imagen de producto (con variantes)
+     */
+    @Test
+    @Order(2)
+    public void test2_ProductImageDirectUpload() throws Exception {
+        System.out.println("\n=== TEST 2: Subida directa de imagen de producto ===");
+
+        JsonNode signed = sign("/api/products/" + productId + "/images/upload-signature");
+        assertEquals("laptophub/products", signed.get("folder").asText());
+        assertEquals(signed.get("timestamp").asLong() + 900, signed.get("expiraEn").asLong());
+
+        Map<String, Object> uploaded = simulatedCloudinaryService.acceptDirectUpload(fields(signed), image("frontal.jpg"));
+        DirectUploadConfirmDTO confirm = confirmation(uploaded);
+        confirm.setDescripcion("Vista frontal");
+
+        confirm("/api/products/" + productId + "/images/confirm", confirm)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(uploaded.get("secure_url")))
+                .andExpect(jsonPath("$.orden").value(1))
+                .andExpect(jsonPath("$.descripcion").value("Vista frontal"))
+                .andExpect(jsonPath("$.tarjeta.url").exists());
+
+        // Confirmar dos veces la misma subida no duplica la imagen
+        confirm("/api/products/" + productId + "/images/confirm", confirm)
+                .andExpect(status().isConflict());
+
+        System.out.println("✅ TEST 2 PASÓ: Imagen registrada con orden 1\n");
+    }
+
+    /**
+     * TEST 3: Subidas alteradas - carpeta cambiada, recurso de otra carpeta y firma falsa
+     */
+    @Test
+    @Order(3)
+    public void test3_TamperedUploadsRejected() throws Exception {
+        System.out.println("\n=== TEST 3: Subidas alteradas ===");
+
+        // Cambiar la carpeta invalida la firma de la subida: el almacenamiento la rechaza
+        JsonNode signed = sign("/api/products/" + productId + "/images/upload-signature");
+        Map<String, String> changedFolder = fields(signed);
+        changedFolder.put("folder", "otra/carpeta");
+        assertThrows(IOException.class, () -> simulatedCloudinaryService.acceptDirectUpload(changedFolder, image("x.jpg")));
+
+        // Un recurso válido de la carpeta de marcas no se acepta como imagen de producto
+        JsonNode brandSigned = sign("/api/brands/" + brandId + "/image/upload-signature");
+        Map<String, Object> brandUpload = simulatedCloudinaryService.acceptDirectUpload(fields(brandSigned), image("logo.png"));
+        confirm("/api/products/" + productId + "/images/confirm", confirmation(brandUpload))
+                .andExpect(status().isBadRequest());
+
+        // Firma de la respuesta falsificada
+        Map<String, Object> productUpload = simulatedCloudinaryService.acceptDirectUpload(fields(signed), image("y.jpg"));
+        DirectUploadConfirmDTO forged = confirmation(productUpload);
+        forged.setSignature("0000000000000000000000000000000000000000");
+        confirm("/api/products/" + productId + "/images/confirm", forged)
+                .andExpect(status().isBadRequest());
+
+        System.out.println("✅ TEST 3 PASÓ: Subidas alteradas rechazadas\n");
+    }
+
+    /**
+     * TEST 4: Subida directa de la imagen de una marca (sin variantes)
+     */
+    @Test
+    @Order(4)
+    public void test4_BrandImageDirectUpload() throws Exception {
+        System.out.println("\n=== TEST 4: Subida directa de imagen de marca ===");
+
+        JsonNode signed = sign("/api/brands/" + brandId + "/image/upload-signature");
+        assertEquals("laptophub/brands", signed.get("folder").asText());
+        assertNull(fields(signed).get("eager"));
+
+        Map<String, Object> uploaded = simulatedCloudinaryService.acceptDirectUpload(fields(signed), image("logo.png"));
+        confirm("/api/brands/" + brandId + "/image/confirm", confirmation(uploaded))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imageUrl").value(uploaded.get("secure_url")));
+
+        assertEquals(uploaded.get("secure_url"), brandRepository.findById(brandId).orElseThrow().getImageUrl());
+
+        System.out.println("✅ TEST 4 PASÓ: Imagen de marca registrada\n");
+    }
+
+    /**
+     * TEST 5: Una subida no se registra en dos productos y las dimensiones del navegador se ignoran
+     */
+    @Test
+    @Order(5)
+    public void test5_UploadConfirmedOnceAndDimensionsIgnored() throws Exception {
+        System.out.println("\n=== TEST 5: Subida en dos productos y dimensiones sin firma ===");
+
+        Long otherProductId = productRepository.save(Product.builder()
+                .nombre("Direct Upload Laptop 2").precio(new BigDecimal("899.99")).stock(3)
+                .brand(brandRepository.findById(brandId).orElseThrow()).build()).getId();
+
+        JsonNode signed = sign("/api/products/" + productId + "/images/upload-signature");
+        Map<String, Object> uploaded = simulatedCloudinaryService.acceptDirectUpload(fields(signed), image("lateral.jpg"));
+        Map<String, Object> body = new HashMap<>(objectMapper.convertValue(
+                confirmation(uploaded), new TypeReference<Map<String, Object>>() { }));
+        // El ancho y el alto no están cubiertos por la firma de Cloudinary
+        body.put("ancho", 99999);
+        body.put("alto", 1);
+
+        mockMvc.perform(post("/api/products/" + productId + "/images/confirm")
+                        .header("Authorization", "Bearer " + adminToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(uploaded.get("secure_url")))
+                .andExpect(jsonPath("$.ancho").doesNotExist())
+                .andExpect(jsonPath("$.alto").doesNotExist());
+
+        // La misma subida en otro producto
+        confirm("/api/products/" + otherProductId + "/images/confirm", confirmation(uploaded))
+                .andExpect(status().isConflict());
+
+        System.out.println("✅ TEST 5 PASÓ: Subida registrada una sola vez, sin dimensiones\n");
+    }
+
+    private JsonNode sign(String path) throws Exception {
+        String body = mockMvc.perform(post(path).header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private ResultActions confirm(String path, DirectUploadConfirmDTO dto) throws Exception {
+        return mockMvc.perform(post(path)
+                .header("Authorization", "Bearer " + adminToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(dto)));
+    }
+
+    /**
+     * Campos del formulario que el navegador envía a Cloudinary
+     */
+    private static Map<String, String> fields(JsonNode signed) {
+        Map<String, String> fields = new HashMap<>();
+        fields.put("api_key", signed.get("apiKey").asText());
+        fields.put("timestamp", signed.get("timestamp").asText());
+        fields.put("folder", signed.get("folder").asText());
+        fields.put("signature", signed.get("signature").asText());
+        if (signed.hasNonNull("eager")) {
+            fields.put("eager", signed.get("eager").asText());
+        }
+        return fields;
+    }
+
+    private static DirectUploadConfirmDTO confirmation(Map<String, Object> uploaded) {
+        return DirectUploadConfirmDTO.builder()
+                .publicId((String) uploaded.get("public_id"))
+                .version(((Number) uploaded.get("version")).longValue())
+                .format((String) uploaded.get("format"))
+                .signature((String) uploaded.get("signature"))
+                .build();
+    }
+
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("file", name, "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, 1, 2, 3});
+    }
+}
@@ -0,0 +1,155 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.HomeFeedService;
+import com.laptophub.backend.support.SqlStatementCounter;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la portada precalculada (GET /api/products/home y listados públicos por defecto).
+ * La comprobación periódica se espacia para controlar cuándo se recalcula.
+ */
+@SpringBootTest(properties = "app.home.check-ms=3600000")
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class HomeFeedTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private HomeFeedService homeFeedService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    private static Long brandId;
+    private static Long productId;
+
+    /**
+     * TEST 1: Configuración - Marca con un producto y portada recalculada
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() {
+        System.out.println("\n=== TEST 1: Portada con un producto ===");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Home Brand " + System.currentTimeMillis())
+                .descripcion("Marca para la portada")
+                .build());
+        brandId = brand.getId();
+        productId = productRepository.save(Product.builder()
+                .nombre("Home Laptop").precio(new BigDecimal("1099.99")).stock(4).brand(brand).build()).getId();
+
+        homeFeedService.refresh();
+
+        System.out.println("✅ TEST 1 PASÓ: Portada calculada\n");
+    }
+
+    /**
+     * TEST 2: La portada, top-rated y el listado por defecto se sirven sin consultar la base de datos
+     */
+    @Test
+    @Order(2)
+    public void test2_ServedWithoutDatabaseAccess() throws Throwable {
+        System.out.println("\n=== TEST 2: Portada sin consultas SQL ===");
+
+        SqlStatementCounter.assertMaxStatements("GET /api/products/home", 0, () ->
+                mockMvc.perform(get("/api/products/home"))
+                        .andExpect(status().isOk())
+                        .andExpect(content().contentTypeCompatibleWith("application/json"))
+                        .andExpect(jsonPath("$.newest[*].id", hasItem(productId.intValue())))
+                        .andExpect(jsonPath("$.topRated[*].id", hasItem(productId.intValue())))
+                        .andExpect(jsonPath("$.marcas[?(@.brandId == " + brandId + ")].productos[0].id")
+                                .value(hasItem(productId.intValue())))
+                        .andExpect(jsonPath("$.generadoEn").exists()));
+
+        SqlStatementCounter.assertMaxStatements("GET /api/products/top-rated", 0, () ->
+                mockMvc.perform(get("/api/products/top-rated"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[*].id", hasItem(productId.intValue()))));
+
+        SqlStatementCounter.assertMaxStatements("GET /api/products", 0, () ->
+                mockMvc.perform(get("/api/products"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content[*].id", hasItem(productId.intValue())))
+                        .andExpect(jsonPath("$.totalElements").exists()));
+
+        System.out.println("✅ TEST 2 PASÓ: 0 sentencias SQL\n");
+    }
+
+    /**
+     * TEST 3: Tras una escritura del catálogo la portada vieja se sigue sirviendo (con su ETag) hasta el recálculo
+     */
+    @Test
+    @Order(3)
+    public void test3_WriteServesStaleUntilRefresh() throws Throwable {
+        System.out.println("\n=== TEST 3: Escritura del catálogo ===");
+
+        String etagBefore = mockMvc.perform(get("/api/products/home"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etagBefore);
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setStock(0);
+        productRepository.save(product);
+
+        // Sin stock ya no aparece en el listado público: con la instantánea vieja se consulta la base de datos
+        mockMvc.perform(get("/api/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", not(hasItem(productId.intValue()))));
+
+        // La portada no se recalcula en la petición: se sirve la vieja con el ETag de su versión
+        SqlStatementCounter.assertMaxStatements("GET /api/products/home con instantánea vieja", 0, () ->
+                mockMvc.perform(get("/api/products/home"))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, etagBefore))
+                        .andExpect(jsonPath("$.newest[*].id", hasItem(productId.intValue()))));
+        // Quien ya tiene esa portada recibe 304 aunque la versión actual del catálogo sea otra
+        SqlStatementCounter.assertMaxStatements("GET /api/products/home condicional con instantánea vieja", 0, () ->
+                mockMvc.perform(get("/api/products/home").header(HttpHeaders.IF_NONE_MATCH, etagBefore))
+                        .andExpect(status().isNotModified())
+                        .andExpect(header().string(HttpHeaders.ETAG, etagBefore)));
+
+        // El recálculo en segundo plano la pone al día
+        homeFeedService.refresh();
+        String etagAfter = mockMvc.perform(get("/api/products/home"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.newest[*].id", not(hasItem(productId.intValue()))))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etagBefore, etagAfter);
+        mockMvc.perform(get("/api/products/home").header(HttpHeaders.IF_NONE_MATCH, etagBefore))
+                .andExpect(status().isOk());
+
+        System.out.println("✅ TEST 3 PASÓ: Portada vieja servida hasta el recálculo\n");
+    }
+}
@@ -0,0 +1,302 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.dto.AddToCartDTO;
+import com.laptophub.backend.dto.CreateOrderDTO;
+import com.laptophub.backend.exception.ConflictException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.IdempotencyKeyRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.IdempotencyService;
+import com.laptophub.backend.support.TestAuthHelper;
+import com.laptophub.backend.support.TestAuthHelper.AuthInfo;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de la cabecera Idempotency-Key en checkout y de IdempotencyService
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class IdempotencyTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private static String userId;
+    private static String userToken;
+    private static Long productId;
+    private static Long firstOrderId;
+    private static final String ORDER_KEY = UUID.randomUUID().toString();
+
+    /**
+     * TEST 1: Configuración - Usuario con un producto en el carrito
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() throws Exception {
+        System.out.println("\n=== TEST 1: Usuario y carrito ===");
+
+        AuthInfo authInfo = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("idempotency"), "password123", "Idem", "Potent");
+        userId = authInfo.getUserId();
+        userToken = authInfo.getToken();
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Idempotency Brand " + System.currentTimeMillis())
+                .descripcion("Marca para Idempotency-Key")
+                .build());
+        productId = productRepository.save(Product.builder()
+                .nombre("Idempotent Laptop").precio(new BigDecimal("1299.99")).stock(10).brand(brand).build()).getId();
+
+        mockMvc.perform(post("/api/cart/user/" + userId + "/items")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(AddToCartDTO.builder()
+                                .productId(productId).cantidad(2).build())))
+                .andExpect(status().isOk());
+
+        System.out.println("✅ TEST 1 PASÓ: Carrito listo\n");
+    }
+
+    /**
+     * TEST 2: Reintentar el checkout con la misma clave devuelve la misma orden sin tocar el stock
+     */
+    @Test
+    @Order(2)
+    public void test2_RetriedCheckoutReturnsSameOrder() throws Exception {
+        System.out.println("\n=== TEST 2: Checkout repetido ===");
+
+        String body = objectMapper.writeValueAsString(CreateOrderDTO.builder().direccionEnvio("Calle Idempotente 1").build());
+        String first = mockMvc.perform(post("/api/orders/user/" + userId)
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(IdempotencyService.HEADER, ORDER_KEY)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        firstOrderId = objectMapper.readTree(first).get("id").asLong();
+
+        mockMvc.perform(post("/api/orders/user/" + userId)
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(IdempotencyService.HEADER, ORDER_KEY)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(firstOrderId));
+
+        Integer orders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM orders WHERE user_id = ?", Integer.class, UUID.fromString(userId));
+        assertEquals(1, orders);
+        assertEquals(8, productRepository.findById(productId).orElseThrow().getStock());
+
+        System.out.println("✅ TEST 2 PASÓ: Una sola orden (" + firstOrderId + ")\n");
+    }
+
+    /**
+     * TEST 3: La misma clave con otro cuerpo se rechaza con 400
+     */
+    @Test
+    @Order(3)
+    public void test3_SameKeyDifferentBodyRejected() throws Exception {
+        System.out.println("\n=== TEST 3: Clave reutilizada con otro cuerpo ===");
+
+        mockMvc.perform(post("/api/orders/user/" + userId)
+                        .header("Authorization", "Bearer " + userToken)
+                        .header(IdempotencyService.HEADER, ORDER_KEY)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                CreateOrderDTO.builder().direccionEnvio("Otra Calle 2").build())))
+                .andExpect(status().isBadRequest());
+
+        System.out.println("✅ TEST 3 PASÓ: 400 con cuerpo distinto\n");
+    }
+
+    /**
+     * TEST 4: Duplicados simultáneos esperan a la primera ejecución y reciben su respuesta
+     */
+    @Test
+    @Order(4)
+    public void test4_ConcurrentDuplicatesShareFirstExecution() throws Exception {
+        System.out.println("\n=== TEST 4: Duplicados simultáneos ===");
+
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        String key = UUID.randomUUID().toString();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Map<String, Integer>>> tasks = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            tasks.add(() -> {
+                start.await(5, TimeUnit.SECONDS);
+                return idempotencyService.execute("test:concurrente", key, Map.of("monto", 100), Map.class, () -> {
+                    int execution = executions.incrementAndGet();
+                    Thread.sleep(200);
+                    return Map.of("ejecucion", execution);
+                });
+            });
+        }
+        List<Future<Map<String, Integer>>> results = new ArrayList<>();
+        try {
+            tasks.forEach(task -> results.add(executor.submit(task)));
+            start.countDown();
+            for (Future<Map<String, Integer>> result : results) {
+                assertEquals(1, result.get(10, TimeUnit.SECONDS).get("ejecucion"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+
+        System.out.println("✅ TEST 4 PASÓ: 8 peticiones, 1 ejecución\n");
+    }
+
+    /**
+     * TEST 5: Si la primera ejecución falla la clave se libera y el reintento vuelve a ejecutar
+     */
+    @Test
+    @Order(5)
+    public void test5_FailedExecutionReleasesKey() {
+        System.out.println("\n=== TEST 5: Ejecución fallida ===");
+
+        String key = UUID.randomUUID().toString();
+        assertThrows(ValidationException.class, () -> idempotencyService.execute(
+                "test:fallo", key, Map.of("monto", 1), String.class, () -> {
+                    throw new ValidationException("Stock insuficiente");
+                }));
+
+        String retried = idempotencyService.execute("test:fallo", key, Map.of("monto", 1), String.class, () -> "ok");
+        assertEquals("ok", retried);
+        assertEquals("ok", idempotencyService.execute("test:fallo", key, Map.of("monto", 1), String.class, () -> "otra vez"));
+
+        System.out.println("✅ TEST 5 PASÓ: Reintento ejecutado tras el fallo\n");
+    }
+
+    /**
+     * TEST 6: Un usuario con un nombre largo no desborda la columna scope
+     */
+    @Test
+    @Order(6)
+    public void test6_LongPrincipalFitsScope() {
+        System.out.println("\n=== TEST 6: Usuario con nombre largo ===");
+
+        String key = UUID.randomUUID().toString();
+        String email = "a".repeat(240) + "@example.com";
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(email, null, List.of()));
+        try {
+            assertEquals("ok", idempotencyService.execute("orden:checkout", key, Map.of("monto", 1), String.class, () -> "ok"));
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        String scope = jdbcTemplate.queryForObject(
+                "SELECT scope FROM idempotency_keys WHERE idempotency_key = ?", String.class, key);
+        assertTrue(scope.length() <= 150, "scope de " + scope.length() + " caracteres");
+        assertFalse(scope.contains(email));
+
+        System.out.println("✅ TEST 6 PASÓ: scope de " + scope.length() + " caracteres\n");
+    }
+
+    /**
+     * TEST 7: Una reserva sin completar en otra instancia nunca se vuelve a ejecutar, por antigua que sea
+     */
+    @Test
+    @Order(7)
+    public void test7_UncompletedClaimIsNotTakenOver() throws Exception {
+        System.out.println("\n=== TEST 7: Reserva sin completar ===");
+
+        String key = UUID.randomUUID().toString();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        // Otra instancia: comparte la tabla pero no la memoria
+        IdempotencyService otherInstance = new IdempotencyService(idempotencyKeyRepository, objectMapper, 24, 600000, 0);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> first = executor.submit(() -> idempotencyService.execute(
+                    "test:pendiente", key, Map.of("monto", 1), String.class, () -> {
+                        executions.incrementAndGet();
+                        started.countDown();
+                        finish.await(10, TimeUnit.SECONDS);
+                        return "primera";
+                    }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            // Reserva de hace un día: antes se consideraba abandonada y se volvía a ejecutar
+            jdbcTemplate.update("UPDATE idempotency_keys SET created_at = now() - interval '1 day' WHERE idempotency_key = ?", key);
+            assertThrows(ConflictException.class, () -> otherInstance.execute(
+                    "test:pendiente", key, Map.of("monto", 1), String.class, () -> {
+                        executions.incrementAndGet();
+                        return "segunda";
+                    }));
+            assertEquals(1, executions.get());
+
+            finish.countDown();
+            assertEquals("primera", first.get(10, TimeUnit.SECONDS));
+        } finally {
+            finish.countDown();
+            executor.shutdownNow();
+        }
+
+        // Completada: la otra instancia ya responde con lo guardado
+        assertEquals("primera", otherInstance.execute("test:pendiente", key, Map.of("monto", 1), String.class, () -> "segunda"));
+        assertEquals(1, executions.get());
+
+        System.out.println("✅ TEST 7 PASÓ: Una sola ejecución\n");
+    }
+}
@@ -0,0 +1,259 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.InventoryMovementRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.CatalogVersionService;
+import com.laptophub.backend.service.InventoryReservationEngine;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests del motor de reservas de stock en memoria (app.inventory.engine.enabled=true).
+ * El flush periódico se desactiva para controlar cuándo se escribe products.stock.
+ */
+@SpringBootTest(properties = {
+        "app.inventory.engine.enabled=true",
+        "app.inventory.engine.flush-ms=3600000"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class InventoryReservationEngineTest {
+
+    @Autowired
+    private InventoryReservationEngine engine;
+
+    @Autowired
+    private InventoryMovementRepository inventoryMovementRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    private static Long hotProductId;
+    private static Long otherProductId;
+
+    /**
+     * TEST 1: Configuración - Productos con stock 10 y 5
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() {
+        System.out.println("\n=== TEST 1: Productos para reservas ===");
+
+        inventoryMovementRepository.applyPending();
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Inventory Brand " + System.currentTimeMillis())
+                .descripcion("Marca para el motor de reservas")
+                .build());
+        hotProductId = productRepository.save(Product.builder()
+                .nombre("Hot Laptop").precio(new BigDecimal("1999.99")).stock(10).brand(brand).build()).getId();
+        otherProductId = productRepository.save(Product.builder()
+                .nombre("Other Laptop").precio(new BigDecimal("899.99")).stock(5).brand(brand).build()).getId();
+
+        System.out.println("✅ TEST 1 PASÓ: Productos creados\n");
+    }
+
+    /**
+     * TEST 2: 30 reservas concurrentes sobre 10 unidades: exactamente 10 se conceden
+     */
+    @Test
+    @Order(2)
+    public void test2_ConcurrentReservationsNeverOversell() throws Exception {
+        System.out.println("\n=== TEST 2: Reservas concurrentes ===");
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            long orderId = 1000 + i;
+            tasks.add(() -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status ->
+                            engine.reserve(orderId, Map.of(hotProductId, 1)));
+                    return true;
+                } catch (ValidationException e) {
+                    return false;
+                }
+            });
+        }
+        int granted = 0;
+        try {
+            for (Future<Boolean> result : executor.invokeAll(tasks)) {
+                if (result.get()) {
+                    granted++;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(10, granted);
+        assertEquals(0, engine.available(hotProductId));
+        // products.stock aún no se tocó: las reservas están en el diario
+        assertEquals(10, productRepository.findById(hotProductId).orElseThrow().getStock());
+
+        System.out.println("✅ TEST 2 PASÓ: 10 reservas concedidas, 20 rechazadas\n");
+    }
+
+    /**
+     * TEST 3: El flush aplica el diario a products.stock y lo vacía
+     */
+    @Test
+    @Order(3)
+    public void test3_FlushWritesThroughToStock() {
+        System.out.println("\n=== TEST 3: Flush del diario ===");
+
+        engine.flush();
+
+        assertEquals(0, productRepository.findById(hotProductId).orElseThrow().getStock());
+        assertEquals(0, inventoryMovementRepository.countPending());
+
+        System.out.println("✅ TEST 3 PASÓ: Stock persistido\n");
+    }
+
+    /**
+     * TEST 4: Una reserva parcial o revertida devuelve las unidades
+     */
+    @Test
+    @Order(4)
+    public void test4_RollbackReleasesReservation() {
+        System.out.println("\n=== TEST 4: Reserva revertida ===");
+
+        // Todo o nada: el producto caliente no tiene stock, así que tampoco se reserva el otro
+        assertThrows(ValidationException.class, () -> transactionTemplate.executeWithoutResult(status ->
+                engine.reserve(2000L, Map.of(otherProductId, 2, hotProductId, 1))));
+        assertEquals(5, engine.available(otherProductId));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            engine.reserve(2001L, Map.of(otherProductId, 3));
+            status.setRollbackOnly();
+        });
+        assertEquals(5, engine.available(otherProductId));
+        assertEquals(0, inventoryMovementRepository.countPending());
+
+        System.out.println("✅ TEST 4 PASÓ: Unidades devueltas\n");
+    }
+
+    /**
+     * TEST 5: Devolución de una orden y reconciliación de movimientos pendientes tras una caída
+     */
+    @Test
+    @Order(5)
+    public void test5_ReleaseAndReconcile() {
+        System.out.println("\n=== TEST 5: Devolución y reconciliación ===");
+
+        transactionTemplate.executeWithoutResult(status -> engine.release(1000L, Map.of(hotProductId, 1)));
+        assertEquals(1, engine.available(hotProductId));
+
+        // Movimiento confirmado que nunca llegó a products.stock (simula una caída antes del flush)
+        jdbcTemplate.update("INSERT INTO inventory_movements (product_id, order_id, delta, created_at) VALUES (?, ?, ?, now())",
+                otherProductId, 3000L, -2);
+
+        engine.reconcile();
+
+        assertEquals(1, productRepository.findById(hotProductId).orElseThrow().getStock());
+        assertEquals(3, productRepository.findById(otherProductId).orElseThrow().getStock());
+        assertEquals(0, inventoryMovementRepository.countPending());
+
+        System.out.println("✅ TEST 5 PASÓ: Diario reconciliado con products.stock\n");
+    }
+
+    /**
+     * TEST 6: Un stock fijado por el admin con un checkout sin confirmar no vuelve a vender sus unidades
+     */
+    @Test
+    @Order(6)
+    public void test6_AdminStockChangeKeepsInFlightReservations() throws Exception {
+        System.out.println("\n=== TEST 6: Stock editado con una reserva en curso ===");
+
+        CountDownLatch reserved = new CountDownLatch(1);
+        CountDownLatch adminDone = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Checkout que reserva la única unidad y todavía no confirma
+            Future<?> checkout = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                engine.reserve(4000L, Map.of(hotProductId, 1));
+                reserved.countDown();
+                try {
+                    adminDone.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                status.setRollbackOnly();
+            }));
+            reserved.await(10, TimeUnit.SECONDS);
+            assertEquals(0, engine.available(hotProductId));
+
+            // El admin fija stock 5: el checkout en curso sigue reteniendo 1
+            transactionTemplate.executeWithoutResult(status -> {
+                engine.adjustToStock(Map.of(hotProductId, 5));
+                jdbcTemplate.update("UPDATE products SET stock = ? WHERE id = ?", 5, hotProductId);
+            });
+            assertEquals(4, engine.available(hotProductId));
+
+            // El checkout se revierte y devuelve su unidad sobre el stock nuevo
+            adminDone.countDown();
+            checkout.get(10, TimeUnit.SECONDS);
+            assertEquals(5, engine.available(hotProductId));
+        } finally {
+            adminDone.countDown();
+            executor.shutdownNow();
+        }
+
+        System.out.println("✅ TEST 6 PASÓ: 4 disponibles con la reserva en curso, 5 tras revertirla\n");
+    }
+
+    /**
+     * TEST 7: Un flush que cambia products.stock incrementa la versión del catálogo
+     */
+    @Test
+    @Order(7)
+    public void test7_FlushBumpsCatalogVersion() {
+        System.out.println("\n=== TEST 7: Flush y versión del catálogo ===");
+
+        transactionTemplate.executeWithoutResult(status -> engine.reserve(5000L, Map.of(hotProductId, 2)));
+        String before = catalogVersionService.currentVersion();
+
+        engine.flush();
+
+        assertEquals(3, productRepository.findById(hotProductId).orElseThrow().getStock());
+        assertNotEquals(before, catalogVersionService.currentVersion());
+
+        System.out.println("✅ TEST 7 PASÓ: Stock persistido con versión nueva\n");
+    }
+}
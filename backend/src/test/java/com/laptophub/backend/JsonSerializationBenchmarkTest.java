@@ -0,0 +1,156 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.laptophub.backend.dto.BrandResponseDTO;
+import com.laptophub.backend.dto.OrderItemResponseDTO;
+import com.laptophub.backend.dto.OrderResponseDTO;
+import com.laptophub.backend.dto.PaymentResponseDTO;
+import com.laptophub.backend.dto.ProductImageDTO;
+import com.laptophub.backend.dto.ProductListDTO;
+import com.laptophub.backend.model.OrderStatus;
+import com.laptophub.backend.model.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Benchmark de serialización de páginas grandes: Jackson por reflexión vs Blackbird,
+ * y tamaño de la respuesta con y sin gzip (server.compression).
+ * No usa base de datos. Solo se ejecuta de forma explícita:
+ *   ./mvnw test -Dtest=JsonSerializationBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class JsonSerializationBenchmarkTest {
+
+    private static final int WARMUP = 2_000;
+    private static final int ITERATIONS = 5_000;
+
+    @Test
+    void compareSerializationModes() throws Exception {
+        Page<ProductListDTO> productPage = productPage(200);
+        Page<OrderResponseDTO> orderPage = orderPage(50, 4);
+
+        ObjectMapper reflection = baseMapper();
+        ObjectMapper blackbird = baseMapper().registerModule(new BlackbirdModule());
+
+        System.out.println("\n📊 Serialización de páginas grandes (" + ITERATIONS + " iteraciones)");
+        System.out.printf("   %-28s %10s %14s %10s %10s%n", "caso", "µs/op", "bytes asig/op", "json", "gzip");
+        report("Page<ProductListDTO> reflexión", reflection, productPage);
+        report("Page<ProductListDTO> blackbird", blackbird, productPage);
+        report("Page<OrderResponseDTO> reflexión", reflection, orderPage);
+        report("Page<OrderResponseDTO> blackbird", blackbird, orderPage);
+    }
+
+    private void report(String label, ObjectMapper mapper, Object value) throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        // Se escribe a un stream descartable, igual que el converter escribe al OutputStream de la respuesta
+        for (int i = 0; i < WARMUP; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), value);
+        }
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValue(OutputStream.nullOutputStream(), value);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        byte[] json = mapper.writeValueAsBytes(value);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        }
+
+        System.out.printf("   %-28s %10.1f %14d %10d %10d%n", label,
+                elapsedNanos / 1_000.0 / ITERATIONS, allocated / ITERATIONS, json.length, compressed.size());
+    }
+
+    private ObjectMapper baseMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private Page<ProductListDTO> productPage(int size) {
+        List<ProductListDTO> products = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            products.add(product(i));
+        }
+        return new PageImpl<>(products, PageRequest.of(0, size), size * 10L);
+    }
+
+    private Page<OrderResponseDTO> orderPage(int size, int itemsPerOrder) {
+        List<OrderResponseDTO> orders = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            List<OrderItemResponseDTO> items = new ArrayList<>();
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(OrderItemResponseDTO.builder()
+                        .id((long) i * itemsPerOrder + j)
+                        .product(product(j))
+                        .cantidad(1 + j)
+                        .precioUnitario(new BigDecimal("1299.99"))
+                        .build());
+            }
+            orders.add(OrderResponseDTO.builder()
+                    .id((long) i)
+                    .userId(UUID.randomUUID())
+                    .total(new BigDecimal("5199.96"))
+                    .estado(OrderStatus.PROCESANDO)
+                    .direccionEnvio("Calle 123 #45-67, Bogotá")
+                    .items(items)
+                    .payment(PaymentResponseDTO.builder()
+                            .id((long) i)
+                            .orderId((long) i)
+                            .stripePaymentId("pi_" + UUID.randomUUID())
+                            .monto(new BigDecimal("5199.96"))
+                            .estado(PaymentStatus.COMPLETADO)
+                            .createdAt(LocalDateTime.now())
+                            .build())
+                    .createdAt(LocalDateTime.now())
+                    .build());
+        }
+        return new PageImpl<>(orders, PageRequest.of(0, size), size * 10L);
+    }
+
+    private ProductListDTO product(int i) {
+        return ProductListDTO.builder()
+                .id((long) i)
+                .nombre("Laptop Benchmark " + i)
+                .precio(new BigDecimal("1299.99"))
+                .stock(25)
+                .brand(BrandResponseDTO.builder()
+                        .id((long) (i % 5))
+                        .nombre("Marca " + (i % 5))
+                        .descripcion("Fabricante de laptops con una descripción larga que se repite en cada producto de la página")
+                        .imageUrl("https://res.cloudinary.com/demo/image/upload/laptophub/brands/marca-" + (i % 5) + ".png")
+                        .createdAt(LocalDateTime.now())
+                        .build())
+                .imagenPrincipal(ProductImageDTO.builder()
+                        .id((long) i)
+                        .url("https://res.cloudinary.com/demo/image/upload/laptophub/products/laptop-" + i + ".jpg")
+                        .orden(0)
+                        .descripcion("Vista frontal")
+                        .build())
+                .promedioRating(4.5)
+                .build();
+    }
+}
@@ -16,6 +16,7 @@ import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.support.SqlStatementCounter;
 import com.laptophub.backend.support.TestAuthHelper;
 import com.laptophub.backend.support.TestAuthHelper.AuthInfo;
 import org.junit.jupiter.api.Test;
@@ -396,15 +397,16 @@ public class OrderControllerTest {
      */
     @Test
     @org.junit.jupiter.api.Order(3)
-    public void test3_FindOrderById() throws Exception {
+    public void test3_FindOrderById() throws Throwable {
         System.out.println("\n=== TEST 3: Buscar orden por ID (GET /api/orders/{orderId}) ===");
         
-        mockMvc.perform(get("/api/orders/" + orderId)
-                        .header("Authorization", "Bearer " + userToken))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(orderId))
-                .andExpect(jsonPath("$.estado").value("PENDIENTE_PAGO"));
+        SqlStatementCounter.assertMaxStatements("GET /api/orders/{orderId}", 12, () ->
+                mockMvc.perform(get("/api/orders/" + orderId)
+                                .header("Authorization", "Bearer " + userToken))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value(orderId))
+                        .andExpect(jsonPath("$.estado").value("PENDIENTE_PAGO")));
         
         System.out.println("✅ TEST 3 PASÓ: Orden encontrada por ID\n");
     }
@@ -414,19 +416,20 @@ public class OrderControllerTest {
      */
     @Test
     @org.junit.jupiter.api.Order(4)
-    public void test4_FindOrdersByUser() throws Exception {
+    public void test4_FindOrdersByUser() throws Throwable {
         System.out.println("\n=== TEST 4: Buscar órdenes por usuario (GET /api/orders/user/{userId}) ===");
         
-        mockMvc.perform(get("/api/orders/user/" + userId)
-                        .header("Authorization", "Bearer " + userToken)
-                        .param("page", "0")
-                        .param("size", "10"))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content").isArray())
-                .andExpect(jsonPath("$.content[0].id").exists())
-                .andExpect(jsonPath("$.totalElements").exists())
-                .andExpect(jsonPath("$.totalPages").exists());
+        SqlStatementCounter.assertMaxStatements("GET /api/orders/user/{userId}", 15, () ->
+                mockMvc.perform(get("/api/orders/user/" + userId)
+                                .header("Authorization", "Bearer " + userToken)
+                                .param("page", "0")
+                                .param("size", "10"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content").isArray())
+                        .andExpect(jsonPath("$.content[0].id").exists())
+                        .andExpect(jsonPath("$.totalElements").exists())
+                        .andExpect(jsonPath("$.totalPages").exists()));
         
         System.out.println("✅ TEST 4 PASÓ: Órdenes encontradas por usuario (paginadas)\n");
     }
@@ -436,19 +439,21 @@ public class OrderControllerTest {
      */
     @Test
     @org.junit.jupiter.api.Order(5)
-    public void test5_FindOrdersByStatus() throws Exception {
+    public void test5_FindOrdersByStatus() throws Throwable {
         System.out.println("\n=== TEST 5: Buscar órdenes por estado (GET /api/orders/status/{estado}) ===");
         
-        mockMvc.perform(get("/api/orders/status/PENDIENTE_PAGO")
-                        .header("Authorization", "Bearer " + adminToken)
-                        .param("page", "0")
-                        .param("size", "10"))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content").isArray())
-                .andExpect(jsonPath("$.content[0].estado").value("PENDIENTE_PAGO"))
-                .andExpect(jsonPath("$.totalElements").exists())
-                .andExpect(jsonPath("$.totalPages").exists());
+        // Ids paginados en BD + un fetch del grafo: el número de sentencias no depende de cuántas órdenes haya
+        SqlStatementCounter.assertMaxStatements("GET /api/orders/status/{estado}", 10, () ->
+                mockMvc.perform(get("/api/orders/status/PENDIENTE_PAGO")
+                                .header("Authorization", "Bearer " + adminToken)
+                                .param("page", "0")
+                                .param("size", "10"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content").isArray())
+                        .andExpect(jsonPath("$.content[0].estado").value("PENDIENTE_PAGO"))
+                        .andExpect(jsonPath("$.totalElements").exists())
+                        .andExpect(jsonPath("$.totalPages").exists()));
         
         System.out.println("✅ TEST 5 PASÓ: Órdenes encontradas por estado (paginadas)\n");
     }
@@ -1025,5 +1030,88 @@ public class OrderControllerTest {
         System.out.println("   - De 5 órdenes creadas, retornó solamente 3 (las válidas)");
         System.out.println("   - Excluyó correctamente PENDIENTE_PAGO (1 orden) y CANCELADO (1 orden)\n");
     }
-}
 
+    /**
+     * TEST 17: reviewable-products pagina en la base de datos
+     * Un usuario con 3 productos entregados pide páginas de 2: la primera trae 2, la segunda 1, total 3
+     */
+    @Test
+    @org.junit.jupiter.api.Order(17)
+    public void test17_ReviewableProductsPagedInDatabase() throws Throwable {
+        System.out.println("\n=== TEST 17: reviewable-products paginado en BD ===");
+
+        AuthInfo buyer = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("reviewable.paged"), "password123", "Paged", "Buyer");
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("PagedBrand")
+                .descripcion("Brand para test de paginación de reseñables")
+                .build());
+
+        Long lastProductId = null;
+        for (int i = 0; i < 3; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .nombre("Laptop Reseñable " + i)
+                    .descripcion("Producto entregado " + i)
+                    .precio(new BigDecimal("700.00"))
+                    .stock(10)
+                    .brand(brand)
+                    .build());
+            mockMvc.perform(post("/api/cart/user/" + buyer.getUserId() + "/items")
+                            .header("Authorization", "Bearer " + buyer.getToken())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(AddToCartDTO.builder()
+                                    .productId(product.getId())
+                                    .cantidad(1)
+                                    .build())))
+                    .andExpect(status().isOk());
+            lastProductId = product.getId();
+        }
+
+        MvcResult orderResult = mockMvc.perform(post("/api/orders/user/" + buyer.getUserId())
+                        .header("Authorization", "Bearer " + buyer.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(CreateOrderDTO.builder()
+                                .direccionEnvio("Calle Paginada 17")
+                                .build())))
+                .andExpect(status().isOk())
+                .andReturn();
+        Long deliveredOrderId = objectMapper.readTree(orderResult.getResponse().getContentAsString()).get("id").asLong();
+        mockMvc.perform(put("/api/orders/" + deliveredOrderId + "/status/ENTREGADO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+
+        SqlStatementCounter.assertMaxStatements("GET /api/orders/user/{userId}/reviewable-products", 5, () ->
+                mockMvc.perform(get("/api/orders/user/" + buyer.getUserId() + "/reviewable-products")
+                                .header("Authorization", "Bearer " + buyer.getToken())
+                                .param("page", "0")
+                                .param("size", "2"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content.length()").value(2))
+                        .andExpect(jsonPath("$.totalElements").value(3))
+                        .andExpect(jsonPath("$.totalPages").value(2)));
+
+        mockMvc.perform(get("/api/orders/user/" + buyer.getUserId() + "/reviewable-products")
+                        .header("Authorization", "Bearer " + buyer.getToken())
+                        .param("page", "1")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content[0].hasReview").value(false));
+
+        // El registro de compras sigue a la orden: comprado mientras está ENTREGADO, no después de cancelarla
+        mockMvc.perform(get("/api/orders/user/" + buyer.getUserId() + "/product/" + lastProductId + "/purchased")
+                        .header("Authorization", "Bearer " + buyer.getToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purchased").value(true));
+        mockMvc.perform(put("/api/orders/" + deliveredOrderId + "/status/CANCELADO")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/orders/user/" + buyer.getUserId() + "/product/" + lastProductId + "/purchased")
+                        .header("Authorization", "Bearer " + buyer.getToken()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purchased").value(false));
+
+        System.out.println("✅ TEST 17 PASÓ: reviewable-products paginado en BD\n");
+    }
+}
@@ -16,6 +16,8 @@ import com.laptophub.backend.repository.ProductRepository;
 import com.laptophub.backend.repository.ProductImageRepository;
 import com.laptophub.backend.repository.ReviewRepository;
 import com.laptophub.backend.repository.UserRepository;
+import com.laptophub.backend.service.CatalogVersionService;
+import com.laptophub.backend.support.SqlStatementCounter;
 import com.laptophub.backend.support.TestAuthHelper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.MethodOrderer;
@@ -26,6 +28,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
@@ -77,6 +80,12 @@ public class ProductControllerTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private CatalogVersionService catalogVersionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private static String productId;
     private static String brandId;
     private static final String TEST_PRODUCT_NAME = "Laptop Dell XPS 15";
@@ -189,15 +198,16 @@ public class ProductControllerTest {
      */
     @Test
     @Order(2)
-    public void test2_FindProductById() throws Exception {
+    public void test2_FindProductById() throws Throwable {
         System.out.println("\n=== TEST 2: Buscar producto por ID (GET /api/products/{id}) ===");
         
-        mockMvc.perform(get("/api/products/" + productId))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.id").value(productId))
-                .andExpect(jsonPath("$.nombre").value(TEST_PRODUCT_NAME))
-                .andExpect(jsonPath("$.brand.nombre").value(TEST_BRAND_NAME));
+        SqlStatementCounter.assertMaxStatements("GET /api/products/{id}", 8, () ->
+                mockMvc.perform(get("/api/products/" + productId))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.id").value(productId))
+                        .andExpect(jsonPath("$.nombre").value(TEST_PRODUCT_NAME))
+                        .andExpect(jsonPath("$.brand.nombre").value(TEST_BRAND_NAME)));
         
         System.out.println("✅ TEST 2 PASÓ: Producto encontrado por ID\n");
     }
@@ -207,19 +217,20 @@ public class ProductControllerTest {
      */
     @Test
     @Order(3)
-    public void test3_FindAllProducts() throws Exception {
+    public void test3_FindAllProducts() throws Throwable {
         System.out.println("\n=== TEST 3: Listar productos activos (GET /api/products) ===");
         
-        mockMvc.perform(get("/api/products")
-                        .param("page", "0")
-                        .param("size", "10"))
-                .andDo(print())
-                .andExpect(status().isOk())
-                .andExpect(jsonPath("$.content").isArray())
-                .andExpect(jsonPath("$.content[0].id").exists())
-                .andExpect(jsonPath("$.content[0].deletedAt").isEmpty())
-                .andExpect(jsonPath("$.totalElements").value(1))
-                .andExpect(jsonPath("$.totalPages").exists());
+        SqlStatementCounter.assertMaxStatements("GET /api/products", 10, () ->
+                mockMvc.perform(get("/api/products")
+                                .param("page", "0")
+                                .param("size", "10"))
+                        .andDo(print())
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$.content").isArray())
+                        .andExpect(jsonPath("$.content[0].id").exists())
+                        .andExpect(jsonPath("$.content[0].deletedAt").isEmpty())
+                        .andExpect(jsonPath("$.totalElements").value(1))
+                        .andExpect(jsonPath("$.totalPages").exists()));
 
         // Lista de inactivos debe estar vacía (ninguno desactivado aún)
         mockMvc.perform(get("/api/products/inactive")
@@ -760,4 +771,81 @@ public class ProductControllerTest {
 
         System.out.println("✅ TEST 11 PASÓ: Producto reactivado correctamente\n");
     }
+
+    /**
+     * TEST 12: GET condicional del catálogo (ETag / If-None-Match → 304)
+     */
+    @Test
+    @Order(12)
+    public void test12_ConditionalGetWithEtag() throws Exception {
+        System.out.println("\n=== TEST 12: GET condicional con ETag (GET /api/products/{id}) ===");
+
+        Product activo = productRepository.findAll().stream()
+                .filter(p -> p.getDeletedAt() == null)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("No hay producto activo"));
+
+        MvcResult first = mockMvc.perform(get("/api/products/" + activo.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        // Sin cambios en el catálogo → 304 sin cuerpo
+        mockMvc.perform(get("/api/products/" + activo.getId()).header("If-None-Match", etag))
+                .andDo(print())
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        // El ETag de administrador es distinto porque ve productos inactivos
+        mockMvc.perform(get("/api/products/" + activo.getId())
+                        .header("Authorization", "Bearer " + adminToken)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        // Un cambio en el catálogo invalida el ETag
+        activo.setStock(activo.getStock() + 1);
+        productRepository.save(activo);
+
+        mockMvc.perform(get("/api/products/" + activo.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(etag)));
+
+        System.out.println("✅ TEST 12 PASÓ: ETag del catálogo responde 304 y se invalida con cambios\n");
+    }
+
+    /**
+     * TEST 13: Una escritura hecha por otra instancia (solo en catalog_version) invalida el ETag
+     */
+    @Test
+    @Order(13)
+    public void test13_EtagFollowsSharedCatalogVersion() throws Exception {
+        System.out.println("\n=== TEST 13: Versión del catálogo compartida entre instancias ===");
+
+        Product activo = productRepository.findAll().stream()
+                .filter(p -> p.getDeletedAt() == null)
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("No hay producto activo"));
+
+        String etag = mockMvc.perform(get("/api/products/" + activo.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        String before = catalogVersionService.currentVersion();
+
+        // Otra instancia confirma una escritura: esta instancia no pasa por su propio incremento
+        jdbcTemplate.update("UPDATE catalog_version SET version = version + 1 WHERE id = 1");
+
+        // Se vuelve a leer la versión como mucho cada app.catalog.version-check-ms (1s)
+        long deadline = System.currentTimeMillis() + 5000;
+        while (catalogVersionService.currentVersion().equals(before) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(!catalogVersionService.currentVersion().equals(before), "La versión compartida no se volvió a leer");
+
+        mockMvc.perform(get("/api/products/" + activo.getId()).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(etag)));
+
+        System.out.println("✅ TEST 13 PASÓ: ETag invalidado por una escritura de otra instancia\n");
+    }
 }
@@ -0,0 +1,218 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.ProductImageBatchResultDTO;
+import com.laptophub.backend.dto.ProductImageDTO;
+import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.exception.ValidationException;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.ImageUploadLimits;
+import com.laptophub.backend.service.ProductImageUploadService;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests de la subida de varias imágenes por producto (ProductImageUploadService).
+ * Usa el Cloudinary simulado con una latencia fija de 300ms por archivo, lotes de hasta 5 archivos de 1KB.
+ */
+@SpringBootTest(properties = {
+        "simulation.cloudinary.latency-ms=300",
+        "simulation.cloudinary.jitter-ms=0",
+        "simulation.cloudinary.failure-rate=0.0",
+        "app.images.upload.parallelism=4",
+        "app.images.upload.max-files=5",
+        "app.images.upload.max-file-size=1KB"
+})
+@ActiveProfiles("simulated")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class ProductImageBatchUploadTest {
+
+    @Autowired
+    private ProductImageUploadService productImageUploadService;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    private static Long productId;
+
+    /**
+     * TEST 1: Configuración - Producto con una imagen existente (orden 1)
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() {
+        System.out.println("\n=== TEST 1: Producto con una imagen ===");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Batch Upload Brand " + System.currentTimeMillis())
+                .descripcion("Marca para subida de imágenes en lote")
+                .build());
+        Product product = productRepository.save(Product.builder()
+                .nombre("Batch Upload Laptop").precio(new BigDecimal("1299.99")).stock(5).brand(brand).build());
+        productId = product.getId();
+        productImageRepository.save(ProductImage.builder()
+                .url("https://res.cloudinary.com/simulated/image/upload/v1/laptophub/products/portada.jpg")
+                .orden(1)
+                .product(product)
+                .build());
+
+        System.out.println("✅ TEST 1 PASÓ: Producto creado\n");
+    }
+
+    /**
+     * TEST 2: Las subidas corren en paralelo, se agregan tras la existente y un archivo inválido no frena al resto
+     */
+    @Test
+    @Order(2)
+    public void test2_ParallelUploadWithPartialFailure() {
+        System.out.println("\n=== TEST 2: 4 imágenes válidas y 1 vacía ===");
+
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            files.add(image("foto-" + i + ".jpg"));
+        }
+        files.add(2, new MockMultipartFile("files", "vacia.jpg", "image/jpeg", new byte[0]));
+
+        long start = System.currentTimeMillis();
+        ProductImageBatchResultDTO result = productImageUploadService.uploadImages(
+                productId, files, List.of("Frontal", "Lateral", "Vacía", "Teclado", "Puertos"));
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertEquals(5, result.getRecibidas());
+        assertEquals(4, result.getSubidas());
+        assertEquals(1, result.getErrores());
+        assertEquals(2, result.getDetalleErrores().get(0).getIndice());
+        assertEquals("vacia.jpg", result.getDetalleErrores().get(0).getArchivo());
+
+        // Orden consecutivo tras la imagen existente, respetando el orden de la petición
+        List<ProductImageDTO> imagenes = result.getImagenes();
+        assertEquals(List.of(2, 3, 4, 5), imagenes.stream().map(ProductImageDTO::getOrden).toList());
+        assertEquals(List.of("Frontal", "Lateral", "Teclado", "Puertos"),
+                imagenes.stream().map(ProductImageDTO::getDescripcion).toList());
+        assertTrue(imagenes.get(0).getTarjeta() != null, "Las variantes se calculan al subir");
+
+        // 4 subidas de 300ms con 4 hilos: en serie tardarían 1200ms
+        assertTrue(elapsed < 1000, "La subida tardó " + elapsed + "ms, se esperaban subidas en paralelo");
+        assertEquals(5, productImageRepository.findByProductIdOrderByOrdenAsc(productId).size());
+
+        System.out.println("✅ TEST 2 PASÓ: 4 imágenes en " + elapsed + "ms, 1 error informado\n");
+    }
+
+    /**
+     * TEST 3: Dos lotes simultáneos del mismo producto no repiten orden
+     */
+    @Test
+    @Order(3)
+    public void test3_ConcurrentBatchesGetDistinctOrden() throws Exception {
+        System.out.println("\n=== TEST 3: Lotes simultáneos ===");
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<Future<ProductImageBatchResultDTO>> batches = new ArrayList<>();
+            for (int b = 0; b < 2; b++) {
+                String prefix = "lote-" + b;
+                batches.add(executor.submit(() -> productImageUploadService.uploadImages(
+                        productId, List.of(image(prefix + "-a.jpg"), image(prefix + "-b.jpg")), null)));
+            }
+            for (Future<ProductImageBatchResultDTO> batch : batches) {
+                ProductImageBatchResultDTO result = batch.get(10, TimeUnit.SECONDS);
+                assertEquals(2, result.getSubidas());
+                assertNull(result.getImagenes().get(0).getDescripcion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ProductImage> images = productImageRepository.findByProductIdOrderByOrdenAsc(productId);
+        Set<Integer> ordenes = new HashSet<>();
+        images.forEach(image -> ordenes.add(image.getOrden()));
+        assertEquals(9, images.size());
+        assertEquals(Set.of(1, 2, 3, 4, 5, 6, 7, 8, 9), ordenes);
+
+        System.out.println("✅ TEST 3 PASÓ: 9 imágenes con orden 1..9 sin repetir\n");
+    }
+
+    /**
+     * TEST 4: Límite de archivos por petición y producto inexistente
+     */
+    @Test
+    @Order(4)
+    public void test4_Validation() {
+        System.out.println("\n=== TEST 4: Validaciones ===");
+
+        List<MultipartFile> tooMany = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            tooMany.add(image("foto-" + i + ".jpg"));
+        }
+        assertThrows(ValidationException.class,
+                () -> productImageUploadService.uploadImages(productId, tooMany, null));
+        assertThrows(ValidationException.class,
+                () -> productImageUploadService.uploadImages(productId, List.of(), null));
+        assertThrows(ResourceNotFoundException.class,
+                () -> productImageUploadService.uploadImages(-1L, List.of(image("foto.jpg")), null));
+
+        System.out.println("✅ TEST 4 PASÓ: Peticiones inválidas rechazadas\n");
+    }
+
+    /**
+     * TEST 5: Un archivo sobre el tamaño máximo se informa sin frenar al resto; límites inconsistentes no arrancan
+     */
+    @Test
+    @Order(5)
+    public void test5_FileSizeLimit() {
+        System.out.println("\n=== TEST 5: Tamaño máximo por archivo ===");
+
+        MockMultipartFile tooBig = new MockMultipartFile("files", "enorme.jpg", "image/jpeg", new byte[2048]);
+        ProductImageBatchResultDTO result = productImageUploadService.uploadImages(
+                productId, List.of(image("chica.jpg"), tooBig), null);
+
+        assertEquals(1, result.getSubidas());
+        assertEquals(1, result.getErrores());
+        assertEquals("enorme.jpg", result.getDetalleErrores().get(0).getArchivo());
+        assertTrue(result.getDetalleErrores().get(0).getMensaje().contains("1 KB"));
+
+        // Un lote completo (10 x 10MB) no cabe en una petición de 60MB
+        assertThrows(IllegalStateException.class, () -> new ImageUploadLimits(
+                DataSize.ofMegabytes(10), 10, DataSize.ofMegabytes(10), DataSize.ofMegabytes(60)));
+
+        System.out.println("✅ TEST 5 PASÓ: Archivo grande rechazado, el resto subido\n");
+    }
+
+    private static MockMultipartFile image(String name) {
+        return new MockMultipartFile("files", name, "image/jpeg", new byte[]{(byte) 0xFF, (byte) 0xD8, 1, 2, 3});
+    }
+}
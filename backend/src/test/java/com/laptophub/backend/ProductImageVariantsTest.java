@@ -0,0 +1,186 @@
+package com.laptophub.backend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.dto.AddToCartDTO;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.ImageVariant;
+import com.laptophub.backend.model.ImageVariantSpec;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.model.ProductImage;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductImageRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.support.TestAuthHelper;
+import com.laptophub.backend.support.TestAuthHelper.AuthInfo;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests de las variantes de imagen: listados con la variante de tarjeta y detalle con srcset
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class ProductImageVariantsTest {
+
+    private static final String ORIGINAL_URL =
+            "https://res.cloudinary.com/demo/image/upload/v1712345678/laptophub/products/zenbook.jpg";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductImageRepository productImageRepository;
+
+    private static Long brandId;
+    private static Long productId;
+
+    /**
+     * TEST 1: Las variantes insertan la transformación en la URL y escalan sin ampliar
+     */
+    @Test
+    @Order(1)
+    public void test1_VariantUrlsAndDimensions() {
+        System.out.println("\n=== TEST 1: URLs y dimensiones de variantes ===");
+
+        ImageVariant tarjeta = ImageVariantSpec.TARJETA.variantOf(ORIGINAL_URL, 2400, 1600);
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_limit,w_480,q_auto/v1712345678/laptophub/products/zenbook.jpg",
+                tarjeta.getUrl());
+        assertEquals(480, tarjeta.getAncho());
+        assertEquals(320, tarjeta.getAlto());
+
+        // Original más chico que la variante: se conserva su tamaño
+        ImageVariant detalle = ImageVariantSpec.DETALLE.variantOf(ORIGINAL_URL, 800, 600);
+        assertEquals(800, detalle.getAncho());
+        assertEquals(600, detalle.getAlto());
+
+        // URLs ajenas a Cloudinary no tienen variantes
+        assertNull(ImageVariantSpec.MINIATURA.variantOf("https://example.com/foto.jpg", 2400, 1600));
+
+        System.out.println("✅ TEST 1 PASÓ: Variantes calculadas\n");
+    }
+
+    /**
+     * TEST 2: Configuración - Producto con una imagen de Cloudinary de 2400x1600
+     */
+    @Test
+    @Order(2)
+    public void test2_Setup() {
+        System.out.println("\n=== TEST 2: Producto con imagen ===");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Variants Brand " + System.currentTimeMillis())
+                .descripcion("Marca para variantes de imagen")
+                .build());
+        brandId = brand.getId();
+        Product product = productRepository.save(Product.builder()
+                .nombre("Variants Laptop").precio(new BigDecimal("1899.99")).stock(5).brand(brand).build());
+        productId = product.getId();
+
+        ProductImage image = ProductImage.builder()
+                .url(ORIGINAL_URL)
+                .ancho(2400)
+                .alto(1600)
+                .orden(1)
+                .descripcion("Vista frontal")
+                .product(product)
+                .build();
+        ImageVariantSpec.applyTo(image);
+        productImageRepository.save(image);
+
+        System.out.println("✅ TEST 2 PASÓ: Imagen con variantes guardada\n");
+    }
+
+    /**
+     * TEST 3: El listado devuelve la variante de tarjeta sin srcset
+     */
+    @Test
+    @Order(3)
+    public void test3_ListingUsesCardVariant() throws Exception {
+        System.out.println("\n=== TEST 3: Imagen de listado ===");
+
+        mockMvc.perform(get("/api/products").param("brandId", brandId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].imagenPrincipal.url").value(
+                        ImageVariantSpec.TARJETA.urlFor(ORIGINAL_URL)))
+                .andExpect(jsonPath("$.content[0].imagenPrincipal.ancho").value(480))
+                .andExpect(jsonPath("$.content[0].imagenPrincipal.alto").value(320))
+                .andExpect(jsonPath("$.content[0].imagenPrincipal.srcset").doesNotExist());
+
+        System.out.println("✅ TEST 3 PASÓ: Listado con variante de 480px\n");
+    }
+
+    /**
+     * TEST 4: El detalle devuelve el original, las tres variantes y el srcset
+     */
+    @Test
+    @Order(4)
+    public void test4_DetailHasSrcset() throws Exception {
+        System.out.println("\n=== TEST 4: Imagen de detalle ===");
+
+        String expectedSrcset = ImageVariantSpec.MINIATURA.urlFor(ORIGINAL_URL) + " 160w, "
+                + ImageVariantSpec.TARJETA.urlFor(ORIGINAL_URL) + " 480w, "
+                + ImageVariantSpec.DETALLE.urlFor(ORIGINAL_URL) + " 1200w";
+
+        mockMvc.perform(get("/api/products/" + productId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imagenes[0].url").value(ORIGINAL_URL))
+                .andExpect(jsonPath("$.imagenes[0].ancho").value(2400))
+                .andExpect(jsonPath("$.imagenes[0].miniatura.ancho").value(160))
+                .andExpect(jsonPath("$.imagenes[0].detalle.alto").value(800))
+                .andExpect(jsonPath("$.imagenes[0].srcset").value(expectedSrcset));
+
+        System.out.println("✅ TEST 4 PASÓ: srcset con 3 anchos\n");
+    }
+
+    /**
+     * TEST 5: El carrito devuelve la variante de tarjeta con sus dimensiones, como los listados
+     */
+    @Test
+    @Order(5)
+    public void test5_CartUsesCardVariantWithDimensions() throws Exception {
+        System.out.println("\n=== TEST 5: Imagen en el carrito ===");
+
+        AuthInfo auth = TestAuthHelper.registerAndLogin(mockMvc, objectMapper,
+                TestAuthHelper.uniqueEmail("variants.cart"), "password123", "Variants", "Cart");
+        AddToCartDTO addToCart = AddToCartDTO.builder().productId(productId).cantidad(1).build();
+
+        mockMvc.perform(post("/api/cart/user/" + auth.getUserId() + "/items")
+                        .header("Authorization", "Bearer " + auth.getToken())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(addToCart)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].product.imagenPrincipal.url").value(
+                        ImageVariantSpec.TARJETA.urlFor(ORIGINAL_URL)))
+                .andExpect(jsonPath("$.items[0].product.imagenPrincipal.ancho").value(480))
+                .andExpect(jsonPath("$.items[0].product.imagenPrincipal.alto").value(320));
+
+        System.out.println("✅ TEST 5 PASÓ: Carrito con variante de 480x320\n");
+    }
+}
@@ -0,0 +1,189 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.dto.ProductListDTO;
+import com.laptophub.backend.exception.ResourceNotFoundException;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.service.ProductQueryCoalescer;
+import com.laptophub.backend.service.ProductService;
+import com.laptophub.backend.service.SingleFlight;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del agrupamiento de consultas de catálogo idénticas (SingleFlight / ProductQueryCoalescer)
+ */
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class ProductQueryCoalescingTest {
+
+    @Autowired
+    private ProductQueryCoalescer productQueryCoalescer;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    private static Long brandId;
+    private static Long productId;
+
+    /**
+     * TEST 1: Llamadas simultáneas con la misma clave comparten una sola ejecución
+     */
+    @Test
+    @Order(1)
+    public void test1_ConcurrentCallsShareOneExecution() throws Exception {
+        System.out.println("\n=== TEST 1: Una ejecución para 10 llamadas ===");
+
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch leaderRunning = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        try {
+            Future<Integer> leader = executor.submit(() -> singleFlight.run("productos?page=0", () -> {
+                leaderRunning.countDown();
+                await(releaseLeader);
+                return executions.incrementAndGet();
+            }));
+            assertTrue(leaderRunning.await(5, TimeUnit.SECONDS));
+
+            List<Future<Integer>> followers = new ArrayList<>();
+            for (int i = 0; i < 9; i++) {
+                followers.add(executor.submit(() -> singleFlight.run("productos?page=0", executions::incrementAndGet)));
+            }
+            long deadline = System.currentTimeMillis() + 5000;
+            while (singleFlight.getShared() < 9 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            releaseLeader.countDown();
+
+            assertEquals(1, leader.get(5, TimeUnit.SECONDS));
+            for (Future<Integer> follower : followers) {
+                assertEquals(1, follower.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            releaseLeader.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals(1, executions.get());
+        assertEquals(1, singleFlight.getExecutions());
+        assertEquals(9, singleFlight.getShared());
+
+        // Terminada la ejecución la clave se libera: la siguiente llamada vuelve a calcular
+        assertEquals(2, singleFlight.run("productos?page=0", executions::incrementAndGet));
+
+        System.out.println("✅ TEST 1 PASÓ: 1 ejecución compartida por 10 llamadas\n");
+    }
+
+    /**
+     * TEST 2: Las llamadas que esperan reciben la misma excepción que la primera
+     */
+    @Test
+    @Order(2)
+    public void test2_FailureIsSharedAndNotRemembered() throws Exception {
+        System.out.println("\n=== TEST 2: Excepción compartida ===");
+
+        SingleFlight<Long, String> singleFlight = new SingleFlight<>();
+        CountDownLatch leaderRunning = new CountDownLatch(1);
+        CountDownLatch releaseLeader = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> leader = executor.submit(() -> singleFlight.run(99L, () -> {
+                leaderRunning.countDown();
+                await(releaseLeader);
+                throw new ResourceNotFoundException("Producto no encontrado con id: 99");
+            }));
+            assertTrue(leaderRunning.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> singleFlight.run(99L, () -> "no debería ejecutarse"));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (singleFlight.getShared() < 1 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            releaseLeader.countDown();
+
+            java.util.concurrent.ExecutionException leaderError =
+                    assertThrows(java.util.concurrent.ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            java.util.concurrent.ExecutionException followerError =
+                    assertThrows(java.util.concurrent.ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertTrue(leaderError.getCause() instanceof ResourceNotFoundException);
+            assertSame(leaderError.getCause(), followerError.getCause());
+        } finally {
+            releaseLeader.countDown();
+            executor.shutdownNow();
+        }
+        assertEquals("ok", singleFlight.run(99L, () -> "ok"));
+
+        System.out.println("✅ TEST 2 PASÓ: Error compartido y no recordado\n");
+    }
+
+    /**
+     * TEST 3: El coalescer devuelve lo mismo que ProductService con parámetros normalizados
+     */
+    @Test
+    @Order(3)
+    public void test3_CoalescerMatchesService() {
+        System.out.println("\n=== TEST 3: Resultados del coalescer ===");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Coalescing Brand " + System.currentTimeMillis())
+                .descripcion("Marca para consultas agrupadas")
+                .build());
+        brandId = brand.getId();
+        productId = productRepository.save(Product.builder()
+                .nombre("Coalesced Laptop").precio(new BigDecimal("1499.99")).stock(3).brand(brand).build()).getId();
+
+        Page<ProductListDTO> direct = productService.search(
+                null, brandId, "createdAt", "desc", PageRequest.of(0, 20), false, true);
+        Page<ProductListDTO> coalesced = productQueryCoalescer.search(
+                "", brandId, "CREATEDAT", "DESC", PageRequest.of(0, 20), false, true);
+        assertEquals(direct.getTotalElements(), coalesced.getTotalElements());
+        assertEquals(direct.getContent().get(0).getId(), coalesced.getContent().get(0).getId());
+
+        Page<ProductListDTO> byName = productQueryCoalescer.search(
+                "COALESCED", brandId, "name", "asc", PageRequest.of(0, 20), false, true);
+        assertEquals(1, byName.getTotalElements());
+
+        assertEquals("Coalesced Laptop", productQueryCoalescer.findByIdDTO(productId).getNombre());
+        assertThrows(ResourceNotFoundException.class, () -> productQueryCoalescer.findByIdDTO(-1L));
+
+        System.out.println("✅ TEST 3 PASÓ: Mismos resultados que ProductService\n");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
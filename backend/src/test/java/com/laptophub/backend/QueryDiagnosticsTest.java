@@ -0,0 +1,136 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.config.QueryPatternDetector;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del detector de N+1 y cargas diferidas (app.diagnostics.queries.mode=log en tests)
+ */
+@SpringBootTest
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class QueryDiagnosticsTest {
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private static Long brandId;
+    private static final List<Long> productIds = new ArrayList<>();
+
+    /**
+     * TEST 1: Configuración - Marca con varios productos
+     */
+    @Test
+    @Order(1)
+    public void test1_Setup() {
+        System.out.println("\n=== TEST 1: Marca con 6 productos ===");
+
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("Diagnostics Brand " + System.currentTimeMillis())
+                .descripcion("Marca para el detector de N+1")
+                .build());
+        brandId = brand.getId();
+        for (int i = 1; i <= 6; i++) {
+            productIds.add(productRepository.save(Product.builder()
+                    .nombre("Diagnostics Laptop " + i)
+                    .precio(new BigDecimal("999.99"))
+                    .stock(5)
+                    .brand(brand)
+                    .build()).getId());
+        }
+
+        System.out.println("✅ TEST 1 PASÓ: Datos creados\n");
+    }
+
+    /**
+     * TEST 2: Una consulta repetida por producto (un findById por id) se reporta con su punto de llamada
+     */
+    @Test
+    @Order(2)
+    public void test2_DetectsRepeatedStatements() {
+        System.out.println("\n=== TEST 2: Detección de N+1 ===");
+
+        List<String> findings;
+        try (QueryPatternDetector.Scope scope = QueryPatternDetector.begin("productos uno por uno", 5, false)) {
+            // N+1 deliberado: no depende de cómo consulten los servicios de la aplicación
+            for (Long productId : productIds) {
+                productRepository.findById(productId).orElseThrow();
+            }
+            findings = scope.findings();
+        }
+
+        findings.forEach(finding -> System.out.println("🔎 " + finding));
+        assertTrue(findings.stream().anyMatch(finding -> finding.startsWith("N+1: ")
+                        && finding.contains("QueryDiagnosticsTest.test2_DetectsRepeatedStatements")),
+                "Se esperaba un N+1 atribuido al bucle del test: " + findings);
+
+        System.out.println("✅ TEST 2 PASÓ: N+1 detectado\n");
+    }
+
+    /**
+     * TEST 3: Las colecciones LAZY inicializadas fuera del fetch se reportan
+     */
+    @Test
+    @Order(3)
+    public void test3_DetectsLazyCollectionLoad() {
+        System.out.println("\n=== TEST 3: Detección de carga diferida ===");
+
+        List<String> findings;
+        try (QueryPatternDetector.Scope scope = QueryPatternDetector.begin("productos de la marca", 5, false)) {
+            transactionTemplate.executeWithoutResult(status ->
+                    brandRepository.findById(brandId).orElseThrow().getProducts().size());
+            findings = scope.findings();
+        }
+
+        findings.forEach(finding -> System.out.println("🔎 " + finding));
+        assertTrue(findings.stream().anyMatch(finding -> finding.startsWith("Carga diferida: 1x colección Brand.products")),
+                "Se esperaba la carga diferida de Brand.products: " + findings);
+
+        System.out.println("✅ TEST 3 PASÓ: Carga diferida detectada\n");
+    }
+
+    /**
+     * TEST 4: En modo fail la sentencia que llega al umbral interrumpe la ejecución
+     */
+    @Test
+    @Order(4)
+    public void test4_FailModeThrowsAtThreshold() {
+        System.out.println("\n=== TEST 4: Modo fail ===");
+
+        try (QueryPatternDetector.Scope scope = QueryPatternDetector.begin("modo fail", 3, true)) {
+            assertThrows(RuntimeException.class, () -> {
+                for (int i = 0; i < 3; i++) {
+                    productRepository.count();
+                }
+            });
+        }
+
+        // Fuera del Scope no se registra nada
+        productRepository.count();
+
+        System.out.println("✅ TEST 4 PASÓ: Ejecución interrumpida al llegar al umbral\n");
+    }
+}
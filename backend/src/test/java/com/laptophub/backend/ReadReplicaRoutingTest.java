@@ -0,0 +1,199 @@
+package com.laptophub.backend;
+
+import com.laptophub.backend.config.ReplicaConsistencyTracker;
+import com.laptophub.backend.config.ReplicaStickinessFilter;
+import com.laptophub.backend.repository.ProductRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests del enrutamiento de transacciones readOnly a la réplica.
+ * La "réplica" apunta a la misma base de tests; se distingue por su pool de conexiones.
+ */
+@SpringBootTest(properties = {
+        "app.datasource.replica.url=${spring.datasource.url}",
+        "app.datasource.replica.lag-check-ms=3600000"
+})
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SuppressWarnings("null")
+public class ReadReplicaRoutingTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ReplicaConsistencyTracker tracker;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    /**
+     * TEST 1: Una transacción readOnly usa la réplica
+     */
+    @Test
+    @Order(1)
+    public void test1_ReadOnlyTransactionUsesReplica() {
+        System.out.println("\n=== TEST 1: Transacción readOnly en la réplica ===");
+
+        assertEquals(1, replicaConnectionsDuring(true));
+
+        System.out.println("✅ TEST 1 PASÓ: La lectura usó el pool de la réplica\n");
+    }
+
+    /**
+     * TEST 2: Las transacciones de escritura siempre van al primario
+     */
+    @Test
+    @Order(2)
+    public void test2_WriteTransactionUsesPrimary() {
+        System.out.println("\n=== TEST 2: Transacción de escritura en el primario ===");
+
+        assertEquals(0, replicaConnectionsDuring(false));
+
+        System.out.println("✅ TEST 2 PASÓ: La escritura no tocó la réplica\n");
+    }
+
+    /**
+     * TEST 3: Tras escribir, las lecturas del mismo cliente van al primario
+     */
+    @Test
+    @Order(3)
+    public void test3_ReadsAfterWriteStickToPrimary() {
+        System.out.println("\n=== TEST 3: Lectura del propio cliente tras escribir ===");
+
+        long now = System.currentTimeMillis();
+        assertEquals(0, replicaConnectionsInRequest(now));
+        assertEquals(1, replicaConnectionsInRequest(null));
+        // Escritura fuera de la ventana, o una marca del futuro más allá de la desviación tolerada
+        assertEquals(1, replicaConnectionsInRequest(now - 3_600_000));
+        assertEquals(1, replicaConnectionsInRequest(now + 3_600_000));
+
+        System.out.println("✅ TEST 3 PASÓ: Solo el cliente que escribió lee del primario\n");
+    }
+
+    /**
+     * TEST 4: Réplica caída o retrasada: todas las lecturas van al primario
+     */
+    @Test
+    @Order(4)
+    public void test4_LaggingReplicaFallsBackToPrimary() {
+        System.out.println("\n=== TEST 4: Réplica con retraso o no disponible ===");
+
+        try {
+            tracker.updateReplicaLag(60_000);
+            assertEquals(0, replicaConnectionsDuring(true));
+
+            tracker.markReplicaUnavailable();
+            assertEquals(0, replicaConnectionsDuring(true));
+        } finally {
+            tracker.updateReplicaLag(0);
+        }
+        assertEquals(1, replicaConnectionsDuring(true));
+
+        System.out.println("✅ TEST 4 PASÓ: Lecturas al primario mientras la réplica no es consistente\n");
+    }
+
+    /**
+     * TEST 5: Las lecturas del catálogo van al primario mientras la réplica podría no tener la última versión
+     */
+    @Test
+    @Order(5)
+    public void test5_CatalogReadsAfterCatalogChangeUsePrimary() {
+        System.out.println("\n=== TEST 5: Lecturas del catálogo tras un cambio ===");
+
+        long anHourAgo = System.currentTimeMillis() - 3_600_000;
+        assertTrue(tracker.catalogReadNeedsPrimary(System.currentTimeMillis()));
+        assertFalse(tracker.catalogReadNeedsPrimary(anHourAgo));
+        try {
+            // Cualquier retraso informado: la versión del ETag podría no estar en la réplica
+            tracker.updateReplicaLag(100);
+            assertTrue(tracker.catalogReadNeedsPrimary(anHourAgo));
+        } finally {
+            tracker.updateReplicaLag(0);
+        }
+
+        tracker.beginRequest(null, false);
+        try {
+            tracker.pinToPrimary();
+            assertEquals(0, replicaConnectionsDuring(true));
+        } finally {
+            tracker.endRequest();
+        }
+        assertEquals(0, tracker.onPrimary(() -> replicaConnectionsDuring(true)));
+        assertEquals(1, replicaConnectionsDuring(true));
+
+        System.out.println("✅ TEST 5 PASÓ: Lecturas del catálogo en el primario tras un cambio\n");
+    }
+
+    /**
+     * TEST 6: La marca de escritura viaja con el cliente, así que la respeta cualquier instancia
+     */
+    @Test
+    @Order(6)
+    public void test6_WriteMarkerTravelsWithClient() throws Exception {
+        System.out.println("\n=== TEST 6: Marca de escritura en la cabecera X-Last-Write-At ===");
+
+        // Esta instancia no guarda nada: otra instancia con su propio filtro ve lo mismo
+        ReplicaStickinessFilter filter = new ReplicaStickinessFilter(tracker);
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/cart/user/1/items"), writeResponse, (req, res) -> {});
+        String marker = writeResponse.getHeader(ReplicaStickinessFilter.LAST_WRITE_HEADER);
+        assertNotNull(marker);
+
+        int[] connections = new int[1];
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/cart/user/1");
+        read.addHeader(ReplicaStickinessFilter.LAST_WRITE_HEADER, marker);
+        filter.doFilter(read, new MockHttpServletResponse(), (req, res) -> connections[0] = replicaConnectionsDuring(true));
+        assertEquals(0, connections[0]);
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/cart/user/1"), new MockHttpServletResponse(),
+                (req, res) -> connections[0] = replicaConnectionsDuring(true));
+        assertEquals(1, connections[0]);
+
+        System.out.println("✅ TEST 6 PASÓ: La lectura con la marca va al primario sin estado en la instancia\n");
+    }
+
+    private int replicaConnectionsInRequest(Long lastWriteAtMillis) {
+        tracker.beginRequest(lastWriteAtMillis, false);
+        try {
+            return replicaConnectionsDuring(true);
+        } finally {
+            tracker.endRequest();
+        }
+    }
+
+    /**
+     * Conexiones activas del pool de la réplica mientras una transacción tiene su conexión abierta
+     */
+    private int replicaConnectionsDuring(boolean readOnly) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+        Integer active = template.execute(status -> {
+            productRepository.count();
+            HikariPoolMXBean pool = replicaDataSource.getHikariPoolMXBean();
+            return pool != null ? pool.getActiveConnections() : 0;
+        });
+        return active != null ? active : 0;
+    }
+}
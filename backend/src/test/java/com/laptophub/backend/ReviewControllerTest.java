@@ -11,6 +11,7 @@ import com.laptophub.backend.repository.UserRepository;
 import com.laptophub.backend.repository.OrderRepository;
 import com.laptophub.backend.repository.OrderItemRepository;
 import com.laptophub.backend.repository.PaymentRepository;
+import com.laptophub.backend.repository.PurchaseLedgerRepository;
 import com.laptophub.backend.support.TestAuthHelper;
 import com.laptophub.backend.support.TestAuthHelper.AuthInfo;
 import org.junit.jupiter.api.Test;
@@ -68,6 +69,9 @@ public class ReviewControllerTest {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private PurchaseLedgerRepository purchaseLedgerRepository;
+
     private static String userId;
     private static String productId;
     private static String reviewId;
@@ -154,6 +158,8 @@ public class ReviewControllerTest {
                 .precioUnitario(new BigDecimal("1499.99"))
                 .build();
         orderItemRepository.save(orderItem);
+        // La orden se insertó directo en BD, sin pasar por el cambio de estado: se carga como historial
+        purchaseLedgerRepository.backfill();
         
         System.out.println("✅ TEST 1 PASÓ: Usuario creado con ID: " + userId);
         System.out.println("✅ Producto creado con ID: " + productId);
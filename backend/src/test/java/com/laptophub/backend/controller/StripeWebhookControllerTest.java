@@ -20,6 +20,7 @@ import com.stripe.model.Event;
 
 import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -49,6 +50,12 @@ public class StripeWebhookControllerTest {
     private OrderRepository orderRepository;
     @MockitoBean
     private com.laptophub.backend.security.JwtAuthenticationFilter jwtAuthenticationFilter;
+    @MockitoBean
+    private com.laptophub.backend.service.CatalogVersionService catalogVersionService;
+    @MockitoBean
+    private com.laptophub.backend.service.SalesRollupService salesRollupService;
+    @MockitoBean
+    private com.laptophub.backend.service.PurchaseLedgerService purchaseLedgerService;
 
     private Payment payment;
     private Order order;
@@ -98,6 +105,7 @@ public class StripeWebhookControllerTest {
         payment.setEstado(PaymentStatus.PENDIENTE);
         payment.setOrder(order);
         when(paymentRepository.findByStripePaymentId("pi_test")).thenReturn(Optional.of(payment));
+        when(orderRepository.updateEstado(any(), eq(OrderStatus.PENDIENTE_PAGO), any())).thenReturn(1);
     }
 
     @Test
@@ -133,4 +141,27 @@ public class StripeWebhookControllerTest {
                     .andExpect(status().isOk());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testWebhookDuplicateDeliveryCountsOnce() throws Exception {
+        // Otra entrega del mismo evento ya cambió el estado: el UPDATE condicional no afecta filas
+        when(orderRepository.updateEstado(any(), eq(OrderStatus.PENDIENTE_PAGO), any())).thenReturn(0);
+
+        try (MockedStatic<Webhook> webhookMock = mockStatic(Webhook.class)) {
+            Event mockEvent = mock(Event.class);
+            when(mockEvent.getType()).thenReturn("payment_intent.succeeded");
+
+            webhookMock.when(() -> Webhook.constructEvent(anyString(), anyString(), anyString()))
+                    .thenReturn(mockEvent);
+
+            mockMvc.perform(post("/api/stripe/webhook")
+                    .content(PAYLOAD_SUCCEEDED)
+                    .contentType("application/json")
+                    .header("Stripe-Signature", "test_signature"))
+                    .andExpect(status().isOk());
+        }
+
+        verify(salesRollupService, never()).recordTransition(any(), any(), any());
+        verify(purchaseLedgerService, never()).recordTransition(any(), any(), any());
+    }
+}
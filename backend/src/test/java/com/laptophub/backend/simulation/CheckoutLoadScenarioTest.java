@@ -0,0 +1,288 @@
+package com.laptophub.backend.simulation;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.laptophub.backend.model.Brand;
+import com.laptophub.backend.model.Product;
+import com.laptophub.backend.repository.BrandRepository;
+import com.laptophub.backend.repository.ProductRepository;
+import com.laptophub.backend.support.TestAuthHelper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Escenario de carga de checkout contra el backend real con Stripe, Cloudinary y Brevo simulados.
+ * Cada usuario virtual navega el catálogo, agrega al carrito, crea la orden y recibe el webhook firmado.
+ *
+ * Solo se ejecuta de forma explícita:
+ *   ./mvnw test -Dtest=CheckoutLoadScenarioTest -Dloadtest=true -Dloadtest.users=50 -Dloadtest.iterations=10
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("simulated")
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SuppressWarnings("null")
+public class CheckoutLoadScenarioTest {
+
+    private static final String[] STEPS = {"browse", "detail", "add-to-cart", "checkout", "webhook"};
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${stripe.webhook.secret}")
+    private String webhookSecret;
+
+    @Autowired
+    private BrandRepository brandRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private final Map<String, List<Long>> latencies = new LinkedHashMap<>();
+    private final Map<String, AtomicInteger> errors = new LinkedHashMap<>();
+
+    @Test
+    void checkoutUnderLoad() throws Exception {
+        int users = Integer.getInteger("loadtest.users", 20);
+        int iterations = Integer.getInteger("loadtest.iterations", 5);
+        int productCount = Integer.getInteger("loadtest.products", 10);
+
+        for (String step : STEPS) {
+            latencies.put(step, Collections.synchronizedList(new ArrayList<>()));
+            errors.put(step, new AtomicInteger());
+        }
+
+        List<Long> productIds = seedCatalog(productCount);
+        List<String[]> virtualUsers = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            virtualUsers.add(registerAndLogin());
+        }
+
+        System.out.println("🚀 Escenario de carga: " + users + " usuarios x " + iterations
+                + " checkouts sobre " + productCount + " productos");
+
+        AtomicInteger completedCheckouts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (String[] virtualUser : virtualUsers) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < iterations; i++) {
+                        if (runCheckout(virtualUser[0], virtualUser[1], productIds)) {
+                            completedCheckouts.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        printReport(elapsedSeconds, completedCheckouts.get(), users * iterations);
+        assertTrue(completedCheckouts.get() > 0, "Ningún checkout terminó correctamente");
+    }
+
+    private boolean runCheckout(String token, String userId, List<Long> productIds) throws Exception {
+        Long productId = productIds.get(ThreadLocalRandom.current().nextInt(productIds.size()));
+
+        if (call("browse", get("/api/products?page=0&size=20", null)) == null) {
+            return false;
+        }
+        if (call("detail", get("/api/products/" + productId, null)) == null) {
+            return false;
+        }
+
+        String cartBody = objectMapper.writeValueAsString(Map.of("productId", productId, "cantidad", 1));
+        if (call("add-to-cart", post("/api/cart/user/" + userId + "/items", token, cartBody)) == null) {
+            return false;
+        }
+
+        String orderBody = objectMapper.writeValueAsString(Map.of("direccionEnvio", "Calle Simulada 123"));
+        JsonNode order = call("checkout", post("/api/orders/user/" + userId, token, orderBody));
+        if (order == null || order.path("payment").path("stripePaymentId").isMissingNode()) {
+            return false;
+        }
+
+        String payload = succeededEvent(order.path("payment").path("stripePaymentId").asText(),
+                order.path("id").asText());
+        HttpRequest webhook = HttpRequest.newBuilder(uri("/api/stripe/webhook"))
+                .header("Content-Type", "application/json")
+                .header("Stripe-Signature", sign(payload))
+                .POST(HttpRequest.BodyPublishers.ofString(payload))
+                .build();
+        return call("webhook", webhook) != null;
+    }
+
+    private JsonNode call(String step, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            latencies.get(step).add((System.nanoTime() - start) / 1_000_000);
+            if (response.statusCode() >= 400) {
+                errors.get(step).incrementAndGet();
+                return null;
+            }
+            String body = response.body();
+            return body.startsWith("{") || body.startsWith("[") ? objectMapper.readTree(body) : objectMapper.nullNode();
+        } catch (Exception e) {
+            errors.get(step).incrementAndGet();
+            return null;
+        }
+    }
+
+    private void printReport(double elapsedSeconds, int completedCheckouts, int attemptedCheckouts) {
+        long totalRequests = latencies.values().stream().mapToLong(List::size).sum();
+        System.out.println("\n📊 Resultado del escenario de carga");
+        System.out.printf("   Duración: %.1f s | Checkouts: %d/%d | %.1f checkouts/s | %.1f req/s%n",
+                elapsedSeconds, completedCheckouts, attemptedCheckouts,
+                completedCheckouts / elapsedSeconds, totalRequests / elapsedSeconds);
+        System.out.printf("   %-12s %8s %7s %8s %8s %8s %8s%n", "paso", "requests", "errores", "p50", "p95", "p99", "max");
+        for (String step : STEPS) {
+            List<Long> sorted = new ArrayList<>(latencies.get(step));
+            Collections.sort(sorted);
+            System.out.printf("   %-12s %8d %7d %6dms %6dms %6dms %6dms%n",
+                    step, sorted.size(), errors.get(step).get(),
+                    percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                    sorted.isEmpty() ? 0 : sorted.get(sorted.size() - 1));
+        }
+    }
+
+    private long percentile(List<Long> sorted, int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, index));
+    }
+
+    private List<Long> seedCatalog(int productCount) {
+        Brand brand = brandRepository.save(Brand.builder()
+                .nombre("LoadTest " + System.currentTimeMillis())
+                .descripcion("Marca para escenario de carga")
+                .build());
+
+        List<Long> productIds = new ArrayList<>();
+        for (int i = 0; i < productCount; i++) {
+            Product product = productRepository.save(Product.builder()
+                    .nombre("Laptop Carga " + i)
+                    .descripcion("Producto para escenario de carga")
+                    .precio(new BigDecimal("899.99").add(BigDecimal.valueOf(i)))
+                    .stock(1_000_000)
+                    .brand(brand)
+                    .procesador("Intel Core i7")
+                    .ram(16)
+                    .almacenamiento(512)
+                    .pantalla("15.6 pulgadas FHD")
+                    .gpu("Intel Iris Xe")
+                    .peso(new BigDecimal("1.8"))
+                    .build());
+            productIds.add(product.getId());
+        }
+        return productIds;
+    }
+
+    private String[] registerAndLogin() throws Exception {
+        String email = TestAuthHelper.uniqueEmail("load");
+        String password = "password123";
+
+        String registerBody = objectMapper.writeValueAsString(Map.of(
+                "email", email, "password", password, "nombre", "Carga", "apellido", "Virtual"));
+        JsonNode user = objectMapper.readTree(httpClient.send(post("/api/users/register", null, registerBody),
+                HttpResponse.BodyHandlers.ofString()).body());
+
+        String loginBody = objectMapper.writeValueAsString(Map.of("email", email, "password", password));
+        JsonNode login = objectMapper.readTree(httpClient.send(post("/api/auth/login", null, loginBody),
+                HttpResponse.BodyHandlers.ofString()).body());
+
+        return new String[]{login.get("token").asText(), user.get("id").asText()};
+    }
+
+    private String succeededEvent(String paymentIntentId, String orderId) {
+        return "{"
+                + "\"id\":\"evt_sim_" + System.nanoTime() + "\","
+                + "\"object\":\"event\","
+                + "\"created\":" + Instant.now().getEpochSecond() + ","
+                + "\"data\":{\"object\":{"
+                +   "\"id\":\"" + paymentIntentId + "\","
+                +   "\"object\":\"payment_intent\","
+                +   "\"status\":\"succeeded\","
+                +   "\"metadata\":{\"orderId\":\"" + orderId + "\"}"
+                + "}},"
+                + "\"livemode\":false,"
+                + "\"type\":\"payment_intent.succeeded\""
+                + "}";
+    }
+
+    /**
+     * Firma el payload igual que Stripe: HMAC-SHA256 de "timestamp.payload" con el secreto del webhook.
+     */
+    private String sign(String payload) throws Exception {
+        long timestamp = Instant.now().getEpochSecond();
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = HexFormat.of().formatHex(
+                mac.doFinal((timestamp + "." + payload).getBytes(StandardCharsets.UTF_8)));
+        return "t=" + timestamp + ",v1=" + signature;
+    }
+
+    private HttpRequest get(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path)).GET();
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private HttpRequest post(String path, String token, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder.build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
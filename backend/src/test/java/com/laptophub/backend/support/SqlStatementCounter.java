@@ -0,0 +1,81 @@
+package com.laptophub.backend.support;
+
+import com.laptophub.backend.config.QueryPatternDetector;
+import org.junit.jupiter.api.function.ThrowingSupplier;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara durante una petición de test.
+ * Se registra en src/test/resources/application.properties mediante
+ * hibernate.session_factory.statement_inspector, por lo que Hibernate crea la instancia.
+ *
+ * MockMvc ejecuta la petición en el mismo hilo del test, así que el registro es por hilo
+ * y no se mezcla con los schedulers que corran en paralelo.
+ *
+ * Extiende QueryPatternDetector para que el detector de N+1 siga activo en los tests
+ * (Hibernate admite un único statement inspector).
+ */
+public class SqlStatementCounter extends QueryPatternDetector {
+
+    private static final ThreadLocal<List<String>> RECORDED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDED.get();
+        if (recorded != null) {
+            recorded.add(sql);
+        }
+        return super.inspect(sql);
+    }
+
+    /**
+     * Ejecuta la acción y falla si prepara más de maxStatements sentencias SQL.
+     * El mensaje de error agrupa las sentencias repetidas para que un N+1 se vea a simple vista.
+     */
+    public static <T> T assertMaxStatements(String label, int maxStatements, ThrowingSupplier<T> action) throws Throwable {
+        List<String> recorded = new ArrayList<>();
+        RECORDED.set(recorded);
+        T result;
+        try {
+            result = action.get();
+        } finally {
+            RECORDED.remove();
+        }
+
+        System.out.println("🔎 " + label + ": " + recorded.size() + " sentencias SQL (máximo " + maxStatements + ")");
+        if (recorded.size() > maxStatements) {
+            throw new AssertionError(describe(label, maxStatements, recorded));
+        }
+        return result;
+    }
+
+    private static String describe(String label, int maxStatements, List<String> recorded) {
+        Map<String, Integer> grouped = new LinkedHashMap<>();
+        for (String sql : recorded) {
+            grouped.merge(normalize(sql), 1, Integer::sum);
+        }
+
+        StringBuilder message = new StringBuilder()
+                .append(label).append(": se ejecutaron ").append(recorded.size())
+                .append(" sentencias SQL, el presupuesto es ").append(maxStatements)
+                .append(" (+").append(recorded.size() - maxStatements).append(")\n");
+        grouped.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(entry -> message
+                        .append(entry.getValue() > 1 ? String.format("  %3dx ", entry.getValue()) : "       ")
+                        .append(entry.getKey()).append('\n'));
+        message.append("Orden de ejecución:\n");
+        for (int i = 0; i < recorded.size(); i++) {
+            message.append(String.format("  %3d. %s%n", i + 1, normalize(recorded.get(i))));
+        }
+        return message.toString();
+    }
+
+    private static String normalize(String sql) {
+        return sql.replaceAll("\\s+", " ").trim();
+    }
+}
@@ -3,6 +3,7 @@ import { IMAGE_CONFIG } from '@angular/common';
 import { provideRouter } from '@angular/router';
 import { provideHttpClient, withInterceptors } from '@angular/common/http';
 import { authInterceptor } from './services/auth.interceptor';
+import { replicaConsistencyInterceptor } from './services/replica-consistency.interceptor';
 
 import { routes } from './app.routes';
 
@@ -10,7 +11,7 @@ export const appConfig: ApplicationConfig = {
   providers: [
     provideBrowserGlobalErrorListeners(),
     provideRouter(routes),
-    provideHttpClient(withInterceptors([authInterceptor])),
+    provideHttpClient(withInterceptors([authInterceptor, replicaConsistencyInterceptor])),
     {
       provide: IMAGE_CONFIG,
       useValue: {
@@ -0,0 +1,29 @@
+import { HttpInterceptorFn, HttpRequest, HttpHandlerFn, HttpResponse } from '@angular/common/http';
+import { tap } from 'rxjs';
+import { environment } from '../../environments/environment';
+
+// El backend responde cada escritura con esta cabecera; reenviarla hace que las lecturas siguientes
+// vayan a la base primaria y muestren el cambio aunque la réplica todavía no lo tenga
+const LAST_WRITE_HEADER = 'X-Last-Write-At';
+const STORAGE_KEY = 'lastWriteAt';
+
+export const replicaConsistencyInterceptor: HttpInterceptorFn = (req: HttpRequest<any>, next: HttpHandlerFn) => {
+  // Solo peticiones al backend (no Cloudinary ni otros servicios externos)
+  if (!req.url.startsWith(environment.apiBaseUrl)) {
+    return next(req);
+  }
+
+  const lastWriteAt = sessionStorage.getItem(STORAGE_KEY);
+  const outgoing = lastWriteAt ? req.clone({ setHeaders: { [LAST_WRITE_HEADER]: lastWriteAt } }) : req;
+
+  return next(outgoing).pipe(
+    tap(event => {
+      if (event instanceof HttpResponse) {
+        const marker = event.headers.get(LAST_WRITE_HEADER);
+        if (marker) {
+          sessionStorage.setItem(STORAGE_KEY, marker);
+        }
+      }
+    })
+  );
+};